@@ -0,0 +1,141 @@
+package com.hrpd.onboarding.bench;
+
+import com.hrpd.onboarding.chain.Ctx;
+import com.hrpd.onboarding.chain.PassageRef;
+import com.hrpd.onboarding.chain.context.ContextAssembler;
+import com.hrpd.onboarding.chain.intent.IntentClassifier;
+import com.hrpd.onboarding.chain.metrics.ChainMetrics;
+import com.hrpd.onboarding.chain.prompt.PromptTemplates;
+import com.hrpd.onboarding.chain.resilience.StepPolicies;
+import com.hrpd.onboarding.chain.steps.ContextAssemblyStep;
+import com.hrpd.onboarding.chain.steps.ValidateStep;
+import com.hrpd.onboarding.chain.validation.AnswerValidator;
+import com.hrpd.onboarding.config.ContextAssemblyProperties;
+import com.hrpd.onboarding.config.PromptProperties;
+import com.hrpd.onboarding.config.ResilienceProperties;
+import com.hrpd.onboarding.config.ResilienceProperties.Retry;
+import com.hrpd.onboarding.config.ResilienceProperties.StepLimits;
+import com.hrpd.onboarding.config.RetrievalProperties;
+import com.hrpd.onboarding.config.RetrievalProperties.Mode;
+import com.hrpd.onboarding.config.RetrievalProperties.Settings;
+import com.hrpd.onboarding.config.ValidationProperties;
+import com.hrpd.onboarding.rag.ingest.ContentHash;
+import com.hrpd.onboarding.rag.retrieval.HybridRetriever;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.vectorstore.VectorStore;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Realistically sized inputs shared by the benchmarks: handbook-sized passages
+ * (~700 characters each, top-6 like RetrieveStep) and a 7-bullet answer with references.
+ */
+public final class BenchFixtures {
+
+    public static final String QUESTION = "How do I get VPN access on my first day and who approves it?";
+
+    public static final String INTENT = "ONBOARDING_IT";
+
+    public static final List<String> PASSAGES = passages(6);
+
+    public static final List<PassageRef> SOURCES = sources(6);
+
+    public static final String ANSWER = """
+            - Submit a VPN access request in the IT Service Portal under "Remote Access" on your first day [#1].
+            - Your manager must approve the request; approvals are usually completed within one business day [#2].
+            - Install the company VPN client from the Software Center once the approval email arrives [#1].
+            - Complete the mandatory security awareness training before your first VPN login [#3].
+            - Enroll your phone in Okta Verify, which is required for multi-factor authentication [#4].
+            - If the client fails to connect, contact the IT Service Desk at ext. 1234 or via chat [#5].
+            - Information about VPN use on personal devices is missing; contact IT for the current policy.
+
+            References:
+            [#1] IT Onboarding Guide - Remote Access
+            [#2] Access Approval Policy
+            [#3] Security Awareness Program
+            [#4] Multi-Factor Authentication Setup
+            [#5] IT Service Desk Contacts
+            """;
+
+    private BenchFixtures() {
+    }
+
+    public static List<String> passages(int count) {
+        List<String> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            out.add(passage(i));
+        }
+        return out;
+    }
+
+    /** Vector store references of {@link #passages}, with descending similarities. */
+    public static List<PassageRef> sources(int count) {
+        List<PassageRef> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            out.add(new PassageRef(UUID.nameUUIDFromBytes(passage(i).getBytes()).toString(), 0.87 - i * 0.03,
+                    ContentHash.of(passage(i))));
+        }
+        return out;
+    }
+
+    public static String passage(int i) {
+        return ("Section " + (i + 1) + " of the employee handbook. New employees request remote access "
+                + "through the IT Service Portal. Requests are routed to the direct manager for approval and "
+                + "then provisioned by the network team. The VPN client is distributed through the Software "
+                + "Center and requires multi-factor authentication with Okta Verify. Employees must complete "
+                + "the security awareness training before their first login.\n"
+                + "Payroll runs on the 15th and the last business day of each month. Benefits enrollment must "
+                + "be completed within 30 days of the start date through the HR portal. Questions about leave, "
+                + "vacation accrual or policies should be sent to the HR service center.");
+    }
+
+    /** ValidateStep with the default rules of application.properties. */
+    public static ValidateStep validateStep() {
+        return new ValidateStep(new AnswerValidator(new ValidationProperties(7, "references", null)));
+    }
+
+    /** Step policies with the default limits of application.properties. */
+    public static StepPolicies stepPolicies() {
+        var retry = new Retry(2, Duration.ofMillis(100), Duration.ofSeconds(1), 0.5, 0.1, 10);
+        var limits = new StepLimits(Duration.ofSeconds(10), true, 16, 2, 64, 128, Duration.ofSeconds(2), 2.0, 0.9);
+        return new StepPolicies(new ResilienceProperties(retry, limits, null), new SimpleMeterRegistry());
+    }
+
+    /** Vector-only retrieval with the default settings: the benchmarks run without Postgres. */
+    public static HybridRetriever retriever(VectorStore vectorStore) {
+        var settings = new Settings(6, 0.0, 20, 1.0, 1.0, 60);
+        return new HybridRetriever(vectorStore, null, new RetrievalProperties(Mode.VECTOR, false, settings, null, null));
+    }
+
+    public static ContextAssemblyStep contextAssemblyStep() {
+        var props = new ContextAssemblyProperties(true, 1200, 4, 0.7, 0.9);
+        return new ContextAssemblyStep(new ContextAssembler(props, new JTokkitTokenCountEstimator()));
+    }
+
+    /** The bundled prompt templates, without hot reload. */
+    public static PromptTemplates promptTemplates() {
+        var props = new PromptProperties(Map.of(), "", Duration.ofSeconds(30));
+        return new PromptTemplates(props, Map.of("labels", String.join(", ", IntentClassifier.LABELS)),
+                new SimpleMeterRegistry());
+    }
+
+    public static ChainMetrics chainMetrics() {
+        return new ChainMetrics(new SimpleMeterRegistry());
+    }
+
+    /** Context as it looks right before DraftAnswerStep. */
+    public static Ctx retrievedCtx() {
+        return new Ctx(QUESTION, INTENT, PASSAGES, SOURCES, null, new ConcurrentHashMap<>());
+    }
+
+    /** Context as it looks right before ValidateStep / PersistStep. */
+    public static Ctx draftedCtx() {
+        return new Ctx(QUESTION, INTENT, PASSAGES, SOURCES, ANSWER, new ConcurrentHashMap<>());
+    }
+}
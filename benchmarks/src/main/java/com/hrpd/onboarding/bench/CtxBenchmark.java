@@ -0,0 +1,48 @@
+package com.hrpd.onboarding.bench;
+
+import com.hrpd.onboarding.chain.Ctx;
+import com.hrpd.onboarding.chain.CtxField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of deriving contexts as the chain does (withIntent / withPassages / withDraft / merge).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CtxBenchmark {
+
+    private final Set<CtxField> passagesOnly = EnumSet.of(CtxField.PASSAGES);
+    private final Ctx seed = new Ctx(BenchFixtures.QUESTION, null, List.of(), List.of(), null, new ConcurrentHashMap<>());
+    private final Ctx retrieved = BenchFixtures.retrievedCtx();
+
+    @Benchmark
+    public Ctx deriveThroughChain() {
+        return seed
+                .withIntent(BenchFixtures.INTENT)
+                .withPassages(BenchFixtures.PASSAGES, BenchFixtures.SOURCES)
+                .withDraft(BenchFixtures.ANSWER);
+    }
+
+    @Benchmark
+    public Ctx mergeConcurrentStage() {
+        return seed.withIntent(BenchFixtures.INTENT).merge(retrieved, passagesOnly);
+    }
+}
@@ -0,0 +1,24 @@
+package com.hrpd.onboarding.bench;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.util.List;
+
+/**
+ * Local ChatModel answering instantly: an intent label for classification prompts
+ * and {@link BenchFixtures#ANSWER} for everything else.
+ */
+public class FakeChatModel implements ChatModel {
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        String text = prompt.getContents().contains("You are a classifier")
+                ? BenchFixtures.INTENT
+                : BenchFixtures.ANSWER;
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+    }
+}
@@ -0,0 +1,296 @@
+package com.hrpd.onboarding.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for {@code POST /onboarding/ask}, meant for an instance running the
+ * {@code loadtest} profile:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.hrpd.onboarding.bench.LoadDriver \
+ *     --workload=benchmarks/workloads/ask.ndjson --rps=50 --duration=2m
+ * </pre>
+ * Questions of the workload (one per line: plain text, or a recorded {@code {"text": ...}} request
+ * body) are replayed in order, over and over, at {@code --rps} Poisson arrivals (or evenly spaced
+ * with {@code --arrivals=uniform}), whatever the response times. Latency runs from the time each
+ * request was due, so a stalled server shows up in the percentiles instead of slowing the load
+ * down. Arrivals while {@code --max-in-flight} requests are pending are counted as dropped.
+ *
+ * Every second it samples the server's saturation gauges (event-loop pending tasks,
+ * boundedElastic workers and queue, LLM client slots and queue); at the end it prints throughput,
+ * latency percentiles after {@code --warmup}, outcomes, the saturation peaks and the server-side
+ * per-step latencies.
+ */
+public final class LoadDriver {
+
+    private static final List<String> STEPS =
+            List.of("intent", "retrieve", "context-assembly", "draft-answer", "validate", "persist");
+
+    /** Server gauges sampled every second: label to metric name and tags. */
+    private static final Map<String, String> GAUGES = gauges();
+
+    private static Map<String, String> gauges() {
+        Map<String, String> gauges = new LinkedHashMap<>();
+        gauges.put("event-loop pending tasks", "reactor.netty.eventloop.pending.tasks");
+        gauges.put("boundedElastic workers", "onboarding.loadtest.scheduler.threads?tag=scheduler:boundedElastic");
+        gauges.put("boundedElastic queued tasks", "onboarding.loadtest.scheduler.queued?tag=scheduler:boundedElastic");
+        gauges.put("LLM calls in flight", "onboarding.llm.in.flight");
+        gauges.put("LLM calls queued", "onboarding.llm.queued");
+        return gauges;
+    }
+
+    private final String url;
+    private final List<String> questions;
+    private final double rps;
+    private final Duration duration;
+    private final Duration warmup;
+    private final int maxInFlight;
+    private final boolean poisson;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Recorder recorder = new Recorder(3);
+    private final Histogram total = new Histogram(3);
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Map<String, double[]> saturation = new ConcurrentHashMap<>();
+
+    private LoadDriver(Map<String, String> options) throws IOException {
+        this.url = options.getOrDefault("url", "http://localhost:8080");
+        this.questions = workload(Path.of(options.getOrDefault("workload", "benchmarks/workloads/ask.ndjson")));
+        this.rps = Double.parseDouble(options.getOrDefault("rps", "20"));
+        this.duration = Duration.parse("PT" + options.getOrDefault("duration", "60s").toUpperCase());
+        this.warmup = Duration.parse("PT" + options.getOrDefault("warmup", "10s").toUpperCase());
+        this.maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "2000"));
+        this.poisson = !"uniform".equals(options.getOrDefault("arrivals", "poisson"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        new LoadDriver(options).run();
+    }
+
+    private List<String> workload(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file).stream().map(String::strip).filter(l -> !l.isEmpty()).toList();
+        List<String> texts = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            texts.add(line.startsWith("{") ? json.readTree(line).path("text").asText() : line);
+        }
+        if (texts.isEmpty()) {
+            throw new IllegalArgumentException("No questions in " + file);
+        }
+        return texts;
+    }
+
+    private void run() throws Exception {
+        System.out.printf("Load test: %s/onboarding/ask, %.1f rps (%s arrivals) for %ds after a %ds warm-up, %d questions%n",
+                url, rps, poisson ? "Poisson" : "uniform", duration.toSeconds(), warmup.toSeconds(), questions.size());
+
+        ScheduledExecutorService monitor = Executors.newSingleThreadScheduledExecutor();
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        monitor.scheduleAtFixedRate(() -> progress(start, measureFrom), 10, 10, TimeUnit.SECONDS);
+        monitor.scheduleAtFixedRate(() -> sample(System.nanoTime() >= measureFrom), 1, 1, TimeUnit.SECONDS);
+
+        double period = TimeUnit.SECONDS.toNanos(1) / rps;
+        long due = start;
+        for (int i = 0; due < end; i++) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = due >= measureFrom;
+            if (inFlight.get() >= maxInFlight) {
+                if (measured) {
+                    dropped.increment();
+                }
+            } else {
+                send(questions.get(i % questions.size()), due, measured);
+            }
+            due += (long) (poisson ? -Math.log(1 - ThreadLocalRandom.current().nextDouble()) * period : period);
+        }
+
+        long drainUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+            Thread.sleep(100);
+        }
+        monitor.shutdownNow();
+        report();
+    }
+
+    private void send(String question, long due, boolean measured) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(url + "/onboarding/ask"))
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json.writeValueAsString(Map.of("text", question))))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        inFlight.incrementAndGet();
+        if (measured) {
+            sent.increment();
+        }
+        http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            inFlight.decrementAndGet();
+            if (!measured) {
+                return;
+            }
+            recorder.recordValue(Math.max(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due), 1));
+            String outcome = error != null ? "error " + rootCause(error).getClass().getSimpleName()
+                    : "HTTP " + response.statusCode();
+            outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+        });
+    }
+
+    private void progress(long start, long measureFrom) {
+        Histogram interval = recorder.getIntervalHistogram();
+        synchronized (total) {
+            total.add(interval);
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
+        System.out.printf("[%4ds]%s completed %6d  in flight %5d  p50 %7.0f ms  p99 %7.0f ms%n",
+                elapsed, System.nanoTime() < measureFrom ? " (warm-up)" : "", interval.getTotalCount(), inFlight.get(),
+                interval.getValueAtPercentile(50) / 1000.0, interval.getValueAtPercentile(99) / 1000.0);
+    }
+
+    /** Keeps, per gauge, {max, sum, samples}. */
+    private void sample(boolean measured) {
+        if (!measured) {
+            return;
+        }
+        GAUGES.forEach((label, metric) -> {
+            Double value = serverValue(metric, "VALUE");
+            if (value != null && !value.isNaN()) {
+                saturation.merge(label, new double[]{value, value, 1},
+                        (a, b) -> new double[]{Math.max(a[0], b[0]), a[1] + b[1], a[2] + b[2]});
+            }
+        });
+    }
+
+    private void report() {
+        synchronized (total) {
+            total.add(recorder.getIntervalHistogram());
+        }
+        long completed = total.getTotalCount();
+        System.out.println();
+        System.out.println("== Client ==");
+        System.out.printf("sent %d, completed %d, dropped %d (max in flight %d), throughput %.1f rps%n",
+                sent.sum(), completed, dropped.sum(), maxInFlight, completed / (double) duration.toSeconds());
+        new TreeMap<>(outcomes).forEach((outcome, count) -> System.out.printf("  %-28s %d%n", outcome, count.sum()));
+        System.out.printf("latency ms: p50 %.0f  p90 %.0f  p99 %.0f  p99.9 %.0f  max %.0f%n",
+                total.getValueAtPercentile(50) / 1000.0, total.getValueAtPercentile(90) / 1000.0,
+                total.getValueAtPercentile(99) / 1000.0, total.getValueAtPercentile(99.9) / 1000.0,
+                total.getMaxValue() / 1000.0);
+
+        System.out.println();
+        System.out.println("== Server saturation (max / mean of 1 s samples) ==");
+        GAUGES.keySet().forEach(label -> {
+            double[] s = saturation.get(label);
+            System.out.printf("  %-28s %s%n", label, s == null ? "n/a" : "%.0f / %.1f".formatted(s[0], s[1] / s[2]));
+        });
+        Double capacity = serverValue("onboarding.loadtest.scheduler.capacity?tag=scheduler:boundedElastic", "VALUE");
+        System.out.printf("  %-28s %s%n", "boundedElastic capacity", capacity == null ? "n/a" : "%.0f".formatted(capacity));
+
+        System.out.println();
+        System.out.println("== Server steps (successful executions since startup, ms) ==");
+        System.out.printf("  %-18s %8s %8s %8s %8s %8s%n", "step", "count", "mean", "p95", "p99", "max");
+        STEPS.forEach(this::stepLine);
+    }
+
+    private void stepLine(String step) {
+        String tags = "?tag=step:" + step + "&tag=outcome:success";
+        Double count = serverValue("onboarding.step.duration" + tags, "COUNT");
+        if (count == null || count == 0) {
+            System.out.printf("  %-18s %8s%n", step, "n/a");
+            return;
+        }
+        Double totalTime = serverValue("onboarding.step.duration" + tags, "TOTAL_TIME");
+        Double max = serverValue("onboarding.step.duration" + tags, "MAX");
+        Double p95 = serverValue("onboarding.step.duration.percentile" + tags + "&tag=phi:0.95", "VALUE");
+        Double p99 = serverValue("onboarding.step.duration.percentile" + tags + "&tag=phi:0.99", "VALUE");
+        System.out.printf("  %-18s %8.0f %8s %8s %8s %8s%n", step, count,
+                millis(totalTime == null ? null : totalTime / count), millis(p95), millis(p99), millis(max));
+    }
+
+    private static String millis(Double seconds) {
+        return seconds == null ? "n/a" : "%.0f".formatted(seconds * 1000);
+    }
+
+    /** A statistic of an actuator metric ("name?tag=k:v&..."), or null when it is not there. */
+    private Double serverValue(String metric, String statistic) {
+        int query = metric.indexOf('?');
+        String name = query < 0 ? metric : metric.substring(0, query);
+        String tags = query < 0 ? "" : metric.substring(query);
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/actuator/metrics/"
+                            + URLEncoder.encode(name, StandardCharsets.UTF_8) + tags))
+                    .timeout(Duration.ofSeconds(2))
+                    .build();
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return null;
+            }
+            for (JsonNode measurement : json.readTree(response.body()).path("measurements")) {
+                if (statistic.equals(measurement.path("statistic").asText())) {
+                    return measurement.path("value").asDouble();
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
@@ -0,0 +1,91 @@
+package com.hrpd.onboarding.bench;
+
+import com.hrpd.onboarding.chain.Ctx;
+import com.hrpd.onboarding.chain.intent.LlmIntentClassifier;
+import com.hrpd.onboarding.chain.llm.LlmClient;
+import com.hrpd.onboarding.chain.orchestrator.OnboardingChainOrchestratorService;
+import com.hrpd.onboarding.chain.steps.DraftAnswerStep;
+import com.hrpd.onboarding.chain.steps.IntentStep;
+import com.hrpd.onboarding.chain.steps.PersistStep;
+import com.hrpd.onboarding.chain.steps.RetrieveStep;
+import com.hrpd.onboarding.config.LlmClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SimpleVectorStore;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full chain run with a zero-latency local ChatModel and an in-memory VectorStore,
+ * i.e. everything a request costs apart from model and database latency.
+ * The throughput per thread approximates how many requests a core can drive.
+ *
+ * Note: SimpleVectorStore scans every vector, so {@code corpusSize} also measures
+ * brute-force search cost, which pgvector's ANN index does not have.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class OrchestratorBenchmark {
+
+    @Param({"200"})
+    public int corpusSize;
+
+    private OnboardingChainOrchestratorService orchestrator;
+    private LlmClient llmClient;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var embeddingModel = new FakeEmbeddingModel();
+        var vectorStore = SimpleVectorStore.builder(embeddingModel).build();
+        List<Document> docs = new ArrayList<>(corpusSize);
+        for (int i = 0; i < corpusSize; i++) {
+            docs.add(new Document(BenchFixtures.passage(i), Map.of("domain", "onboarding")));
+        }
+        vectorStore.add(docs);
+
+        llmClient = new LlmClient(new FakeChatModel(), new LlmClientProperties(256, 1024), new SimpleMeterRegistry());
+        var prompts = BenchFixtures.promptTemplates();
+        orchestrator = new OnboardingChainOrchestratorService(List.of(
+                new IntentStep(new LlmIntentClassifier(llmClient, prompts)),
+                new RetrieveStep(BenchFixtures.retriever(vectorStore)),
+                BenchFixtures.contextAssemblyStep(),
+                new DraftAnswerStep(llmClient, prompts),
+                BenchFixtures.validateStep(),
+                new PersistStep(draft -> Mono.empty())),
+                BenchFixtures.stepPolicies(),
+                BenchFixtures.chainMetrics());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        llmClient.destroy();
+    }
+
+    @Benchmark
+    public Ctx run() {
+        return orchestrator.run(BenchFixtures.QUESTION).block();
+    }
+}
@@ -0,0 +1,36 @@
+package com.hrpd.onboarding.bench;
+
+import com.hrpd.onboarding.chain.Ctx;
+import com.hrpd.onboarding.chain.steps.ValidateStep;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-pass rule evaluation performed by ValidateStep on a realistic answer.
+ * Run with {@code -prof gc} to see the allocation rate per validation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidateStepBenchmark {
+
+    private final ValidateStep step = BenchFixtures.validateStep();
+    private final Ctx ctx = BenchFixtures.draftedCtx();
+
+    @Benchmark
+    public Ctx validate() {
+        return step.apply(ctx).block();
+    }
+}
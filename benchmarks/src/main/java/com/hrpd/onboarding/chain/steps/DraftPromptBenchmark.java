@@ -0,0 +1,37 @@
+package com.hrpd.onboarding.chain.steps;
+
+import com.hrpd.onboarding.bench.BenchFixtures;
+import com.hrpd.onboarding.chain.Ctx;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passage joining + prompt template rendering in DraftAnswerStep (same package to reach the
+ * package-private prompt builder; no LLM call involved).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DraftPromptBenchmark {
+
+    private final DraftAnswerStep step = new DraftAnswerStep(null, BenchFixtures.promptTemplates());
+    private final Ctx ctx = BenchFixtures.retrievedCtx();
+
+    @Benchmark
+    public Prompt buildPrompt() {
+        return step.buildPrompt(ctx);
+    }
+}
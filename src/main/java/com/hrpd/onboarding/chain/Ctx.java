@@ -2,6 +2,7 @@ package com.hrpd.onboarding.chain;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Immutable context that flows across chain steps.
@@ -11,6 +12,7 @@ import java.util.Map;
  *  - userText:   original user utterance
  *  - intent:     intent label predicted by IntentStep
  *  - passages:   top-k retrieved passages from VectorStore
+ *  - sources:    vector store reference of each passage, in the same order
  *  - draftAnswer:answer generated by the LLM using retrieved context
  *  - meta:       free-form metadata (e.g., tracing, costs)
  */
@@ -18,15 +20,27 @@ public record Ctx(
         String userText,
         String intent,
         List<String> passages,
+        List<PassageRef> sources,
         String draftAnswer,
         Map<String,Object> meta) {
 
     /** Returns a copy with an updated intent label. */
-    public Ctx withIntent(String i) { return new Ctx(userText, i, passages, draftAnswer, meta); }
+    public Ctx withIntent(String i) { return new Ctx(userText, i, passages, sources, draftAnswer, meta); }
 
-    /** Returns a copy with new retrieved passages. */
-    public Ctx withPassages(List<String> p) { return new Ctx(userText, intent, p, draftAnswer, meta); }
+    /** Returns a copy with new retrieved passages and their sources (same order). */
+    public Ctx withPassages(List<String> p, List<PassageRef> s) { return new Ctx(userText, intent, p, s, draftAnswer, meta); }
 
     /** Returns a copy with a new draft answer. */
-    public Ctx withDraft(String d) { return new Ctx(userText, intent, passages, d, meta); }
+    public Ctx withDraft(String d) { return new Ctx(userText, intent, passages, sources, d, meta); }
+
+    /** Returns a copy where the given fields are taken from {@code other}. */
+    public Ctx merge(Ctx other, Set<CtxField> fields) {
+        return new Ctx(
+                fields.contains(CtxField.USER_TEXT) ? other.userText : userText,
+                fields.contains(CtxField.INTENT) ? other.intent : intent,
+                fields.contains(CtxField.PASSAGES) ? other.passages : passages,
+                fields.contains(CtxField.PASSAGES) ? other.sources : sources,
+                fields.contains(CtxField.DRAFT_ANSWER) ? other.draftAnswer : draftAnswer,
+                fields.contains(CtxField.META) ? other.meta : meta);
+    }
 }
@@ -0,0 +1,14 @@
+package com.hrpd.onboarding.chain;
+
+/**
+ * The fields of {@link Ctx} a {@link Step} can read or write.
+ * Used by the orchestrator to find out which steps are independent of each other.
+ */
+public enum CtxField {
+    USER_TEXT,
+    INTENT,
+    /** The passages together with their sources. */
+    PASSAGES,
+    DRAFT_ANSWER,
+    META
+}
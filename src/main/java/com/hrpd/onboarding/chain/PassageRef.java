@@ -0,0 +1,11 @@
+package com.hrpd.onboarding.chain;
+
+/**
+ * Where a retrieved passage comes from: what drafts store instead of the passage text.
+ *
+ * @param id    id of the chunk in the vector store
+ * @param score similarity reported by the retriever, null when it reports none
+ * @param hash  content hash of the chunk as stored (before any compression), null when unknown
+ */
+public record PassageRef(String id, Double score, String hash) {
+}
@@ -2,8 +2,15 @@ package com.hrpd.onboarding.chain;
 
 import reactor.core.publisher.Mono;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * A processing step in the chain workflow.
+ *
+ * Steps declare which {@link Ctx} fields they read and write so the orchestrator
+ * can run independent steps concurrently. The defaults (read and write everything)
+ * make a step a full barrier, i.e. it runs strictly after and before its neighbours.
  */
 public interface Step {
 
@@ -14,4 +21,14 @@ public interface Step {
      * @return Mono emitting the next context state
      */
     Mono<Ctx> apply(Ctx ctx);
+
+    /** Context fields this step depends on. */
+    default Set<CtxField> reads() {
+        return EnumSet.allOf(CtxField.class);
+    }
+
+    /** Context fields this step produces; only these are merged back into the chain's context. */
+    default Set<CtxField> writes() {
+        return EnumSet.allOf(CtxField.class);
+    }
 }
@@ -0,0 +1,28 @@
+package com.hrpd.onboarding.chain;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * A step whose text output can be produced incrementally (e.g. LLM tokens).
+ * When the chain is streamed, the orchestrator forwards each chunk to the client
+ * and assembles the final value itself instead of calling {@link #apply(Ctx)}.
+ */
+public interface StreamingStep extends Step {
+
+    /**
+     * Streams the step's output as it is generated.
+     *
+     * @param ctx the current context
+     * @return Flux emitting consecutive text chunks
+     */
+    Flux<String> stream(Ctx ctx);
+
+    /**
+     * Builds the step's resulting context from the fully assembled text.
+     *
+     * @param ctx  the context the stream was started with
+     * @param text concatenation of every streamed chunk
+     * @return the next context state
+     */
+    Ctx complete(Ctx ctx, String text);
+}
@@ -0,0 +1,181 @@
+package com.hrpd.onboarding.chain.cache;
+
+import com.hrpd.onboarding.chain.Ctx;
+import com.hrpd.onboarding.config.SemanticCacheProperties;
+import com.hrpd.onboarding.rag.CorpusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, in-memory cache of final chain results keyed by the embedding of the question.
+ * A lookup returns the stored {@link Ctx} of the closest previously answered question,
+ * provided its cosine distance is within the configured threshold.
+ *
+ * Eviction:
+ *  - entries older than the TTL are dropped lazily on access
+ *  - when full, the least recently used entry is evicted
+ *  - the whole cache is cleared whenever the corpus changes; an answer computed before that
+ *    is not stored afterwards (see {@link #generation()})
+ *
+ * Metrics (Actuator /actuator/metrics):
+ *  - onboarding.cache.requests{result=hit|miss}
+ *  - onboarding.cache.evictions
+ *  - onboarding.cache.size
+ */
+@Slf4j
+public class SemanticAnswerCache {
+
+    private record Entry(float[] embedding, Ctx ctx, long createdAt) {}
+
+    /** Result of a successful lookup. */
+    public record Hit(Ctx ctx, double distance) {}
+
+    private final SemanticCacheProperties props;
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong keys = new AtomicLong();
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public SemanticAnswerCache(SemanticCacheProperties props, MeterRegistry registry) {
+        this.props = props;
+        this.hits = Counter.builder("onboarding.cache.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("onboarding.cache.requests").tag("result", "miss").register(registry);
+        this.evictions = Counter.builder("onboarding.cache.evictions").register(registry);
+        Gauge.builder("onboarding.cache.size", this, SemanticAnswerCache::size).register(registry);
+    }
+
+    /**
+     * Finds the cached answer whose question is closest to the given embedding.
+     *
+     * @param embedding embedding of the incoming question
+     * @return the closest cached context if it is within {@code maxDistance}
+     */
+    public Optional<Hit> lookup(float[] embedding) {
+        float[] query = normalize(embedding);
+        long now = System.currentTimeMillis();
+        long ttl = props.ttl().toMillis();
+
+        Long bestKey = null;
+        Entry best = null;
+        double bestDistance = Double.MAX_VALUE;
+
+        synchronized (entries) {
+            Iterator<Map.Entry<Long, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                var e = it.next();
+                if (now - e.getValue().createdAt() > ttl) {
+                    it.remove();
+                    evictions.increment();
+                    continue;
+                }
+                double distance = 1.0 - dot(query, e.getValue().embedding());
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    bestKey = e.getKey();
+                    best = e.getValue();
+                }
+            }
+            if (best != null && bestDistance <= props.maxDistance()) {
+                entries.get(bestKey); // touch for LRU ordering
+                hits.increment();
+                return Optional.of(new Hit(best.ctx(), bestDistance));
+            }
+        }
+
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Current generation of the cache, bumped by every invalidation. Read it before computing
+     * an answer and pass it to {@link #put}.
+     */
+    public long generation() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    /**
+     * Stores the final context produced for a question, unless the cache was invalidated
+     * since the answer was started: it may be grounded on the old corpus.
+     *
+     * @param embedding  embedding of the question
+     * @param ctx        final context returned by the chain
+     * @param generation {@link #generation()} read before the chain was run
+     */
+    public void put(float[] embedding, Ctx ctx, long generation) {
+        var entry = new Entry(normalize(embedding), ctx, System.currentTimeMillis());
+        synchronized (entries) {
+            if (generation != this.generation) {
+                log.debug("🧹 SEMANTIC CACHE: Not storing an answer computed before the last invalidation");
+                return;
+            }
+            entries.put(keys.incrementAndGet(), entry);
+            Iterator<Long> it = entries.keySet().iterator();
+            while (entries.size() > props.maxEntries() && it.hasNext()) {
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /** Drops every cached answer. */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            generation++;
+        }
+    }
+
+    /** Cached answers were grounded on the old corpus, so they can no longer be trusted. */
+    @EventListener
+    public void onCorpusChanged(CorpusChangedEvent event) {
+        log.info("🧹 SEMANTIC CACHE: Corpus changed ({} documents), invalidating cached answers", event.documents());
+        invalidateAll();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static float[] normalize(float[] v) {
+        double norm = 0;
+        for (float x : v) {
+            norm += x * x;
+        }
+        norm = Math.sqrt(norm);
+        float[] out = new float[v.length];
+        if (norm == 0) {
+            return out;
+        }
+        for (int i = 0; i < v.length; i++) {
+            out[i] = (float) (v[i] / norm);
+        }
+        return out;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        int n = Math.min(a.length, b.length);
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
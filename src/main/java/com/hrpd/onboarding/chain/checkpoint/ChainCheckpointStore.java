@@ -0,0 +1,222 @@
+package com.hrpd.onboarding.chain.checkpoint;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hrpd.onboarding.chain.Ctx;
+import com.hrpd.onboarding.chain.checkpoint.Checkpoint.Status;
+import com.hrpd.onboarding.chain.metrics.ChainMetrics;
+import com.hrpd.onboarding.chain.metrics.TokenUsage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Row;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chain checkpoints in the {@code chain_checkpoints} table (V8), one row per idempotency key.
+ *
+ * Every write after the first is fenced by the attempt number: a resume claims the row by
+ * incrementing it, so a run that was wrongly presumed crashed can no longer overwrite it.
+ * Checkpoint writes are best effort; a failed write is logged and the run goes on.
+ *
+ * The context is stored as JSON. Meta entries come back as plain maps and lists, except
+ * the token usage, which is restored so the cost of a resumed run is still recorded.
+ *
+ * Metrics:
+ *  - onboarding.checkpoint.resumes{status=failed|stale|done}
+ */
+@Slf4j
+public class ChainCheckpointStore {
+
+    private static final String COLUMNS = "run_key, user_text, plan, stage, status, attempt, ctx::text AS ctx, updated_at";
+
+    private final DatabaseClient dbClient;
+    private final ObjectMapper objectMapper;
+    private final Duration staleAfter;
+    private final MeterRegistry registry;
+
+    public ChainCheckpointStore(DatabaseClient dbClient, ObjectMapper objectMapper, Duration staleAfter,
+                                MeterRegistry registry) {
+        this.dbClient = dbClient;
+        this.objectMapper = objectMapper;
+        this.staleAfter = staleAfter;
+        this.registry = registry;
+    }
+
+    public Mono<Checkpoint> find(String key) {
+        return dbClient.sql("SELECT " + COLUMNS + " FROM chain_checkpoints WHERE run_key = $1")
+                .bind("$1", key)
+                .map((row, metadata) -> checkpoint(row))
+                .one();
+    }
+
+    /** True for a RUNNING checkpoint nobody has written for {@code staleAfter}: its run has crashed. */
+    public boolean isStale(Checkpoint checkpoint) {
+        return checkpoint.status() == Status.RUNNING
+                && checkpoint.updatedAt().isBefore(OffsetDateTime.now(ZoneOffset.UTC).minus(staleAfter));
+    }
+
+    /**
+     * Creates the checkpoint of a new run (attempt 1, no completed stage).
+     *
+     * @return true if created, false if the key is already taken
+     */
+    public Mono<Boolean> create(String key, String plan, Ctx seed) {
+        return json(seed).flatMap(ctx -> dbClient.sql("""
+                        INSERT INTO chain_checkpoints (run_key, user_text, plan, stage, status, ctx)
+                        VALUES ($1, $2, $3, 0, 'RUNNING', CAST($4 AS JSONB))
+                        ON CONFLICT (run_key) DO NOTHING
+                        """)
+                .bind("$1", key)
+                .bind("$2", seed.userText())
+                .bind("$3", plan)
+                .bind("$4", ctx)
+                .fetch()
+                .rowsUpdated()
+                .map(rows -> rows == 1));
+    }
+
+    /**
+     * Takes over a failed or crashed run: back to RUNNING with the next attempt number.
+     * When the run was planned differently, it restarts from the beginning with the new plan.
+     *
+     * @return the checkpoint to resume from, or empty if another attempt claimed it first
+     */
+    public Mono<Checkpoint> claim(Checkpoint checkpoint, String plan) {
+        boolean samePlan = checkpoint.plan().equals(plan);
+        int stage = samePlan ? checkpoint.stage() : 0;
+        Ctx ctx = samePlan ? checkpoint.ctx()
+                : new Ctx(checkpoint.userText(), null, List.of(), List.of(), null, new ConcurrentHashMap<>());
+        return dbClient.sql("""
+                        UPDATE chain_checkpoints
+                        SET status = 'RUNNING', attempt = attempt + 1, plan = $3, stage = $4, updated_at = NOW()
+                        WHERE run_key = $1 AND attempt = $2
+                        """)
+                .bind("$1", checkpoint.key())
+                .bind("$2", checkpoint.attempt())
+                .bind("$3", plan)
+                .bind("$4", stage)
+                .fetch()
+                .rowsUpdated()
+                .filter(rows -> rows == 1)
+                .map(rows -> {
+                    Counter.builder("onboarding.checkpoint.resumes")
+                            .tag("status", isStale(checkpoint) ? "stale" : checkpoint.status().name().toLowerCase(Locale.ROOT))
+                            .register(registry).increment();
+                    return new Checkpoint(checkpoint.key(), checkpoint.userText(), plan, stage, Status.RUNNING,
+                            checkpoint.attempt() + 1, ctx, OffsetDateTime.now(ZoneOffset.UTC));
+                });
+    }
+
+    /** Records the context after {@code stage} completed stages; DONE once the last one has. */
+    public Mono<Void> save(String key, int attempt, int stage, Status status, Ctx ctx) {
+        return json(ctx).flatMap(json -> dbClient.sql("""
+                        UPDATE chain_checkpoints
+                        SET stage = $3, status = $4, ctx = CAST($5 AS JSONB), updated_at = NOW()
+                        WHERE run_key = $1 AND attempt = $2
+                        """)
+                        .bind("$1", key)
+                        .bind("$2", attempt)
+                        .bind("$3", stage)
+                        .bind("$4", status.name())
+                        .bind("$5", json)
+                        .fetch()
+                        .rowsUpdated())
+                .doOnNext(rows -> {
+                    if (rows == 0) {
+                        log.warn("💾 CHECKPOINT: Run '{}' attempt {} was taken over, not saving stage {}",
+                                key, attempt, stage);
+                    }
+                })
+                .then()
+                .onErrorResume(error -> {
+                    log.warn("💾 CHECKPOINT: Could not save stage {} of run '{}': {}", stage, key, error.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /** Marks a run as failed, keeping its last checkpoint so a retry resumes from it. */
+    public Mono<Void> fail(String key, int attempt) {
+        return dbClient.sql("""
+                        UPDATE chain_checkpoints SET status = 'FAILED', updated_at = NOW()
+                        WHERE run_key = $1 AND attempt = $2
+                        """)
+                .bind("$1", key)
+                .bind("$2", attempt)
+                .fetch()
+                .rowsUpdated()
+                .then()
+                .onErrorResume(error -> {
+                    log.warn("💾 CHECKPOINT: Could not mark run '{}' as failed: {}", key, error.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /** RUNNING checkpoints not updated for {@code staleAfter}, oldest first. */
+    public Flux<Checkpoint> findStale(int limit) {
+        return dbClient.sql("SELECT " + COLUMNS + " FROM chain_checkpoints"
+                        + " WHERE status = 'RUNNING' AND updated_at < $1 ORDER BY updated_at LIMIT $2")
+                .bind("$1", OffsetDateTime.now(ZoneOffset.UTC).minus(staleAfter))
+                .bind("$2", limit)
+                .map((row, metadata) -> checkpoint(row))
+                .all();
+    }
+
+    /** Deletes checkpoints not updated for {@code ttl}. */
+    public Mono<Long> purge(Duration ttl) {
+        return dbClient.sql("DELETE FROM chain_checkpoints WHERE updated_at < $1")
+                .bind("$1", OffsetDateTime.now(ZoneOffset.UTC).minus(ttl))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private Mono<String> json(Ctx ctx) {
+        try {
+            return Mono.just(objectMapper.writeValueAsString(ctx));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+
+    private Checkpoint checkpoint(Row row) {
+        return new Checkpoint(
+                row.get("run_key", String.class),
+                row.get("user_text", String.class),
+                row.get("plan", String.class),
+                row.get("stage", Integer.class),
+                Status.valueOf(row.get("status", String.class)),
+                row.get("attempt", Integer.class),
+                ctx(row.get("ctx", String.class)),
+                row.get("updated_at", OffsetDateTime.class));
+    }
+
+    private Ctx ctx(String json) {
+        try {
+            Ctx stored = objectMapper.readValue(json, Ctx.class);
+            // steps write into meta, which may be shared by concurrent steps
+            var meta = new ConcurrentHashMap<String, Object>();
+            if (stored.meta() != null) {
+                stored.meta().forEach((key, value) -> {
+                    if (value != null) {
+                        meta.put(key, value);
+                    }
+                });
+            }
+            meta.computeIfPresent(ChainMetrics.TOKENS, (key, value) -> objectMapper.convertValue(value, TokenUsage.class));
+            return new Ctx(stored.userText(), stored.intent(),
+                    stored.passages() != null ? stored.passages() : List.of(),
+                    stored.sources() != null ? stored.sources() : List.of(), stored.draftAnswer(), meta);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable checkpoint context", e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.hrpd.onboarding.chain.checkpoint;
+
+import com.hrpd.onboarding.chain.Ctx;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Stored progress of one chain run.
+ *
+ * @param key       idempotency key of the run
+ * @param userText  question of the run
+ * @param plan      stages the run was planned with; a run is only resumed by the same plan
+ * @param stage     number of completed stages
+ * @param status    where the run stands
+ * @param attempt   current attempt, incremented by every resume
+ * @param ctx       context after the last completed stage
+ * @param updatedAt last write
+ */
+public record Checkpoint(String key,
+                         String userText,
+                         String plan,
+                         int stage,
+                         Status status,
+                         int attempt,
+                         Ctx ctx,
+                         OffsetDateTime updatedAt) {
+
+    public enum Status { RUNNING, FAILED, DONE }
+}
@@ -0,0 +1,16 @@
+package com.hrpd.onboarding.chain.checkpoint;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Raised when an idempotency key is reused for another question, or while the run holding it
+ * is still in progress. Surfaces as HTTP 409; the client should retry later with the same key.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class CheckpointConflictException extends RuntimeException {
+
+    public CheckpointConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,85 @@
+package com.hrpd.onboarding.chain.checkpoint;
+
+import com.hrpd.onboarding.chain.orchestrator.ChainWorkflowOrchestratorService;
+import com.hrpd.onboarding.config.CheckpointProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Background upkeep of the checkpoints, once the application is up and then every
+ * {@code maintenanceInterval}:
+ *  - replays crashed runs (RUNNING checkpoints nobody has written for {@code staleAfter}),
+ *    on this instance or on one that is gone, so their clients find the result when they retry;
+ *  - deletes checkpoints older than {@code ttl}.
+ */
+@Slf4j
+public class CheckpointRecovery implements DisposableBean {
+
+    private static final int REPLAY_BATCH = 100;
+
+    private final ChainCheckpointStore store;
+    private final ChainWorkflowOrchestratorService orchestrator;
+    private final CheckpointProperties props;
+
+    private volatile Disposable maintenance;
+
+    /**
+     * @param orchestrator the checkpointing orchestrator itself, not a caching decorator that
+     *                     could answer without completing the run
+     */
+    public CheckpointRecovery(ChainCheckpointStore store,
+                              ChainWorkflowOrchestratorService orchestrator,
+                              CheckpointProperties props) {
+        this.store = store;
+        this.orchestrator = orchestrator;
+        this.props = props;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        maintenance = Flux.interval(Duration.ZERO, props.maintenanceInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> replay().then(purge())
+                        .onErrorResume(error -> {
+                            log.warn("💾 CHECKPOINT: Maintenance failed: {}", error.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (maintenance != null) {
+            maintenance.dispose();
+        }
+    }
+
+    /** Resumes crashed runs; a run claimed meanwhile by another instance is skipped. */
+    public Mono<Void> replay() {
+        return store.findStale(REPLAY_BATCH)
+                .flatMap(checkpoint -> orchestrator.run(checkpoint.userText(), checkpoint.key())
+                        .doOnSuccess(ctx -> log.info("💾 CHECKPOINT: Replayed crashed run '{}'", checkpoint.key()))
+                        .onErrorResume(error -> {
+                            log.warn("💾 CHECKPOINT: Could not replay run '{}': {}", checkpoint.key(), error.getMessage());
+                            return Mono.empty();
+                        }), props.replayConcurrency())
+                .then();
+    }
+
+    private Mono<Void> purge() {
+        return store.purge(props.ttl())
+                .doOnNext(deleted -> {
+                    if (deleted > 0) {
+                        log.info("💾 CHECKPOINT: Deleted {} checkpoints older than {}", deleted, props.ttl());
+                    }
+                })
+                .then();
+    }
+}
@@ -0,0 +1,189 @@
+package com.hrpd.onboarding.chain.context;
+
+import com.hrpd.onboarding.config.ContextAssemblyProperties;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Turns retrieved passages into a compact prompt context, without any model call:
+ *  1. orders them by maximal marginal relevance (retrieval rank against term overlap with the
+ *     passages already selected), dropping near-duplicates;
+ *  2. cuts each one down to the sentences sharing most terms with the question, in their
+ *     original order;
+ *  3. adds them until the token budget is spent, trimming the last one sentence by sentence
+ *     (the first passage is always kept, even when a single sentence exceeds the budget).
+ *     A passage costs its source line too.
+ *
+ * Similarities are cosines between term-frequency vectors (lower-cased words, stop words removed).
+ */
+public class ContextAssembler {
+
+    /** The assembled passages (the n-th is cited as [#n]) and how they were obtained. */
+    public record AssembledContext(List<String> passages, ContextReport report) {
+    }
+
+    private static final Pattern SENTENCE_BREAK = Pattern.compile("(?<=[.!?])\\s+|\\n+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "can", "do", "does", "for", "from", "how", "i",
+            "if", "in", "is", "it", "its", "me", "my", "of", "on", "or", "our", "should", "so", "that", "the",
+            "their", "there", "this", "to", "was", "we", "what", "when", "where", "which", "who", "will",
+            "with", "you", "your");
+
+    private final ContextAssemblyProperties props;
+    private final TokenCountEstimator tokens;
+
+    public ContextAssembler(ContextAssemblyProperties props, TokenCountEstimator tokens) {
+        this.props = props;
+        this.tokens = tokens;
+    }
+
+    public AssembledContext assemble(String question, List<String> passages) {
+        Map<String, Integer> questionTerms = terms(question);
+        List<Map<String, Integer>> passageTerms = passages.stream().map(p -> terms(Passage.body(p))).toList();
+
+        List<Integer> order = new ArrayList<>();
+        int duplicates = selectByMmr(passageTerms, order);
+
+        List<String> assembled = new ArrayList<>();
+        List<Integer> sources = new ArrayList<>();
+        int used = 0;
+        for (int index : order) {
+            String passage = passages.get(index);
+            List<Sentence> kept = relevantSentences(Passage.body(passage), questionTerms);
+            String text = render(passage, kept);
+            int cost = tokens.estimate(text);
+            while (used + cost > props.tokenBudget() && kept.size() > 1) {
+                kept.remove(kept.stream().min(Comparator.comparingDouble(Sentence::score)
+                        .thenComparing(Sentence::position, Comparator.reverseOrder())).orElseThrow());
+                text = render(passage, kept);
+                cost = tokens.estimate(text);
+            }
+            if (used + cost > props.tokenBudget() && !assembled.isEmpty()) {
+                break;
+            }
+            assembled.add(text);
+            sources.add(index);
+            used += cost;
+        }
+        return new AssembledContext(assembled, new ContextReport(passages.size(), duplicates, used, sources));
+    }
+
+    /**
+     * Appends passage indexes to {@code order} by maximal marginal relevance; relevance is the
+     * retrieval rank scaled to (0, 1]. Returns the number of near-duplicates left out.
+     */
+    private int selectByMmr(List<Map<String, Integer>> passageTerms, List<Integer> order) {
+        int n = passageTerms.size();
+        double[] maxSimilarity = new double[n];
+        boolean[] done = new boolean[n];
+        int duplicates = 0;
+        for (int round = 0; round < n; round++) {
+            int best = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                if (done[i]) {
+                    continue;
+                }
+                double relevance = 1 - (double) i / n;
+                double score = props.mmrLambda() * relevance - (1 - props.mmrLambda()) * maxSimilarity[i];
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = i;
+                }
+            }
+            done[best] = true;
+            if (maxSimilarity[best] >= props.duplicateSimilarity()) {
+                duplicates++;
+                continue;
+            }
+            order.add(best);
+            for (int i = 0; i < n; i++) {
+                if (!done[i]) {
+                    maxSimilarity[i] = Math.max(maxSimilarity[i], cosine(passageTerms.get(best), passageTerms.get(i)));
+                }
+            }
+        }
+        return duplicates;
+    }
+
+    private record Sentence(int position, String text, double score) {
+    }
+
+    /**
+     * The sentences of a passage sharing most question terms, in document order. A passage
+     * without any shared term keeps its leading sentences.
+     */
+    private List<Sentence> relevantSentences(String body, Map<String, Integer> questionTerms) {
+        String[] parts = SENTENCE_BREAK.split(body.trim());
+        List<Sentence> sentences = new ArrayList<>(parts.length);
+        for (String part : parts) {
+            if (!part.isBlank()) {
+                double score = terms(part).keySet().stream().filter(questionTerms::containsKey).count();
+                sentences.add(new Sentence(sentences.size(), part.trim(), score));
+            }
+        }
+        if (sentences.size() <= props.maxSentencesPerPassage()) {
+            return sentences;
+        }
+        List<Sentence> kept = new ArrayList<>(sentences.stream()
+                .sorted(Comparator.comparingDouble(Sentence::score).reversed().thenComparingInt(Sentence::position))
+                .limit(props.maxSentencesPerPassage())
+                .toList());
+        kept.sort(Comparator.comparingInt(Sentence::position));
+        return kept;
+    }
+
+    private static String render(String passage, List<Sentence> sentences) {
+        StringBuilder text = new StringBuilder(Passage.header(passage));
+        int previous = -1;
+        for (Sentence sentence : sentences) {
+            if (previous >= 0) {
+                // mark the gap where sentences were cut
+                text.append(sentence.position() == previous + 1 ? " " : " … ");
+            }
+            text.append(sentence.text());
+            previous = sentence.position();
+        }
+        return text.toString();
+    }
+
+    private static Map<String, Integer> terms(String text) {
+        Map<String, Integer> terms = new HashMap<>();
+        for (String word : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (word.length() > 1 && !STOP_WORDS.contains(word)) {
+                terms.merge(word, 1, Integer::sum);
+            }
+        }
+        return terms;
+    }
+
+    private static double cosine(Map<String, Integer> a, Map<String, Integer> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        Map<String, Integer> small = a.size() <= b.size() ? a : b;
+        Map<String, Integer> large = small == a ? b : a;
+        double dot = 0;
+        for (Map.Entry<String, Integer> term : small.entrySet()) {
+            dot += term.getValue() * (double) large.getOrDefault(term.getKey(), 0);
+        }
+        return dot / (norm(a) * norm(b));
+    }
+
+    private static double norm(Map<String, Integer> terms) {
+        double sum = 0;
+        for (int count : terms.values()) {
+            sum += (double) count * count;
+        }
+        return Math.sqrt(sum);
+    }
+}
@@ -0,0 +1,14 @@
+package com.hrpd.onboarding.chain.context;
+
+import java.util.List;
+
+/**
+ * Outcome of context assembly, stored in {@code meta.context}.
+ *
+ * @param retrieved  passages before assembly
+ * @param duplicates passages dropped as near-duplicates of a selected one
+ * @param tokens     tokens of the assembled passages
+ * @param sources    for each assembled passage (the n-th is cited as [#n]), its index among the retrieved ones
+ */
+public record ContextReport(int retrieved, int duplicates, int tokens, List<Integer> sources) {
+}
@@ -0,0 +1,29 @@
+package com.hrpd.onboarding.chain.context;
+
+/**
+ * Text form of a retrieved passage in {@code Ctx.passages()}: an optional
+ * {@code "source: <title>"} first line followed by the chunk text. The line is part of the
+ * passage, so it counts against the context token budget.
+ */
+public final class Passage {
+
+    private static final String SOURCE_PREFIX = "source: ";
+
+    private Passage() {
+    }
+
+    /** @param source short document title, or null to leave the line out */
+    public static String of(String source, String text) {
+        return source == null ? text : SOURCE_PREFIX + source + "\n" + text;
+    }
+
+    /** The source line including its line break, or an empty string. */
+    static String header(String passage) {
+        int newline = passage.indexOf('\n');
+        return passage.startsWith(SOURCE_PREFIX) && newline >= 0 ? passage.substring(0, newline + 1) : "";
+    }
+
+    static String body(String passage) {
+        return passage.substring(header(passage).length());
+    }
+}
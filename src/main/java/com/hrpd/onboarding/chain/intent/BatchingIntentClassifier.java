@@ -0,0 +1,174 @@
+package com.hrpd.onboarding.chain.intent;
+
+import com.hrpd.onboarding.chain.llm.LlmClient;
+import com.hrpd.onboarding.chain.prompt.PromptTemplates;
+import com.hrpd.onboarding.chain.resilience.OverloadedException;
+import com.hrpd.onboarding.config.IntentClassifierProperties.Batching;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Groups concurrent classification requests into a single LLM call.
+ *
+ * Requests are collected for at most {@code window} or until {@code maxBatchSize} are waiting,
+ * then sent as one numbered prompt (the {@value #PROMPT} template); the model answers one {@code "<n>: <LABEL>"} line per item.
+ * Each parsed label completes its caller's Mono. Items whose line is missing or holds an unknown
+ * label are classified again on their own by the {@code fallback} classifier. A batch that fails
+ * anywhere (the call, parsing the answer) or is cancelled fails every item it has not completed.
+ *
+ * Requests are queued without blocking the caller's thread (callers emit one at a time); once the
+ * classifier is destroyed, waiting and new requests fail instead of never completing.
+ *
+ * Metrics:
+ *  - onboarding.intent.batch.size (items per LLM call)
+ *  - onboarding.intent.fallbacks (items re-classified individually)
+ */
+@Slf4j
+public class BatchingIntentClassifier implements IntentClassifier, DisposableBean {
+
+    public static final String PROMPT = "intent-batch";
+
+    private static final Pattern ANSWER_LINE = Pattern.compile("^\\s*(\\d{1,4})\\s*[:.)\\-]\\s*\"?([A-Z_]+)\"?\\s*$", Pattern.MULTILINE);
+
+    private record Pending(String text, Sinks.One<String> result) {}
+
+    private final LlmClient llm;
+    private final PromptTemplates prompts;
+    private final IntentClassifier fallback;
+    private final Sinks.Many<Pending> requests = Sinks.many().unicast().onBackpressureBuffer();
+    private final Set<Pending> outstanding = ConcurrentHashMap.newKeySet();
+    private final Disposable pipeline;
+    private boolean closed;
+
+    private final DistributionSummary batchSize;
+    private final Counter fallbacks;
+
+    public BatchingIntentClassifier(LlmClient llm, PromptTemplates prompts, IntentClassifier fallback, Batching props,
+                                    MeterRegistry registry) {
+        this.llm = llm;
+        this.prompts = prompts;
+        this.fallback = fallback;
+        this.batchSize = DistributionSummary.builder("onboarding.intent.batch.size").register(registry);
+        this.fallbacks = Counter.builder("onboarding.intent.fallbacks").register(registry);
+        this.pipeline = requests.asFlux()
+                .bufferTimeout(props.maxBatchSize(), props.window(), true)
+                .flatMap(this::classifyBatch, props.maxConcurrentBatches())
+                .subscribe();
+    }
+
+    @Override
+    public Mono<String> classify(String text) {
+        return Mono.defer(() -> {
+            Pending pending = new Pending(text, Sinks.one());
+            Sinks.EmitResult emitted;
+            synchronized (requests) {
+                if (closed) {
+                    return Mono.error(shutDown());
+                }
+                outstanding.add(pending);
+                emitted = requests.tryEmitNext(pending);
+            }
+            if (emitted.isFailure()) {
+                outstanding.remove(pending);
+                return Mono.error(new OverloadedException("Intent batching queue rejected the request: " + emitted));
+            }
+            return pending.result().asMono().doFinally(signal -> outstanding.remove(pending));
+        });
+    }
+
+    @Override
+    public void destroy() {
+        synchronized (requests) {
+            closed = true;
+            requests.tryEmitComplete();
+        }
+        pipeline.dispose();
+        outstanding.forEach(pending -> pending.result().tryEmitError(shutDown()));
+    }
+
+    private static IllegalStateException shutDown() {
+        return new IllegalStateException("Intent classifier is shut down");
+    }
+
+    private Mono<Void> classifyBatch(List<Pending> batch) {
+        return Mono.defer(() -> send(batch))
+                // however the batch ends, no caller is left waiting for its label
+                .doOnError(error -> batch.forEach(p -> p.result().tryEmitError(error)))
+                .doFinally(signal -> batch.forEach(p -> p.result().tryEmitError(
+                        new IllegalStateException("Intent batch ended (" + signal + ") without a label"))))
+                .onErrorResume(e -> Mono.empty());
+    }
+
+    private Mono<Void> send(List<Pending> batch) {
+        batchSize.record(batch.size());
+        if (batch.size() == 1) {
+            Pending only = batch.get(0);
+            return complete(only, fallback.classify(only.text()));
+        }
+
+        log.debug("🎯 INTENT STEP: Classifying {} questions in one LLM call", batch.size());
+        return Mono.fromSupplier(() -> prompts.get(PROMPT).render(Map.of("items", items(batch))).prompt())
+                .flatMap(llm::call)
+                .map(LlmClient::textOf)
+                .flatMap(answer -> {
+                    Map<Integer, String> labels = parse(answer);
+                    return Flux.range(0, batch.size())
+                            .flatMap(i -> {
+                                Pending pending = batch.get(i);
+                                String label = labels.get(i + 1);
+                                if (label != null) {
+                                    pending.result().tryEmitValue(label);
+                                    return Mono.empty();
+                                }
+                                fallbacks.increment();
+                                log.warn("🎯 INTENT STEP: No valid label for batch item {}, classifying it alone", i + 1);
+                                return complete(pending, fallback.classify(pending.text()));
+                            })
+                            .then();
+                });
+    }
+
+    private static Mono<Void> complete(Pending pending, Mono<String> label) {
+        return label
+                .doOnNext(pending.result()::tryEmitValue)
+                .doOnError(pending.result()::tryEmitError)
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    private static String items(List<Pending> batch) {
+        var items = new StringBuilder();
+        for (int i = 0; i < batch.size(); i++) {
+            String text = batch.get(i).text().replaceAll("\\s+", " ").replace("\"", "'");
+            items.append(i + 1).append(". \"").append(text).append("\"\n");
+        }
+        return items.toString();
+    }
+
+    private static Map<Integer, String> parse(String answer) {
+        Map<Integer, String> labels = new HashMap<>();
+        Matcher m = ANSWER_LINE.matcher(answer.toUpperCase());
+        while (m.find()) {
+            String label = m.group(2);
+            if (LABELS.contains(label)) {
+                labels.putIfAbsent(Integer.parseInt(m.group(1)), label);
+            }
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,251 @@
+package com.hrpd.onboarding.chain.intent;
+
+import com.hrpd.onboarding.config.IntentClassifierProperties.Local;
+import com.hrpd.onboarding.persistence.TicketRepository.TicketRepository;
+import com.hrpd.onboarding.persistence.TicketRepository.TicketRepository.LabeledQuestion;
+import com.hrpd.onboarding.rag.ingest.ContentHash;
+import com.hrpd.onboarding.rag.ingest.EmbeddingCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process intent classifier: nearest centroid over embeddings of past questions.
+ *
+ * Centroids are rebuilt periodically from the most recent rows of the {@code drafts} table
+ * (question + intent) labelled by the LLM, never from its own labels, which would reinforce
+ * its mistakes: one normalized mean embedding per label, kept as plain float arrays.
+ * A question is classified by embedding it (usually a query-embedding cache hit, since the
+ * semantic cache and retrieval embed the same text) and comparing it with every centroid.
+ * When the best similarity or its margin over the runner-up is below the configured
+ * thresholds, or no model has been trained yet, the {@code fallback} (LLM) classifier decides.
+ *
+ * Metrics: onboarding.intent.local{result=hit|fallback}
+ */
+@Slf4j
+public class CentroidIntentClassifier implements IntentClassifier, DisposableBean {
+
+    /** Inputs per embedding request when training (well below the provider limit). */
+    private static final int TRAINING_BATCH = 256;
+
+    private record Model(String[] labels, float[][] centroids, int examples) {}
+
+    private final IntentClassifier fallback;
+    private final EmbeddingModel embeddingModel;
+    private final TicketRepository tickets;
+    private final EmbeddingCache embeddingCache;
+    private final Local props;
+
+    private final Counter hits;
+    private final Counter fallbacks;
+
+    private volatile Model model;
+    private volatile Disposable refresh;
+
+    /**
+     * @param embeddingCache optional persistent cache for the training embeddings (nullable)
+     */
+    public CentroidIntentClassifier(IntentClassifier fallback,
+                                    EmbeddingModel embeddingModel,
+                                    TicketRepository tickets,
+                                    EmbeddingCache embeddingCache,
+                                    Local props,
+                                    MeterRegistry registry) {
+        this.fallback = fallback;
+        this.embeddingModel = embeddingModel;
+        this.tickets = tickets;
+        this.embeddingCache = embeddingCache;
+        this.props = props;
+        this.hits = Counter.builder("onboarding.intent.local").tag("result", "hit").register(registry);
+        this.fallbacks = Counter.builder("onboarding.intent.local").tag("result", "fallback").register(registry);
+    }
+
+    @Override
+    public Mono<String> classify(String text) {
+        return classifyWithSource(text).map(Classification::label);
+    }
+
+    @Override
+    public Mono<Classification> classifyWithSource(String text) {
+        Model current = model;
+        if (current == null) {
+            fallbacks.increment();
+            return fallback.classifyWithSource(text);
+        }
+        return Mono.fromCallable(() -> nearest(current, normalize(embeddingModel.embed(text))))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(label -> {
+                    hits.increment();
+                    log.debug("🎯 INTENT STEP: Classified locally as '{}'", label);
+                })
+                .map(label -> new Classification(label, SOURCE_LOCAL))
+                .switchIfEmpty(Mono.defer(() -> {
+                    fallbacks.increment();
+                    return fallback.classifyWithSource(text);
+                }));
+    }
+
+    /** Trains once the application is up, then refreshes periodically. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        refresh = Flux.interval(Duration.ZERO, props.refreshInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> train()
+                        .onErrorResume(error -> {
+                            log.warn("🎯 INTENT STEP: Could not train local classifier: {}", error.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (refresh != null) {
+            refresh.dispose();
+        }
+    }
+
+    /**
+     * Rebuilds the centroids from the LLM-labelled drafts.
+     */
+    public Mono<Void> train() {
+        return tickets.findLabeledQuestions(LABELS, SOURCE_LLM, props.maxExamples())
+                .collectList()
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(examples -> {
+                    Model trained = build(examples);
+                    if (trained != null) {
+                        model = trained;
+                        log.info("🎯 INTENT STEP: Local classifier trained on {} examples, labels {}",
+                                trained.examples(), String.join(", ", trained.labels()));
+                    } else {
+                        log.info("🎯 INTENT STEP: Not enough labeled drafts for the local classifier yet");
+                    }
+                })
+                .then();
+    }
+
+    private Model build(List<LabeledQuestion> examples) {
+        Map<String, List<String>> byLabel = new LinkedHashMap<>();
+        for (LabeledQuestion q : examples) {
+            if (q.userText() != null && !q.userText().isBlank()) {
+                byLabel.computeIfAbsent(q.intent(), k -> new ArrayList<>()).add(q.userText());
+            }
+        }
+        byLabel.values().removeIf(texts -> texts.size() < props.minExamplesPerLabel());
+        if (byLabel.size() < 2) {
+            return null;
+        }
+
+        String[] labels = byLabel.keySet().toArray(String[]::new);
+        float[][] centroids = new float[labels.length][];
+        int count = 0;
+        for (int l = 0; l < labels.length; l++) {
+            List<String> texts = byLabel.get(labels[l]);
+            float[] sum = null;
+            for (float[] embedding : embed(texts)) {
+                float[] v = normalize(embedding);
+                if (sum == null) {
+                    sum = new float[v.length];
+                }
+                for (int i = 0; i < v.length; i++) {
+                    sum[i] += v[i];
+                }
+            }
+            centroids[l] = normalize(sum);
+            count += texts.size();
+        }
+        return new Model(labels, centroids, count);
+    }
+
+    /** Embeds training questions, reusing the persistent embedding cache when present. */
+    private List<float[]> embed(List<String> texts) {
+        if (embeddingCache == null) {
+            return embedInBatches(texts);
+        }
+        List<float[]> out = new ArrayList<>(texts.size());
+        List<Integer> misses = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            float[] cached = embeddingCache.get(ContentHash.of(texts.get(i)));
+            out.add(cached);
+            if (cached == null) {
+                misses.add(i);
+            }
+        }
+        if (!misses.isEmpty()) {
+            List<float[]> fresh = embedInBatches(misses.stream().map(texts::get).toList());
+            for (int j = 0; j < misses.size(); j++) {
+                int i = misses.get(j);
+                out.set(i, fresh.get(j));
+                embeddingCache.put(ContentHash.of(texts.get(i)), fresh.get(j));
+            }
+        }
+        return out;
+    }
+
+    private List<float[]> embedInBatches(List<String> texts) {
+        List<float[]> out = new ArrayList<>(texts.size());
+        for (int from = 0; from < texts.size(); from += TRAINING_BATCH) {
+            out.addAll(embeddingModel.embed(texts.subList(from, Math.min(from + TRAINING_BATCH, texts.size()))));
+        }
+        return out;
+    }
+
+    /** Best label if it is confident enough, otherwise null (an empty Mono in {@link #classify}). */
+    private String nearest(Model m, float[] query) {
+        double best = -2;
+        double second = -2;
+        int bestIndex = -1;
+        for (int l = 0; l < m.centroids().length; l++) {
+            double similarity = dot(query, m.centroids()[l]);
+            if (similarity > best) {
+                second = best;
+                best = similarity;
+                bestIndex = l;
+            } else if (similarity > second) {
+                second = similarity;
+            }
+        }
+        log.debug("🎯 INTENT STEP: Local best '{}' similarity {} margin {}", m.labels()[bestIndex], best, best - second);
+        return best >= props.minSimilarity() && best - second >= props.minMargin() ? m.labels()[bestIndex] : null;
+    }
+
+    private static float[] normalize(float[] v) {
+        double norm = 0;
+        for (float x : v) {
+            norm += x * x;
+        }
+        norm = Math.sqrt(norm);
+        float[] out = new float[v.length];
+        if (norm == 0) {
+            return out;
+        }
+        for (int i = 0; i < v.length; i++) {
+            out[i] = (float) (v[i] / norm);
+        }
+        return out;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        int n = Math.min(a.length, b.length);
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,37 @@
+package com.hrpd.onboarding.chain.intent;
+
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Classifies a user question into one of the fixed intent {@link #LABELS}.
+ */
+public interface IntentClassifier {
+
+    List<String> LABELS = List.of("ONBOARDING_IT", "ONBOARDING_HR", "BENEFITS", "VACATIONS", "POLICIES", "OTHER");
+
+    /** Source of labels produced by an LLM, the only ones the local classifier trains on. */
+    String SOURCE_LLM = "llm";
+
+    /** Source of labels produced by the local nearest-centroid classifier. */
+    String SOURCE_LOCAL = "local";
+
+    /** A label with the classifier that produced it ({@link #SOURCE_LLM} or {@link #SOURCE_LOCAL}). */
+    record Classification(String label, String source) {
+    }
+
+    /**
+     * @param text user question
+     * @return Mono emitting the intent label
+     */
+    Mono<String> classify(String text);
+
+    /**
+     * Same as {@link #classify(String)}, also telling which classifier produced the label;
+     * LLM-backed by default.
+     */
+    default Mono<Classification> classifyWithSource(String text) {
+        return classify(text).map(label -> new Classification(label, SOURCE_LLM));
+    }
+}
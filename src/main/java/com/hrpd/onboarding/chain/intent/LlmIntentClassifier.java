@@ -0,0 +1,43 @@
+package com.hrpd.onboarding.chain.intent;
+
+import com.hrpd.onboarding.chain.llm.LlmClient;
+import com.hrpd.onboarding.chain.prompt.PromptTemplate;
+import com.hrpd.onboarding.chain.prompt.PromptTemplates;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Classifies one question per LLM call, with the {@value #PROMPT} prompt template.
+ * An answer that is not one of the {@link #LABELS} is classified as OTHER.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class LlmIntentClassifier implements IntentClassifier {
+
+    public static final String PROMPT = "intent";
+
+    private final LlmClient llm;
+    private final PromptTemplates prompts;
+
+    @Override
+    public Mono<String> classify(String text) {
+        return Mono.fromSupplier(() -> prompts.get(PROMPT).render(Map.of("text", text)))
+                .doOnNext(rendered -> log.debug("🎯 INTENT STEP: Prompt: {}", rendered.prompt().getContents()))
+                .flatMap(rendered -> llm.call(rendered.prompt()))
+                .map(LlmClient::textOf)
+                .doOnSuccess(rawResponse -> log.debug("🎯 INTENT STEP: LLM response received: '{}'", rawResponse))
+                .map(LlmIntentClassifier::toLabel);
+    }
+
+    private static String toLabel(String answer) {
+        String label = answer == null ? "" : answer.trim().replace("\"", "").toUpperCase();
+        if (LABELS.contains(label)) {
+            return label;
+        }
+        log.warn("🎯 INTENT STEP: Unknown label '{}', classifying as OTHER", answer);
+        return "OTHER";
+    }
+}
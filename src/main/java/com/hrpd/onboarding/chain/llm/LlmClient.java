@@ -0,0 +1,217 @@
+package com.hrpd.onboarding.chain.llm;
+
+import com.hrpd.onboarding.chain.metrics.LlmUsage;
+import com.hrpd.onboarding.config.LlmClientProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.DisposableBean;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking entry point for every LLM call made by the chain.
+ *
+ * {@link ChatModel#call(Prompt)} blocks on the HTTP round-trip, so each call is
+ * subscribed on a dedicated virtual-thread executor: the calling thread (often a
+ * Netty event loop) is released immediately and only a cheap virtual thread waits.
+ * A semaphore caps the calls in flight; callers beyond that wait in a bounded queue
+ * and are rejected with {@link LlmSaturatedException} once the queue is full.
+ * A cancelled call (a hedge that lost, a timeout) gives its slot back at once and its
+ * thread is interrupted; the provider may still finish, and bill, the request.
+ * The token usage of every response is recorded by {@link LlmUsage}, tagged by model.
+ *
+ * Metrics:
+ *  - onboarding.llm.in.flight / onboarding.llm.queued (gauges)
+ *  - onboarding.llm.queue.wait (time spent waiting for a slot)
+ *  - onboarding.llm.call (duration of the model call itself)
+ */
+@Slf4j
+public class LlmClient implements DisposableBean {
+
+    private final ChatModel model;
+    private final LlmClientProperties props;
+    /** Null when usage is not recorded. */
+    private final LlmUsage usage;
+    private final ExecutorService executor;
+    private final Scheduler scheduler;
+    private final Semaphore permits;
+    private final AtomicInteger pending;
+    private final AtomicInteger waiting;
+
+    private final Timer queueWait;
+    private final Timer callTimer;
+
+    public LlmClient(ChatModel model, LlmClientProperties props, MeterRegistry registry) {
+        this(model, props, null, registry);
+    }
+
+    public LlmClient(ChatModel model, LlmClientProperties props, LlmUsage usage, MeterRegistry registry) {
+        this.model = model;
+        this.props = props;
+        this.usage = usage;
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("llm-", 0).factory());
+        this.scheduler = Schedulers.fromExecutorService(executor, "llm");
+        this.permits = new Semaphore(props.maxConcurrency(), true);
+        this.pending = new AtomicInteger();
+        this.waiting = new AtomicInteger();
+        this.queueWait = Timer.builder("onboarding.llm.queue.wait").register(registry);
+        this.callTimer = Timer.builder("onboarding.llm.call").register(registry);
+        Gauge.builder("onboarding.llm.in.flight", permits, p -> props.maxConcurrency() - p.availablePermits())
+                .register(registry);
+        Gauge.builder("onboarding.llm.queued", waiting, AtomicInteger::get).register(registry);
+    }
+
+    private LlmClient(LlmClient shared, ChatModel model) {
+        this.model = model;
+        this.props = shared.props;
+        this.usage = shared.usage;
+        this.executor = shared.executor;
+        this.scheduler = shared.scheduler;
+        this.permits = shared.permits;
+        this.pending = shared.pending;
+        this.waiting = shared.waiting;
+        this.queueWait = shared.queueWait;
+        this.callTimer = shared.callTimer;
+    }
+
+    /**
+     * A client calling another model (e.g. a {@link ModelRouter} tier) that shares this client's
+     * threads, concurrency limit, queue and metrics. Only the original client needs destroying.
+     */
+    public LlmClient using(ChatModel model) {
+        return new LlmClient(this, model);
+    }
+
+    /**
+     * Calls the model without blocking the subscribing thread.
+     *
+     * @param prompt prompt to send
+     * @return Mono emitting the full model response
+     */
+    public Mono<ChatResponse> call(Prompt prompt) {
+        return Mono.deferContextual(context -> {
+                    Slot slot = new Slot();
+                    return Mono.fromCallable(() -> {
+                                long waitStart = System.nanoTime();
+                                waiting.incrementAndGet();
+                                try {
+                                    permits.acquire();
+                                    slot.acquired();
+                                } finally {
+                                    waiting.decrementAndGet();
+                                }
+                                try {
+                                    queueWait.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+                                    ChatResponse response = callTimer.recordCallable(() -> model.call(prompt));
+                                    if (usage != null) {
+                                        usage.record(response, context); // paid for even if cancelled meanwhile
+                                    }
+                                    return response;
+                                } catch (Exception e) {
+                                    if (slot.cancelled) {
+                                        log.debug("🧠 LLM CLIENT: Cancelled call ended with: {}", e.toString());
+                                        return null;
+                                    }
+                                    throw e;
+                                } finally {
+                                    slot.release();
+                                }
+                            })
+                            .subscribeOn(scheduler)
+                            .doOnCancel(slot::cancel);
+                })
+                .transformDeferred(this::admit);
+    }
+
+    /**
+     * Convenience variant of {@link #call(Prompt)} for a single user message.
+     *
+     * @param prompt user message
+     * @return Mono emitting the text of the model's answer
+     */
+    public Mono<String> call(String prompt) {
+        return call(new Prompt(prompt)).map(LlmClient::textOf);
+    }
+
+    /**
+     * Streams the model's answer. Streaming already goes through the provider's
+     * reactive HTTP client, so it needs neither a dedicated thread nor a slot.
+     *
+     * @param prompt prompt to send
+     * @return Flux of partial responses
+     */
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        if (usage == null) {
+            return model.stream(prompt);
+        }
+        return Flux.deferContextual(context -> model.stream(prompt)
+                .doOnNext(response -> usage.record(response, context)));
+    }
+
+    /** Extracts the answer text of a response, or an empty string when there is none. */
+    public static String textOf(ChatResponse response) {
+        if (response == null || response.getResult() == null || response.getResult().getOutput().getText() == null) {
+            return "";
+        }
+        return response.getResult().getOutput().getText();
+    }
+
+    /**
+     * The permit of one call. A cancelled call (e.g. a hedge that lost) is interrupted, but a
+     * provider call may not react to interrupts, so the permit is released on cancel rather than
+     * when the blocked thread returns; it is released exactly once.
+     */
+    private final class Slot {
+        private final AtomicBoolean held = new AtomicBoolean();
+        private volatile boolean cancelled;
+
+        void acquired() {
+            held.set(true);
+            if (cancelled) {
+                release();
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            release();
+        }
+
+        void release() {
+            if (held.compareAndSet(true, false)) {
+                permits.release();
+            }
+        }
+    }
+
+    private <T> Mono<T> admit(Mono<T> call) {
+        return Mono.defer(() -> {
+            if (pending.incrementAndGet() > props.maxConcurrency() + props.maxQueue()) {
+                pending.decrementAndGet();
+                log.warn("🧠 LLM CLIENT: Rejecting call, {} calls already waiting", waiting.get());
+                return Mono.error(new LlmSaturatedException("Too many pending LLM calls"));
+            }
+            return call.doFinally(signal -> pending.decrementAndGet());
+        });
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+        executor.shutdownNow();
+    }
+}
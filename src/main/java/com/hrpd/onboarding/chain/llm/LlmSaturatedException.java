@@ -0,0 +1,13 @@
+package com.hrpd.onboarding.chain.llm;
+
+import com.hrpd.onboarding.chain.resilience.OverloadedException;
+
+/**
+ * Raised when an LLM call cannot even be queued because too many calls are already waiting.
+ */
+public class LlmSaturatedException extends OverloadedException {
+
+    public LlmSaturatedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,241 @@
+package com.hrpd.onboarding.chain.llm;
+
+import com.hrpd.onboarding.chain.resilience.StepPolicies;
+import com.hrpd.onboarding.config.ModelRoutingProperties.Health;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Routes LLM calls of a tier (e.g. "fast" for classification, "quality" for drafting) across
+ * the backends serving it.
+ *
+ * Each backend keeps a rolling latency and error rate (exponentially weighted). A call goes to
+ * the fastest healthy backend of its tier; a backend without samples yet counts as fastest, and
+ * a small share of calls explores the others. A transient failure is retried right away on the
+ * next backend (a stream only until its first chunk), and a backend failing repeatedly, or above
+ * the error rate, is ejected for a while. When every backend is ejected the calls still go out,
+ * to the one ejected first. Non-transient errors (e.g. a rejected prompt) are not the backend's
+ * fault: they neither count nor fail over.
+ *
+ * Backends are plain {@link ChatModel}s, so tiers can be tested with local stubs.
+ *
+ * Metrics (tag backend):
+ *  - onboarding.llm.backend.calls{outcome=success|error}
+ *  - onboarding.llm.backend.latency (rolling, ms)
+ *  - onboarding.llm.failovers{tier}
+ */
+@Slf4j
+public class ModelRouter {
+
+    private final Health health;
+    private final Map<String, Backend> backends = new LinkedHashMap<>();
+    private final Map<String, Tier> tiers = new ConcurrentHashMap<>();
+    private final MeterRegistry registry;
+
+    /**
+     * @param models backend name to model
+     * @param tiers  tier name to the names of its backends
+     */
+    public ModelRouter(Map<String, ChatModel> models, Map<String, List<String>> tiers, Health health,
+                       MeterRegistry registry) {
+        this.health = health;
+        this.registry = registry;
+        models.forEach((name, model) -> backends.put(name, new Backend(name, model)));
+        tiers.forEach((tier, names) -> {
+            if (names.isEmpty()) {
+                throw new IllegalArgumentException("Tier '" + tier + "' has no backend");
+            }
+            List<Backend> members = names.stream().map(name -> {
+                Backend backend = backends.get(name);
+                if (backend == null) {
+                    throw new IllegalArgumentException("Tier '" + tier + "' refers to unknown backend '" + name + "'");
+                }
+                return backend;
+            }).toList();
+            this.tiers.put(tier, new Tier(tier, members));
+        });
+    }
+
+    /** The model serving a tier. */
+    public ChatModel tier(String name) {
+        Tier tier = tiers.get(name);
+        if (tier == null) {
+            throw new IllegalArgumentException("Unknown model tier '" + name + "'");
+        }
+        return tier;
+    }
+
+    /** Rolling latency of a backend in milliseconds, negative until it has answered once. */
+    public double latencyMillis(String backend) {
+        return backends.get(backend).latencyMillis;
+    }
+
+    /** Whether a backend currently gets traffic. */
+    public boolean isHealthy(String backend) {
+        return backends.get(backend).healthy(System.nanoTime());
+    }
+
+    private final class Backend {
+
+        private final String name;
+        private final ChatModel model;
+        private final Counter successes;
+        private final Counter errors;
+
+        private volatile double latencyMillis = -1;
+        private volatile double errorRate;
+        /** System.nanoTime() until which the backend is ejected; in the past when healthy. */
+        private volatile long ejectedUntil = System.nanoTime();
+        private int consecutiveFailures;
+
+        Backend(String name, ChatModel model) {
+            this.name = name;
+            this.model = model;
+            this.successes = Counter.builder("onboarding.llm.backend.calls")
+                    .tag("backend", name).tag("outcome", "success").register(registry);
+            this.errors = Counter.builder("onboarding.llm.backend.calls")
+                    .tag("backend", name).tag("outcome", "error").register(registry);
+            Gauge.builder("onboarding.llm.backend.latency", this, b -> Math.max(0, b.latencyMillis))
+                    .tag("backend", name).baseUnit("milliseconds").register(registry);
+        }
+
+        boolean healthy(long now) {
+            return now - ejectedUntil >= 0;
+        }
+
+        synchronized void succeeded(long nanos) {
+            double millis = nanos / 1e6;
+            latencyMillis = latencyMillis < 0 ? millis : smooth(latencyMillis, millis);
+            errorRate = smooth(errorRate, 0);
+            consecutiveFailures = 0;
+            successes.increment();
+        }
+
+        synchronized void failed(Throwable error) {
+            errorRate = smooth(errorRate, 1);
+            errors.increment();
+            if (++consecutiveFailures >= health.failuresToEject() || errorRate > health.maxErrorRate()) {
+                ejectedUntil = System.nanoTime() + health.ejectFor().toNanos();
+                // back on probation once the ejection ends
+                consecutiveFailures = 0;
+                errorRate = 0;
+                log.warn("🔀 MODEL ROUTER: Ejecting backend '{}' for {} after: {}", name, health.ejectFor(),
+                        error.getMessage());
+            }
+        }
+
+        private double smooth(double current, double sample) {
+            return current + health.latencySmoothing() * (sample - current);
+        }
+    }
+
+    /** A tier seen as a single chat model. */
+    private final class Tier implements ChatModel {
+
+        private final String name;
+        private final List<Backend> members;
+        private final Counter failovers;
+
+        Tier(String name, List<Backend> members) {
+            this.name = name;
+            this.members = members;
+            this.failovers = Counter.builder("onboarding.llm.failovers").tag("tier", name).register(registry);
+        }
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            RuntimeException last = null;
+            for (Backend backend : candidates()) {
+                if (last != null) {
+                    failovers.increment();
+                    log.warn("🔀 MODEL ROUTER: Tier '{}' failing over to '{}' after: {}", name, backend.name,
+                            last.getMessage());
+                }
+                long start = System.nanoTime();
+                try {
+                    ChatResponse response = backend.model.call(prompt);
+                    backend.succeeded(System.nanoTime() - start);
+                    return response;
+                } catch (RuntimeException e) {
+                    if (!StepPolicies.isTransient(e)) {
+                        throw e;
+                    }
+                    backend.failed(e);
+                    last = e;
+                }
+            }
+            throw last;
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            return Flux.defer(() -> stream(prompt, candidates().iterator(), null));
+        }
+
+        private Flux<ChatResponse> stream(Prompt prompt, Iterator<Backend> candidates, Throwable previous) {
+            Backend backend = candidates.next();
+            if (previous != null) {
+                failovers.increment();
+                log.warn("🔀 MODEL ROUTER: Tier '{}' failing over to '{}' after: {}", name, backend.name,
+                        previous.getMessage());
+            }
+            long start = System.nanoTime();
+            AtomicBoolean started = new AtomicBoolean();
+            return backend.model.stream(prompt)
+                    .doOnNext(chunk -> {
+                        if (started.compareAndSet(false, true)) {
+                            // time to first chunk: what a streaming caller waits for
+                            backend.succeeded(System.nanoTime() - start);
+                        }
+                    })
+                    .onErrorResume(error -> {
+                        if (!StepPolicies.isTransient(error)) {
+                            return Flux.error(error);
+                        }
+                        backend.failed(error);
+                        return !started.get() && candidates.hasNext()
+                                ? stream(prompt, candidates, error)
+                                : Flux.error(error);
+                    });
+        }
+
+        @Override
+        public ChatOptions getDefaultOptions() {
+            return members.get(0).model.getDefaultOptions();
+        }
+
+        /** Healthy backends fastest first (sometimes one explored first), then the ejected ones. */
+        private List<Backend> candidates() {
+            long now = System.nanoTime();
+            List<Backend> healthy = new ArrayList<>(members.size());
+            List<Backend> ejected = new ArrayList<>();
+            for (Backend backend : members) {
+                (backend.healthy(now) ? healthy : ejected).add(backend);
+            }
+            healthy.sort(Comparator.comparingDouble(b -> b.latencyMillis));
+            if (healthy.size() > 1 && ThreadLocalRandom.current().nextDouble() < health.exploreRatio()) {
+                healthy.add(0, healthy.remove(1 + ThreadLocalRandom.current().nextInt(healthy.size() - 1)));
+            }
+            ejected.sort(Comparator.comparingLong(b -> b.ejectedUntil));
+            healthy.addAll(ejected);
+            return healthy;
+        }
+    }
+}
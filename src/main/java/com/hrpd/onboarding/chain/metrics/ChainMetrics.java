@@ -0,0 +1,106 @@
+package com.hrpd.onboarding.chain.metrics;
+
+import com.hrpd.onboarding.chain.Ctx;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chain-level instrumentation: end-to-end latency, retrieved passages and LLM token usage.
+ * Per-step latency, retries and timeouts are recorded by the step policies; the usage of each
+ * LLM call, by model, by {@link LlmUsage}.
+ *
+ * Everything is also written to {@link Ctx#meta()} so a single answer can be inspected:
+ *  - timings:    step name to milliseconds, plus "chain"
+ *  - passages / passageChars
+ *  - promptTemplate / promptTokens: template version and estimated size of the draft prompt
+ *  - tokens:     {@link TokenUsage} of all LLM calls of the chain (see {@link LlmUsage.Tally})
+ *  - costUsd:    estimated cost of the tokens, each call at the price of its model
+ *
+ * Metrics:
+ *  - onboarding.chain.duration{outcome=success|error} (p50/p95/p99)
+ *  - onboarding.retrieve.passages / onboarding.retrieve.passage.chars (summaries)
+ *  - onboarding.chain.tokens{intent, type=prompt|completion}
+ *  - onboarding.chain.cost{intent} (estimated USD)
+ */
+public class ChainMetrics {
+
+    public static final String TIMINGS = "timings";
+    public static final String PASSAGES = "passages";
+    public static final String PASSAGE_CHARS = "passageChars";
+    public static final String PROMPT_TEMPLATE = "promptTemplate";
+    public static final String PROMPT_TOKENS = "promptTokens";
+    public static final String TOKENS = "tokens";
+    public static final String COST_USD = "costUsd";
+
+    private final MeterRegistry registry;
+
+    private final Timer chainSuccess;
+    private final Timer chainError;
+    private final DistributionSummary passageCount;
+    private final DistributionSummary passageChars;
+
+    public ChainMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.chainSuccess = chainTimer("success");
+        this.chainError = chainTimer("error");
+        this.passageCount = DistributionSummary.builder("onboarding.retrieve.passages").register(registry);
+        this.passageChars = DistributionSummary.builder("onboarding.retrieve.passage.chars")
+                .baseUnit("characters").register(registry);
+    }
+
+    /** Records how long a step took into {@code meta.timings}. */
+    @SuppressWarnings("unchecked")
+    public void recordStep(Ctx ctx, String step, long nanos) {
+        ((Map<String, Long>) ctx.meta().computeIfAbsent(TIMINGS, k -> new ConcurrentHashMap<String, Long>()))
+                .put(step, TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    public void recordPassages(Ctx ctx) {
+        List<String> passages = ctx.passages();
+        long chars = 0;
+        for (String passage : passages) {
+            chars += passage.length();
+            passageChars.record(passage.length());
+        }
+        passageCount.record(passages.size());
+        ctx.meta().put(PASSAGES, passages.size());
+        ctx.meta().put(PASSAGE_CHARS, chars);
+    }
+
+    /** Records the end of a successful chain, including the token usage and cost of its LLM calls. */
+    public void recordSuccess(Ctx ctx, LlmUsage.Tally llmUsage, long nanos) {
+        chainSuccess.record(nanos, TimeUnit.NANOSECONDS);
+        recordStep(ctx, "chain", nanos);
+        TokenUsage usage = llmUsage.tokens();
+        if (usage != null) {
+            String intent = ctx.intent() != null ? ctx.intent() : "UNKNOWN";
+            double cost = llmUsage.costUsd();
+            Counter.builder("onboarding.chain.tokens").tag("intent", intent).tag("type", "prompt")
+                    .register(registry).increment(usage.promptTokens());
+            Counter.builder("onboarding.chain.tokens").tag("intent", intent).tag("type", "completion")
+                    .register(registry).increment(usage.completionTokens());
+            Counter.builder("onboarding.chain.cost").tag("intent", intent).baseUnit("usd")
+                    .register(registry).increment(cost);
+            ctx.meta().put(TOKENS, usage);
+            ctx.meta().put(COST_USD, cost);
+        }
+    }
+
+    public void recordFailure(long nanos) {
+        chainError.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer chainTimer(String outcome) {
+        return Timer.builder("onboarding.chain.duration")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+}
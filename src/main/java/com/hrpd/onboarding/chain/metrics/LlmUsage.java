@@ -0,0 +1,91 @@
+package com.hrpd.onboarding.chain.metrics;
+
+import com.hrpd.onboarding.config.ChainMetricsProperties;
+import com.hrpd.onboarding.config.ChainMetricsProperties.Price;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.chat.model.ChatResponse;
+import reactor.util.context.ContextView;
+
+/**
+ * Token usage and estimated cost of every LLM call, recorded by {@code LlmClient} as each call
+ * returns: intent classification (batched or not), drafts, hedges and retries are all counted,
+ * each at the price of the model that answered. A call cancelled before it answered (e.g. a hedge
+ * that lost) gets no usage from the provider and is not counted.
+ *
+ * A chain puts a {@link Tally} into the Reactor context, which adds up the usage of its own calls
+ * (a batched classification serves several chains and is only counted in the metrics).
+ *
+ * Metrics:
+ *  - onboarding.llm.tokens{model, type=prompt|completion}
+ *  - onboarding.llm.cost{model} (estimated USD)
+ */
+public class LlmUsage {
+
+    private static final String UNKNOWN_MODEL = "unknown";
+
+    private final ChainMetricsProperties props;
+    private final MeterRegistry registry;
+
+    public LlmUsage(ChainMetricsProperties props, MeterRegistry registry) {
+        this.props = props;
+        this.registry = registry;
+    }
+
+    /** Records the usage reported with a response, if any, and adds it to the caller's {@link Tally}. */
+    public void record(ChatResponse response, ContextView context) {
+        TokenUsage usage = TokenUsage.of(response);
+        if (usage == null) {
+            return;
+        }
+        String model = response.getMetadata().getModel();
+        model = model == null || model.isBlank() ? UNKNOWN_MODEL : model;
+        double cost = cost(model, usage);
+        Counter.builder("onboarding.llm.tokens").tag("model", model).tag("type", "prompt")
+                .register(registry).increment(usage.promptTokens());
+        Counter.builder("onboarding.llm.tokens").tag("model", model).tag("type", "completion")
+                .register(registry).increment(usage.completionTokens());
+        Counter.builder("onboarding.llm.cost").tag("model", model).baseUnit("usd")
+                .register(registry).increment(cost);
+        context.getOrEmpty(Tally.class).ifPresent(tally -> ((Tally) tally).add(usage, cost));
+    }
+
+    /** Estimated cost in USD of the tokens of one call to {@code model}. */
+    public double cost(String model, TokenUsage usage) {
+        Price price = new Price(props.promptUsdPerMillionTokens(), props.completionUsdPerMillionTokens());
+        int matched = -1;
+        for (var e : props.prices().entrySet()) {
+            if (model.startsWith(e.getKey()) && e.getKey().length() > matched) {
+                price = e.getValue();
+                matched = e.getKey().length();
+            }
+        }
+        return (usage.promptTokens() * price.promptUsdPerMillionTokens()
+                + usage.completionTokens() * price.completionUsdPerMillionTokens()) / 1_000_000;
+    }
+
+    /** Usage of the LLM calls of one chain, keyed by its class in the Reactor context. */
+    public static final class Tally {
+
+        private long promptTokens;
+        private long completionTokens;
+        private double costUsd;
+        private int calls;
+
+        synchronized void add(TokenUsage usage, double cost) {
+            promptTokens += usage.promptTokens();
+            completionTokens += usage.completionTokens();
+            costUsd += cost;
+            calls++;
+        }
+
+        /** Tokens of all calls, or null if none reported usage. */
+        public synchronized TokenUsage tokens() {
+            return calls == 0 ? null : new TokenUsage(promptTokens, completionTokens);
+        }
+
+        public synchronized double costUsd() {
+            return costUsd;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.hrpd.onboarding.chain.metrics;
+
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+
+/**
+ * Tokens billed for one LLM call, as reported by the provider.
+ */
+public record TokenUsage(long promptTokens, long completionTokens) {
+
+    /** Usage reported with the response, or null when there is none (e.g. intermediate stream chunks). */
+    public static TokenUsage of(ChatResponse response) {
+        if (response == null || response.getMetadata() == null) {
+            return null;
+        }
+        Usage usage = response.getMetadata().getUsage();
+        if (usage == null || usage.getTotalTokens() == null || usage.getTotalTokens() == 0) {
+            return null;
+        }
+        return new TokenUsage(
+                usage.getPromptTokens() != null ? usage.getPromptTokens() : 0,
+                usage.getCompletionTokens() != null ? usage.getCompletionTokens() : 0);
+    }
+}
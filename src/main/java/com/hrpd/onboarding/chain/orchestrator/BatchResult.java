@@ -0,0 +1,22 @@
+package com.hrpd.onboarding.chain.orchestrator;
+
+import com.hrpd.onboarding.chain.Ctx;
+
+/**
+ * Outcome of one question of a batch run.
+ *
+ * @param index    position of the question in the batch
+ * @param question the question as sent
+ * @param ctx      final context, null if the chain failed
+ * @param error    why the chain failed, null on success
+ */
+public record BatchResult(int index, String question, Ctx ctx, String error) {
+
+    public static BatchResult success(int index, String question, Ctx ctx) {
+        return new BatchResult(index, question, ctx, null);
+    }
+
+    public static BatchResult failure(int index, String question, Throwable error) {
+        return new BatchResult(index, question, null, error.getMessage());
+    }
+}
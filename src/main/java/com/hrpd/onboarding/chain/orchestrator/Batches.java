@@ -0,0 +1,65 @@
+package com.hrpd.onboarding.chain.orchestrator;
+
+import com.hrpd.onboarding.chain.Ctx;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/** Shared plumbing of {@link ChainWorkflowOrchestratorService#runBatch(List, int)} implementations. */
+@Slf4j
+final class Batches {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * A distinct question of a batch.
+     *
+     * @param position position among the distinct questions
+     * @param text     first spelling of the question
+     * @param indexes  positions in the batch of every copy of the question
+     */
+    record Question(int position, String text, List<Integer> indexes) {
+    }
+
+    private Batches() {
+    }
+
+    /** Groups the questions that only differ by case or whitespace, keeping first-seen order. */
+    static List<Question> distinct(List<String> userTexts) {
+        Map<String, Question> byKey = new LinkedHashMap<>();
+        for (int i = 0; i < userTexts.size(); i++) {
+            String text = userTexts.get(i);
+            String key = WHITESPACE.matcher(text.strip().toLowerCase(Locale.ROOT)).replaceAll(" ");
+            byKey.computeIfAbsent(key, k -> new Question(byKey.size(), text, new ArrayList<>())).indexes().add(i);
+        }
+        return List.copyOf(byKey.values());
+    }
+
+    /**
+     * Runs one chain per distinct question, at most {@code concurrency} at a time, and emits a
+     * result for every copy of a question as soon as its chain completes. Failures become
+     * results carrying the error, so one bad question does not fail the batch.
+     */
+    static Flux<BatchResult> run(List<Question> questions, int concurrency, Function<Question, Mono<Ctx>> chain) {
+        log.debug("📦 BATCH: {} distinct questions, concurrency {}", questions.size(), concurrency);
+        return Flux.fromIterable(questions)
+                .flatMap(question -> chain.apply(question)
+                        .map(ctx -> results(question, index -> BatchResult.success(index, question.text(), ctx)))
+                        .onErrorResume(error -> Mono.just(
+                                results(question, index -> BatchResult.failure(index, question.text(), error)))),
+                        concurrency)
+                .flatMapIterable(Function.identity());
+    }
+
+    private static List<BatchResult> results(Question question, Function<Integer, BatchResult> result) {
+        return question.indexes().stream().map(result).toList();
+    }
+}
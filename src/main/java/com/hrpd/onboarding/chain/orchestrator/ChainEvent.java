@@ -0,0 +1,54 @@
+package com.hrpd.onboarding.chain.orchestrator;
+
+import com.hrpd.onboarding.chain.Ctx;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A progress event emitted while the chain is streamed.
+ *
+ * Types, in emission order (kept even when the intent and passages steps run concurrently
+ * and retrieval finishes first):
+ *  - intent:   classified intent label
+ *  - passages: references to the retrieved passages ([#n] + preview)
+ *  - token:    next chunk of the drafted answer
+ *  - done:     final summary once validation and persistence are finished
+ *
+ * @param type event name (used as the SSE event name)
+ * @param data payload sent to the client
+ * @param ctx  final context, only set on the "done" event and never sent to the client
+ */
+public record ChainEvent(String type, Object data, Ctx ctx) {
+
+    private static final int PREVIEW_LENGTH = 80;
+
+    public static ChainEvent intent(String intent) {
+        return new ChainEvent("intent", intent, null);
+    }
+
+    public static ChainEvent passages(List<String> passages) {
+        List<Map<String, Object>> refs = new ArrayList<>(passages.size());
+        for (int i = 0; i < passages.size(); i++) {
+            String p = passages.get(i).replace("\n", " ").trim();
+            refs.add(Map.of(
+                    "ref", "[#" + (i + 1) + "]",
+                    "preview", p.length() > PREVIEW_LENGTH ? p.substring(0, PREVIEW_LENGTH) + "..." : p));
+        }
+        return new ChainEvent("passages", refs, null);
+    }
+
+    public static ChainEvent token(String chunk) {
+        return new ChainEvent("token", chunk, null);
+    }
+
+    public static ChainEvent done(Ctx ctx) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("intent", ctx.intent());
+        summary.put("answer", ctx.draftAnswer());
+        summary.put("validated", ctx.meta() != null ? ctx.meta().get("validated") : null);
+        return new ChainEvent("done", summary, ctx);
+    }
+}
@@ -1,8 +1,11 @@
 package com.hrpd.onboarding.chain.orchestrator;
 
 import com.hrpd.onboarding.chain.Ctx;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * Defines the contract that should follow an orchestrator service implementation
  */
@@ -15,4 +18,52 @@ public interface ChainWorkflowOrchestratorService {
      * @return a Mono emitting the final context if all steps succeed
      */
     Mono<Ctx> run(String userText);
+
+    /**
+     * Kicks off the chain for a single user utterance under an idempotency key. Implementations
+     * that checkpoint their progress return the stored result of a completed run with the same
+     * key, and resume a failed or interrupted one instead of starting over.
+     *
+     * @param userText raw user input
+     * @param runKey   idempotency key chosen by the client, or null
+     * @return a Mono emitting the final context if all steps succeed
+     */
+    default Mono<Ctx> run(String userText, String runKey) {
+        return run(userText);
+    }
+
+    /**
+     * Checks that an idempotency key has not been used for another question, so that a decorator
+     * answering without running the chain (e.g. from a cache) rejects the same requests.
+     *
+     * @param userText raw user input
+     * @param runKey   idempotency key chosen by the client, or null
+     * @return a Mono completing empty, or failing with a CheckpointConflictException
+     */
+    default Mono<Void> checkRunKey(String userText, String runKey) {
+        return Mono.empty();
+    }
+
+    /**
+     * Kicks off the chain for a single user utterance, emitting intermediate results
+     * (intent, passage references, answer tokens) as soon as they are available.
+     *
+     * @param userText raw user input
+     * @return a Flux of chain events ending with a "done" event if all steps succeed
+     */
+    Flux<ChainEvent> stream(String userText);
+
+    /**
+     * Kicks off the chain for several utterances at once (e.g. an onboarding checklist).
+     * Questions differing only by case or whitespace run once. Chains run concurrently, so the
+     * intent classifications of the batch are coalesced into shared LLM calls.
+     *
+     * @param userTexts   raw user inputs
+     * @param concurrency maximum number of chains running at the same time
+     * @return a Flux emitting one result per input as soon as its chain completes (not in input order);
+     *         failed chains yield a result with an error instead of failing the batch
+     */
+    default Flux<BatchResult> runBatch(List<String> userTexts, int concurrency) {
+        return Batches.run(Batches.distinct(userTexts), concurrency, question -> run(question.text()));
+    }
 }
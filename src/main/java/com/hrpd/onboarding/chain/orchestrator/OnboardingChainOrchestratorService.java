@@ -1,92 +1,380 @@
 package com.hrpd.onboarding.chain.orchestrator;
 
 import com.hrpd.onboarding.chain.Ctx;
+import com.hrpd.onboarding.chain.CtxField;
 import com.hrpd.onboarding.chain.Step;
-import com.hrpd.onboarding.chain.steps.*;
-import lombok.RequiredArgsConstructor;
+import com.hrpd.onboarding.chain.StreamingStep;
+import com.hrpd.onboarding.chain.checkpoint.ChainCheckpointStore;
+import com.hrpd.onboarding.chain.checkpoint.Checkpoint;
+import com.hrpd.onboarding.chain.checkpoint.CheckpointConflictException;
+import com.hrpd.onboarding.chain.metrics.ChainMetrics;
+import com.hrpd.onboarding.chain.metrics.LlmUsage;
+import com.hrpd.onboarding.chain.resilience.OverloadedException;
+import com.hrpd.onboarding.chain.resilience.StepPolicies;
+import com.hrpd.onboarding.chain.resilience.StepPolicy;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.util.retry.Retry;
 
-import java.time.Duration;
-import java.util.Arrays;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * Orchestrates the chain workflow:<br>
- *  1. IntentStep      - classify user intent<br>
- *  2. RetrieveStep    - fetch top-k relevant passages from VectorStore<br>
- *  3. DraftAnswerStep - ask LLM to draft an answer using ONLY the passages<br>
- *  4. ValidateStep    - ensure structure/compliance (e.g., has references)<br>
- *  5. PersistStep     - persist the result (auditing/analytics)<br>
+ *  1. IntentStep          - classify user intent<br>
+ *  2. RetrieveStep        - fetch top-k relevant passages from VectorStore<br>
+ *  3. ContextAssemblyStep - deduplicate and compress the passages into the token budget (optional)<br>
+ *  4. DraftAnswerStep     - ask LLM to draft an answer using ONLY the passages<br>
+ *  5. ValidateStep        - ensure structure/compliance (e.g., has references)<br>
+ *  6. PersistStep         - persist the result (auditing/analytics)<br>
+ *<br>
+ * Steps are grouped into stages from the {@link Ctx} fields they read and write:
+ * a step joins the earliest stage after every step it depends on, so independent
+ * steps (e.g. IntentStep and RetrieveStep) run concurrently and their outputs are
+ * merged before the next stage starts.<br>
+ *<br>
+ * When streamed, intermediate results are emitted as {@link ChainEvent}s as soon as
+ * the step producing them and every step planned before it have completed, so events keep
+ * the stage order even when concurrent steps finish out of order (intent before passages).
+ * {@link StreamingStep}s forward their chunks (answer tokens) while they are generated.<br>
+ *<br>
+ * Every step runs through its {@link StepPolicy}: a bulkhead with an adaptive concurrency
+ * limit and a bounded queue, a per-attempt timeout, and budgeted, jittered retries of
+ * transient failures only.<br>
  *<br>
  * Notes:
- *  <li>Each step runs with timeouts and light retry to improve resiliency.</li>
  *  <li>Any failure fails the whole chain (propagates an error).</li>
+ *  <li>A run started with an idempotency key is checkpointed after every stage in the
+ *      {@link ChainCheckpointStore}: running the same key again returns the stored result, or resumes a
+ *      failed or crashed run after its last completed stage instead of paying for the LLM steps again.
+ *      The key and start time of such a run are kept in {@code meta}, so a draft persisted again by a
+ *      resumed run is recognized as the same row.</li>
+ *  <li>Shed work fails fast with {@link OverloadedException} (HTTP 429) and is not wrapped.</li>
+ *  <li>Latency, passages and token usage are recorded by {@link ChainMetrics} (and into {@code meta});
+ *      step-by-step tracing is logged at DEBUG, one summary line per chain at INFO.</li>
  */
-@RequiredArgsConstructor
 @Slf4j
 public class OnboardingChainOrchestratorService implements ChainWorkflowOrchestratorService {
 
+    private static final String RESUMED_AFTER_STAGE = "resumedAfterStage";
+    /** Idempotency key of a checkpointed run. */
+    public static final String RUN_KEY = "runKey";
+    /** When a checkpointed run was first started (ISO-8601), unchanged when it is resumed. */
+    public static final String RUN_STARTED_AT = "runStartedAt";
+
     private final List<Step> steps;
+    private final List<List<Step>> stages;
+    private final Map<Step, StepPolicy> policies = new IdentityHashMap<>();
+    private final ChainMetrics metrics;
+    /** Last step writing PASSAGES: its output is what the draft is grounded on. */
+    private final Step passagesStep;
+    /** Steps whose results are streamed as events, in stage order. */
+    private final List<Step> announcingSteps;
+    /** Null when checkpointing is disabled. */
+    private final ChainCheckpointStore checkpoints;
+    /** Step names per stage; checkpoints are only resumed by an identical plan. */
+    private final String planId;
+
+    public OnboardingChainOrchestratorService(List<Step> steps, StepPolicies stepPolicies, ChainMetrics metrics) {
+        this(steps, stepPolicies, metrics, null);
+    }
+
+    public OnboardingChainOrchestratorService(List<Step> steps, StepPolicies stepPolicies, ChainMetrics metrics,
+                                              ChainCheckpointStore checkpoints) {
+        this.steps = steps;
+        this.stages = plan(steps);
+        this.metrics = metrics;
+        this.checkpoints = checkpoints;
+        this.passagesStep = steps.stream().filter(s -> s.writes().contains(CtxField.PASSAGES))
+                .reduce((first, second) -> second).orElse(null);
+        this.announcingSteps = stages.stream().flatMap(List::stream)
+                .filter(s -> s.writes().contains(CtxField.INTENT) || s.writes().contains(CtxField.PASSAGES))
+                .toList();
+        steps.forEach(s -> policies.put(s, stepPolicies.forStep(s)));
+        this.planId = stages.stream()
+                .map(stage -> stage.stream().map(s -> policies.get(s).name()).collect(Collectors.joining(",")))
+                .collect(Collectors.joining(" > "));
+    }
+
+    /** Checkpoint a run writes to: its key and the attempt fencing its writes. */
+    private record CheckpointedRun(String key, int attempt) {}
+
+    /** Receives intermediate results while the chain executes. */
+    private interface ChainListener {
+        ChainListener NOOP = new ChainListener() {};
+
+        default boolean streaming() { return false; }
+
+        default void onStepCompleted(Step step, Ctx resultCtx) {}
+
+        default void onChunk(String chunk) {}
+    }
 
     public Mono<Ctx> run(String userText) {
-        log.info("🚀 STARTING CHAIN WORKFLOW");
-        log.info("📝 User Input: '{}'", userText);
-        log.info("🔗 Total Steps in Chain: {}", steps.size());
-        
-        Ctx seed = new Ctx(userText, null, List.of(), null, new java.util.HashMap<>());
-        Mono<Ctx> flow = Mono.just(seed);
-
-        // Compose steps sequentially
+        return execute(userText, ChainListener.NOOP);
+    }
+
+    @Override
+    public Mono<Ctx> run(String userText, String runKey) {
+        if (checkpoints == null || runKey == null) {
+            return run(userText);
+        }
+        return checkpoints.find(runKey)
+                .flatMap(checkpoint -> resume(checkpoint, userText))
+                .switchIfEmpty(Mono.defer(() -> {
+                    Ctx seed = seed(userText);
+                    seed.meta().put(RUN_KEY, runKey);
+                    seed.meta().put(RUN_STARTED_AT, OffsetDateTime.now(ZoneOffset.UTC).toString());
+                    return checkpoints.create(runKey, planId, seed)
+                            .flatMap(created -> created
+                                    ? execute(seed, 0, ChainListener.NOOP, new CheckpointedRun(runKey, 1))
+                                    : Mono.error(inProgress(runKey)));
+                }));
+    }
+
+    @Override
+    public Mono<Void> checkRunKey(String userText, String runKey) {
+        if (checkpoints == null || runKey == null) {
+            return Mono.empty();
+        }
+        return checkpoints.find(runKey)
+                .filter(checkpoint -> !checkpoint.userText().equals(userText))
+                .flatMap(checkpoint -> Mono.error(otherQuestion(runKey)));
+    }
+
+    /** Returns the result of a completed run, or resumes a failed or crashed one after its last completed stage. */
+    private Mono<Ctx> resume(Checkpoint checkpoint, String userText) {
+        String runKey = checkpoint.key();
+        if (!checkpoint.userText().equals(userText)) {
+            return Mono.error(otherQuestion(runKey));
+        }
+        if (checkpoint.status() == Checkpoint.Status.DONE) {
+            log.info("💾 CHECKPOINT: Run '{}' already completed, returning its result", runKey);
+            checkpoint.ctx().meta().put(RESUMED_AFTER_STAGE, checkpoint.stage());
+            return Mono.just(checkpoint.ctx());
+        }
+        if (checkpoint.status() == Checkpoint.Status.RUNNING && !checkpoints.isStale(checkpoint)) {
+            return Mono.error(inProgress(runKey));
+        }
+        return checkpoints.claim(checkpoint, planId)
+                .switchIfEmpty(Mono.error(() -> inProgress(runKey)))
+                .flatMap(claimed -> {
+                    log.info("💾 CHECKPOINT: Resuming {} run '{}' after stage {}/{} (attempt {})",
+                            checkpoint.status(), runKey, claimed.stage(), stages.size(), claimed.attempt());
+                    claimed.ctx().meta().put(RESUMED_AFTER_STAGE, claimed.stage());
+                    return execute(claimed.ctx(), claimed.stage(), ChainListener.NOOP,
+                            new CheckpointedRun(runKey, claimed.attempt()));
+                });
+    }
+
+    private static CheckpointConflictException otherQuestion(String runKey) {
+        return new CheckpointConflictException("Key '" + runKey + "' was used for another question");
+    }
+
+    private static CheckpointConflictException inProgress(String runKey) {
+        return new CheckpointConflictException("Run '" + runKey + "' is still in progress");
+    }
+
+    public Flux<ChainEvent> stream(String userText) {
+        return Flux.create(sink -> {
+            ChainListener listener = new ChainListener() {
+                /** Results of steps that finished before a step planned ahead of them. */
+                private final Map<Step, Ctx> held = new IdentityHashMap<>();
+                private int next;
+
+                @Override
+                public boolean streaming() { return true; }
+
+                @Override
+                public synchronized void onStepCompleted(Step step, Ctx resultCtx) {
+                    if (!announcingSteps.contains(step)) {
+                        return;
+                    }
+                    held.put(step, resultCtx);
+                    while (next < announcingSteps.size() && held.containsKey(announcingSteps.get(next))) {
+                        Step announcing = announcingSteps.get(next++);
+                        Ctx result = held.remove(announcing);
+                        if (announcing.writes().contains(CtxField.INTENT)) {
+                            sink.next(ChainEvent.intent(result.intent()));
+                        }
+                        if (announcing.writes().contains(CtxField.PASSAGES)) {
+                            sink.next(ChainEvent.passages(result.passages()));
+                        }
+                    }
+                }
+
+                @Override
+                public void onChunk(String chunk) {
+                    sink.next(ChainEvent.token(chunk));
+                }
+            };
+
+            var subscription = execute(userText, listener).subscribe(
+                    finalCtx -> sink.next(ChainEvent.done(finalCtx)),
+                    sink::error,
+                    sink::complete);
+            sink.onDispose(subscription);
+        });
+    }
+
+    private Mono<Ctx> execute(String userText, ChainListener listener) {
+        return execute(seed(userText), 0, listener, null);
+    }
+
+    /** Runs the stages after the first {@code completedStages}, checkpointing each one when {@code run} is set. */
+    private Mono<Ctx> execute(Ctx initial, int completedStages, ChainListener listener, CheckpointedRun run) {
+        log.debug("🚀 STARTING CHAIN WORKFLOW: '{}' ({} steps in {} stages, from stage {})",
+            initial.userText(), steps.size(), stages.size(), completedStages + 1);
+
+        Mono<Ctx> flow = Mono.just(initial);
+
+        // Compose stages sequentially, steps within a stage concurrently
+        for (int i = completedStages; i < stages.size(); i++) {
+            List<Step> stage = stages.get(i);
+            final int stageNumber = i + 1;
+
+            flow = flow.flatMap(ctx -> runStage(stageNumber, stage, ctx, listener));
+            if (run != null) {
+                var status = stageNumber == stages.size() ? Checkpoint.Status.DONE : Checkpoint.Status.RUNNING;
+                flow = flow.flatMap(ctx -> checkpoints.save(run.key(), run.attempt(), stageNumber, status, ctx)
+                        .thenReturn(ctx));
+            }
+        }
+        if (run != null) {
+            flow = flow.onErrorResume(error -> checkpoints.fail(run.key(), run.attempt()).then(Mono.error(error)));
+        }
+
+        Mono<Ctx> chain = flow;
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            LlmUsage.Tally llmUsage = new LlmUsage.Tally();
+            return chain.doOnSuccess(finalCtx -> {
+                metrics.recordSuccess(finalCtx, llmUsage, System.nanoTime() - start);
+                log.info("🎉 CHAIN WORKFLOW COMPLETED: intent={}, passages={}, answer={} chars, timings (ms) {}",
+                    finalCtx.intent(),
+                    finalCtx.passages().size(),
+                    finalCtx.draftAnswer() != null ? finalCtx.draftAnswer().length() : 0,
+                    finalCtx.meta().get(ChainMetrics.TIMINGS));
+            }).doOnError(error -> {
+                metrics.recordFailure(System.nanoTime() - start);
+                log.error("💥 CHAIN WORKFLOW FAILED: {}", error.getMessage());
+            }).contextWrite(context -> context.put(LlmUsage.Tally.class, llmUsage));
+        });
+    }
+
+    /** meta is shared by steps that may run concurrently. */
+    private static Ctx seed(String userText) {
+        return new Ctx(userText, null, List.of(), List.of(), null, new ConcurrentHashMap<>());
+    }
+
+    private Mono<Ctx> runStage(int stageNumber, List<Step> stage, Ctx ctx, ChainListener listener) {
+        if (stage.size() == 1) {
+            return runStep(stageNumber, stage.get(0), ctx, listener);
+        }
+
+        log.debug("🔀 STAGE {}: Running {} steps concurrently", stageNumber, stage.size());
+        List<Mono<Ctx>> branches = stage.stream()
+                .map(s -> runStep(stageNumber, s, ctx, listener))
+                .toList();
+
+        // Every branch starts from the same input; fold each one's declared writes back in order
+        return Mono.zip(branches, outputs -> {
+            Ctx merged = ctx;
+            for (int i = 0; i < outputs.length; i++) {
+                merged = merged.merge((Ctx) outputs[i], stage.get(i).writes());
+            }
+            return merged;
+        });
+    }
+
+    private Mono<Ctx> runStep(int stageNumber, Step s, Ctx ctx, ChainListener listener) {
+        final String stepName = s.getClass().getSimpleName();
+
+        log.debug("⏭️  STAGE {}: {} - Starting execution, input: intent='{}', passages={}, hasDraft={}",
+            stageNumber, stepName, ctx.intent(), ctx.passages().size(), ctx.draftAnswer() != null);
+
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return invoke(s, ctx, listener)
+                .doOnSuccess(resultCtx -> {
+                    metrics.recordStep(resultCtx, policies.get(s).name(), System.nanoTime() - start);
+                    if (s == passagesStep) {
+                        metrics.recordPassages(resultCtx);
+                    }
+                    listener.onStepCompleted(s, resultCtx);
+                    log.debug("✅ STAGE {}: {} - Completed, output: intent='{}', passages={}, hasDraft={}",
+                        stageNumber, stepName, resultCtx.intent(), resultCtx.passages().size(),
+                        resultCtx.draftAnswer() != null);
+                });
+            })
+            .doOnError(error -> {
+                log.error("❌ STAGE {}: {} - FAILED with error: {}", stageNumber, stepName, error.getMessage());
+            })
+            .onErrorResume(ex -> {
+                if (ex instanceof OverloadedException) {
+                    return Mono.error(ex);
+                }
+                log.error("💥 STAGE {}: {} - FINAL FAILURE after retry: {}", stageNumber, stepName, ex.getMessage());
+                return Mono.error(
+                        new RuntimeException("Failed in " + stepName + ": " + ex.getMessage(), ex)
+                );
+            });
+    }
+
+    /**
+     * Applies the step, or streams it through the listener when both sides support streaming.
+     * A streamed step is not retried: its chunks have already reached the client.
+     */
+    private Mono<Ctx> invoke(Step s, Ctx ctx, ChainListener listener) {
+        StepPolicy policy = policies.get(s);
+        if (listener.streaming() && s instanceof StreamingStep streamingStep) {
+            return policy.stream(() -> streamingStep.stream(ctx))
+                    .doOnNext(listener::onChunk)
+                    .collect(Collectors.joining())
+                    .map(text -> streamingStep.complete(ctx, text));
+        }
+        return policy.execute(() -> s.apply(ctx));
+    }
+
+    /**
+     * Assigns each step to the earliest stage that comes after every earlier step it
+     * conflicts with (read-after-write, write-after-read or write-after-write).
+     * Declaration order is kept within a stage, which keeps merging deterministic.
+     */
+    static List<List<Step>> plan(List<Step> steps) {
+        List<List<Step>> stages = new ArrayList<>();
+        int[] stageOf = new int[steps.size()];
+
         for (int i = 0; i < steps.size(); i++) {
             Step s = steps.get(i);
-            final int stepNumber = i + 1;
-            final String stepName = s.getClass().getSimpleName();
-            
-            log.info("⏭️  STEP {}: {} - Starting execution", stepNumber, stepName);
-            
-            flow = flow.flatMap(ctx -> {
-                log.info("📊 STEP {}: {} - Input Context: intent='{}', passages={}, hasDraft={}", 
-                    stepNumber, stepName, 
-                    ctx.intent() != null ? ctx.intent() : "null",
-                    ctx.passages().size(),
-                    ctx.draftAnswer() != null ? "yes" : "no");
-                
-                return s.apply(ctx)
-                    .doOnSuccess(resultCtx -> {
-                        log.info("✅ STEP {}: {} - COMPLETED SUCCESSFULLY", stepNumber, stepName);
-                        log.info("📊 STEP {}: {} - Output Context: intent='{}', passages={}, hasDraft={}", 
-                            stepNumber, stepName,
-                            resultCtx.intent() != null ? resultCtx.intent() : "null",
-                            resultCtx.passages().size(),
-                            resultCtx.draftAnswer() != null ? "yes" : "no");
-                    })
-                    .doOnError(error -> {
-                        log.error("❌ STEP {}: {} - FAILED with error: {}", stepNumber, stepName, error.getMessage());
-                    })
-                    .retryWhen(
-                            // retry once on transient errors (e.g., timeouts)
-                            Retry.fixedDelay(1, Duration.ofMillis(200))
-                    )
-                    .onErrorResume(ex -> {
-                        log.error("💥 STEP {}: {} - FINAL FAILURE after retry: {}", stepNumber, stepName, ex.getMessage());
-                        return Mono.error(
-                                new RuntimeException("Failed in " + stepName + ": " + ex.getMessage(), ex)
-                        );
-                    });
-            });
+            int stage = 0;
+            for (int j = 0; j < i; j++) {
+                Step earlier = steps.get(j);
+                if (overlaps(earlier.writes(), s.reads())
+                        || overlaps(earlier.reads(), s.writes())
+                        || overlaps(earlier.writes(), s.writes())) {
+                    stage = Math.max(stage, stageOf[j] + 1);
+                }
+            }
+            stageOf[i] = stage;
+            while (stages.size() <= stage) {
+                stages.add(new ArrayList<>());
+            }
+            stages.get(stage).add(s);
         }
-        
-        return flow.doOnSuccess(finalCtx -> {
-            log.info("🎉 CHAIN WORKFLOW COMPLETED SUCCESSFULLY!");
-            log.info("📋 Final Result Summary:");
-            log.info("   - Intent: {}", finalCtx.intent());
-            log.info("   - Passages Retrieved: {}", finalCtx.passages().size());
-            log.info("   - Draft Answer Length: {} characters", 
-                finalCtx.draftAnswer() != null ? finalCtx.draftAnswer().length() : 0);
-        }).doOnError(error -> {
-            log.error("💥 CHAIN WORKFLOW FAILED: {}", error.getMessage());
-        });
+
+        return stages.stream().map(Collections::unmodifiableList).toList();
+    }
+
+    private static boolean overlaps(Set<CtxField> a, Set<CtxField> b) {
+        return a.stream().anyMatch(b::contains);
     }
 }
@@ -0,0 +1,126 @@
+package com.hrpd.onboarding.chain.orchestrator;
+
+import com.hrpd.onboarding.chain.Ctx;
+import com.hrpd.onboarding.chain.cache.SemanticAnswerCache;
+import com.hrpd.onboarding.chain.metrics.ChainMetrics;
+import com.hrpd.onboarding.chain.steps.IntentStep;
+import com.hrpd.onboarding.rag.embedding.CachingEmbeddingModel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.embedding.EmbeddingModel;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Decorates another orchestrator with a semantic answer cache.
+ *
+ * The question is embedded once; if a previously answered question is close enough
+ * the stored answer is returned right away (without the meta of the run that produced it),
+ * otherwise the full chain runs and its result is cached for the next similar question.
+ *
+ * A batch embeds all its distinct questions with one embedding call, through the query
+ * embedding cache when there is one, so retrievals of the batch find them cached.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class SemanticCachingOrchestratorService implements ChainWorkflowOrchestratorService {
+
+    /** Meta entries describing the answer rather than the run that produced it. */
+    private static final Set<String> ANSWER_META = Set.of(
+            IntentStep.INTENT_SOURCE, ChainMetrics.PASSAGES, ChainMetrics.PASSAGE_CHARS, "context",
+            ChainMetrics.PROMPT_TEMPLATE, "validated", "validation");
+
+    private final ChainWorkflowOrchestratorService delegate;
+    private final SemanticAnswerCache cache;
+    private final EmbeddingModel embeddingModel;
+
+    @Override
+    public Mono<Ctx> run(String userText) {
+        return run(userText, (String) null);
+    }
+
+    @Override
+    public Mono<Ctx> run(String userText, String runKey) {
+        return Mono.fromCallable(() -> embeddingModel.embed(userText))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(embedding -> run(userText, runKey, embedding));
+    }
+
+    @Override
+    public Flux<BatchResult> runBatch(List<String> userTexts, int concurrency) {
+        List<Batches.Question> questions = Batches.distinct(userTexts);
+        List<String> texts = questions.stream().map(Batches.Question::text).toList();
+        return Mono.fromCallable(() -> embeddingModel instanceof CachingEmbeddingModel caching
+                        ? caching.embedQueries(texts)
+                        : embeddingModel.embed(texts))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(embeddings -> Batches.run(questions, concurrency,
+                        question -> run(question.text(), null, embeddings.get(question.position()))));
+    }
+
+    private Mono<Ctx> run(String userText, String runKey, float[] embedding) {
+        return delegate.checkRunKey(userText, runKey).then(Mono.defer(() -> {
+            long generation = cache.generation();
+            return cache.lookup(embedding)
+                    .map(hit -> {
+                        log.debug("⚡ SEMANTIC CACHE: HIT (distance={}) for '{}'", hit.distance(), userText);
+                        return Mono.just(asCached(userText, hit.ctx(), hit.distance()));
+                    })
+                    .orElseGet(() -> {
+                        log.debug("🐢 SEMANTIC CACHE: MISS for '{}'", userText);
+                        return delegate.run(userText, runKey)
+                                .doOnSuccess(ctx -> cache.put(embedding, ctx, generation));
+                    });
+        }));
+    }
+
+    @Override
+    public Flux<ChainEvent> stream(String userText) {
+        return Mono.fromCallable(() -> embeddingModel.embed(userText))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(embedding -> {
+                    long generation = cache.generation();
+                    return cache.lookup(embedding)
+                            .map(hit -> {
+                                log.debug("⚡ SEMANTIC CACHE: HIT (distance={}) for '{}'", hit.distance(), userText);
+                                Ctx ctx = asCached(userText, hit.ctx(), hit.distance());
+                                return Flux.just(
+                                        ChainEvent.intent(ctx.intent()),
+                                        ChainEvent.passages(ctx.passages()),
+                                        ChainEvent.token(ctx.draftAnswer()),
+                                        ChainEvent.done(ctx));
+                            })
+                            .orElseGet(() -> {
+                                log.debug("🐢 SEMANTIC CACHE: MISS for '{}'", userText);
+                                return delegate.stream(userText)
+                                        .doOnNext(event -> {
+                                            if (event.ctx() != null) {
+                                                cache.put(embedding, event.ctx(), generation);
+                                            }
+                                        });
+                            });
+                });
+    }
+
+    /**
+     * The cached answer served for {@code userText}. Only meta describing the answer itself is kept;
+     * entries of the run that produced it (run key, start time, timings, tokens, cost) belong to
+     * another question and caller.
+     */
+    private static Ctx asCached(String userText, Ctx cached, double distance) {
+        var meta = new HashMap<String, Object>();
+        cached.meta().forEach((key, value) -> {
+            if (ANSWER_META.contains(key)) {
+                meta.put(key, value);
+            }
+        });
+        meta.put("cache", "HIT");
+        meta.put("cacheDistance", distance);
+        return new Ctx(userText, cached.intent(), cached.passages(), cached.sources(), cached.draftAnswer(), meta);
+    }
+}
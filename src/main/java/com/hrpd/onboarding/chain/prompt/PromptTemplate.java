@@ -0,0 +1,158 @@
+package com.hrpd.onboarding.chain.prompt;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A prompt template compiled once: a static system part and a user part split into literal
+ * segments and {@code {{variable}}} slots.
+ *
+ * The source has a {@code [system]} section followed by a {@code [user]} section; lines before
+ * {@code [system]} are comments. Constants (e.g. the intent labels) are substituted at compile
+ * time, anywhere. The system part may hold nothing else, so it is the same for every request
+ * and the provider can cache it as a prompt prefix; the variable content comes last, in the
+ * user message.
+ *
+ * Rendering appends the segments into a per-thread buffer reused across requests, and records
+ * the estimated token count of the whole prompt in onboarding.prompt.tokens{template, version}.
+ */
+public final class PromptTemplate {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{\\s*([A-Za-z][\\w-]*)\\s*}}");
+    private static final String SYSTEM_SECTION = "[system]";
+    private static final String USER_SECTION = "[user]";
+    /** Buffers grown beyond this by an unusually large prompt are not kept for the next one. */
+    private static final int MAX_RETAINED_CHARS = 64 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+    /** A rendered prompt and its estimated token count. */
+    public record Rendered(Prompt prompt, int tokens) {
+    }
+
+    private final String name;
+    private final String version;
+    private final String source;
+    private final SystemMessage system;
+    private final int systemTokens;
+    /** One more literal than variables: literal 0, variable 0, literal 1, ... */
+    private final String[] literals;
+    private final String[] variables;
+    private final TokenCountEstimator tokens;
+    private final DistributionSummary renderedTokens;
+
+    private PromptTemplate(String name, String version, String source, String system, String[] literals,
+                           String[] variables, TokenCountEstimator tokens, MeterRegistry registry) {
+        this.name = name;
+        this.version = version;
+        this.source = source;
+        this.system = new SystemMessage(system);
+        this.systemTokens = tokens.estimate(system);
+        this.literals = literals;
+        this.variables = variables;
+        this.tokens = tokens;
+        this.renderedTokens = DistributionSummary.builder("onboarding.prompt.tokens")
+                .tag("template", name)
+                .tag("version", version)
+                .baseUnit("tokens")
+                .register(registry);
+    }
+
+    /**
+     * @param constants values substituted at compile time
+     * @throws IllegalArgumentException when a section is missing or the system part uses a variable
+     */
+    public static PromptTemplate compile(String name, String version, String source, Map<String, String> constants,
+                                         TokenCountEstimator tokens, MeterRegistry registry) {
+        String id = name + "@" + version;
+        int systemStart = source.indexOf(SYSTEM_SECTION + "\n");
+        int userStart = source.indexOf("\n" + USER_SECTION + "\n", Math.max(systemStart, 0));
+        if (systemStart < 0 || userStart < 0) {
+            throw new IllegalArgumentException("Prompt " + id + " needs a [system] section followed by a [user] section");
+        }
+        String system = substitute(source.substring(systemStart + SYSTEM_SECTION.length() + 1, userStart), constants).strip();
+        Matcher variable = PLACEHOLDER.matcher(system);
+        if (variable.find()) {
+            throw new IllegalArgumentException("Prompt " + id + " uses {{" + variable.group(1)
+                    + "}} in its system part; only constants may appear there");
+        }
+
+        String user = substitute(source.substring(userStart + USER_SECTION.length() + 2), constants).strip();
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        Matcher m = PLACEHOLDER.matcher(user);
+        int end = 0;
+        while (m.find()) {
+            literals.add(user.substring(end, m.start()));
+            variables.add(m.group(1));
+            end = m.end();
+        }
+        literals.add(user.substring(end));
+        return new PromptTemplate(name, version, source, system, literals.toArray(String[]::new),
+                variables.toArray(String[]::new), tokens, registry);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String version() {
+        return version;
+    }
+
+    /** "name@version", as reported in metrics and {@code meta}. */
+    public String id() {
+        return name + "@" + version;
+    }
+
+    /** The text this template was compiled from. */
+    String source() {
+        return source;
+    }
+
+    /**
+     * @param values variable name to value (rendered with {@code String.valueOf})
+     * @throws IllegalArgumentException when a variable of the template has no value
+     */
+    public Rendered render(Map<String, ?> values) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        for (int i = 0; i < variables.length; i++) {
+            buffer.append(literals[i]);
+            Object value = values.get(variables[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("No value for {{" + variables[i] + "}} in prompt " + id());
+            }
+            buffer.append(value);
+        }
+        buffer.append(literals[variables.length]);
+        String user = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_CHARS) {
+            BUFFER.remove();
+        }
+
+        int count = systemTokens + tokens.estimate(user);
+        renderedTokens.record(count);
+        return new Rendered(new Prompt(List.of(system, new UserMessage(user))), count);
+    }
+
+    private static String substitute(String text, Map<String, String> constants) {
+        Matcher m = PLACEHOLDER.matcher(text);
+        StringBuilder out = new StringBuilder(text.length());
+        while (m.find()) {
+            String constant = constants.get(m.group(1));
+            m.appendReplacement(out, Matcher.quoteReplacement(constant != null ? constant : m.group()));
+        }
+        m.appendTail(out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,142 @@
+package com.hrpd.onboarding.chain.prompt;
+
+import com.hrpd.onboarding.config.PromptProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The compiled {@link PromptTemplate}s, by name, in the version set by
+ * {@code onboarding.prompts.versions}.
+ *
+ * A template is read from {@code <location>/<name>/<version>.prompt} when that file exists,
+ * otherwise from {@code prompts/<name>/<version>.prompt} on the classpath, and compiled on first
+ * use. When a location is set, every {@code reloadInterval} the templates in use are read again
+ * and the changed ones recompiled and swapped in; a template that no longer compiles is logged
+ * and the previous one kept.
+ */
+@Slf4j
+public class PromptTemplates implements SmartLifecycle {
+
+    private final PromptProperties props;
+    private final Map<String, String> constants;
+    private final MeterRegistry registry;
+    private final TokenCountEstimator tokens = new JTokkitTokenCountEstimator();
+    private final Map<String, PromptTemplate> templates = new ConcurrentHashMap<>();
+    /** Last source of each template that failed to compile, so it is reported once. */
+    private final Map<String, String> rejected = new ConcurrentHashMap<>();
+
+    private volatile Disposable reloader;
+
+    /**
+     * @param constants values substituted into every template at compile time
+     */
+    public PromptTemplates(PromptProperties props, Map<String, String> constants, MeterRegistry registry) {
+        this.props = props;
+        this.constants = Map.copyOf(constants);
+        this.registry = registry;
+    }
+
+    /**
+     * @throws IllegalStateException when the template is missing or does not compile
+     */
+    public PromptTemplate get(String name) {
+        return templates.computeIfAbsent(name, this::load);
+    }
+
+    @Override
+    public void start() {
+        if (props.location().isBlank()) {
+            return;
+        }
+        reloader = Flux.interval(props.reloadInterval(), Schedulers.boundedElastic())
+                .subscribe(tick -> reload());
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = reloader;
+        if (current != null) {
+            current.dispose();
+        }
+        reloader = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return reloader != null;
+    }
+
+    private PromptTemplate load(String name) {
+        String version = props.version(name);
+        try {
+            PromptTemplate template = PromptTemplate.compile(name, version, read(name, version), constants, tokens, registry);
+            log.info("📝 PROMPTS: Loaded {}", template.id());
+            return template;
+        } catch (IllegalArgumentException | UncheckedIOException e) {
+            throw new IllegalStateException("Cannot load prompt " + name + "@" + version + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void reload() {
+        templates.replaceAll((name, current) -> {
+            try {
+                String source = read(name, current.version());
+                if (source.equals(current.source()) || source.equals(rejected.get(name))) {
+                    return current;
+                }
+                PromptTemplate fresh;
+                try {
+                    fresh = PromptTemplate.compile(name, current.version(), source, constants, tokens, registry);
+                } catch (IllegalArgumentException e) {
+                    rejected.put(name, source);
+                    throw e;
+                }
+                rejected.remove(name);
+                log.info("📝 PROMPTS: Reloaded {}", fresh.id());
+                return fresh;
+            } catch (IllegalArgumentException | UncheckedIOException e) {
+                log.warn("📝 PROMPTS: Keeping the previous {}: {}", current.id(), e.getMessage());
+                return current;
+            }
+        });
+    }
+
+    private String read(String name, String version) {
+        String file = name + "/" + version + ".prompt";
+        try {
+            if (!props.location().isBlank()) {
+                Path path = Path.of(props.location(), file);
+                if (Files.isRegularFile(path)) {
+                    return normalize(Files.readString(path));
+                }
+            }
+            try (InputStream in = PromptTemplates.class.getClassLoader().getResourceAsStream("prompts/" + file)) {
+                if (in == null) {
+                    throw new IllegalArgumentException("prompts/" + file + " not found");
+                }
+                return normalize(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String normalize(String source) {
+        return source.replace("\r\n", "\n");
+    }
+}
@@ -0,0 +1,83 @@
+package com.hrpd.onboarding.chain.resilience;
+
+import com.hrpd.onboarding.config.ResilienceProperties.StepLimits;
+
+/**
+ * Concurrency limit driven by observed latency (AIMD with a Vegas-style latency signal).
+ *
+ * Latency is smoothed over the last few attempts, which absorbs the natural spread of LLM
+ * calls, and compared with a baseline: the lowest smoothed latency seen so far. Only when
+ * a whole window of samples stayed slow at the minimum limit, i.e. the dependency itself
+ * got slower rather than being pushed too hard, the baseline moves up to that window's.
+ * While the smoothed latency stays within {@code latencyTolerance} times the baseline and
+ * the limit is actually used, the limit grows by about its square root per round trip.
+ * Beyond that, and on timed out or overloaded attempts, it is multiplied by
+ * {@code backoffRatio}, at most once per round trip: attempts started before the last
+ * decrease do not shrink it again.
+ */
+class AdaptiveLimit {
+
+    private static final double SMOOTHING_WINDOW = 10;
+    private static final int BASELINE_WINDOW = 200;
+
+    private final StepLimits limits;
+
+    private double limit;
+    private double smoothedNanos;
+    private double baselineNanos = Double.MAX_VALUE;
+    private double windowMinNanos = Double.MAX_VALUE;
+    private int windowSamples;
+    private long lastDecreaseNanos = Long.MIN_VALUE;
+
+    AdaptiveLimit(StepLimits limits) {
+        this.limits = limits;
+        this.limit = limits.initialLimit();
+    }
+
+    synchronized int get() {
+        return (int) limit;
+    }
+
+    /**
+     * @param startNanos start of the attempt ({@link System#nanoTime()})
+     * @param inFlight   attempts in flight when this one completed, itself included
+     */
+    synchronized void onSuccess(long startNanos, int inFlight) {
+        if (!limits.adaptive()) {
+            return;
+        }
+        double latency = System.nanoTime() - startNanos;
+        smoothedNanos = smoothedNanos == 0 ? latency : smoothedNanos + (latency - smoothedNanos) / SMOOTHING_WINDOW;
+        windowMinNanos = Math.min(windowMinNanos, smoothedNanos);
+        if (++windowSamples >= BASELINE_WINDOW) {
+            if (limit <= limits.minLimit()) {
+                baselineNanos = windowMinNanos;
+            }
+            windowMinNanos = Double.MAX_VALUE;
+            windowSamples = 0;
+        }
+        baselineNanos = Math.min(baselineNanos, smoothedNanos);
+
+        if (smoothedNanos > baselineNanos * limits.latencyTolerance()) {
+            decrease(startNanos);
+        } else if (inFlight * 2 >= limit) {
+            // one completion per slot and round trip: about sqrt(limit) more per round trip
+            limit = Math.min(limits.maxLimit(), limit + Math.sqrt(limit) / limit);
+        }
+    }
+
+    /** The attempt timed out or failed in a way that signals an overloaded dependency. */
+    synchronized void onDropped(long startNanos) {
+        if (limits.adaptive()) {
+            decrease(startNanos);
+        }
+    }
+
+    private void decrease(long startNanos) {
+        if (startNanos < lastDecreaseNanos) {
+            return;
+        }
+        limit = Math.max(limits.minLimit(), limit * limits.backoffRatio());
+        lastDecreaseNanos = System.nanoTime();
+    }
+}
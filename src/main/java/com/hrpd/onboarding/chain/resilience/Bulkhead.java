@@ -0,0 +1,203 @@
+package com.hrpd.onboarding.chain.resilience;
+
+import com.hrpd.onboarding.config.ResilienceProperties.StepLimits;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking bulkhead of one step: at most {@link AdaptiveLimit#get()} executions run at
+ * the same time, up to {@code maxQueue} more wait (without holding a thread) in FIFO order,
+ * and anything beyond that, or waiting longer than {@code maxQueueWait}, is rejected right
+ * away with {@link OverloadedException}.
+ *
+ * Metrics (tag step):
+ *  - onboarding.step.limit / onboarding.step.in.flight / onboarding.step.queued (gauges)
+ *  - onboarding.step.queue.wait (time spent waiting for a slot)
+ *  - onboarding.step.rejected{reason=queue-full|queue-timeout}
+ */
+@Slf4j
+class Bulkhead {
+
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int CANCELLED = 2;
+
+    private final String step;
+    private final StepLimits limits;
+    private final AdaptiveLimit limit;
+    private final Predicate<Throwable> dropped;
+    private final Deque<Waiter> queue = new ArrayDeque<>();
+    private int inFlight;
+
+    private final Timer queueWait;
+    private final Counter rejectedFull;
+    private final Counter rejectedTimeout;
+
+    /**
+     * @param dropped failures that signal an overloaded dependency and shrink the limit
+     */
+    Bulkhead(String step, StepLimits limits, Predicate<Throwable> dropped, MeterRegistry registry) {
+        this.step = step;
+        this.limits = limits;
+        this.limit = new AdaptiveLimit(limits);
+        this.dropped = dropped;
+        this.queueWait = Timer.builder("onboarding.step.queue.wait").tag("step", step).register(registry);
+        this.rejectedFull = Counter.builder("onboarding.step.rejected")
+                .tag("step", step).tag("reason", "queue-full").register(registry);
+        this.rejectedTimeout = Counter.builder("onboarding.step.rejected")
+                .tag("step", step).tag("reason", "queue-timeout").register(registry);
+        Gauge.builder("onboarding.step.limit", limit, AdaptiveLimit::get).tag("step", step).register(registry);
+        Gauge.builder("onboarding.step.in.flight", this, Bulkhead::inFlight).tag("step", step).register(registry);
+        Gauge.builder("onboarding.step.queued", this, Bulkhead::queued).tag("step", step).register(registry);
+    }
+
+    /** Runs the call once a slot is free; its latency and failures adjust the limit. */
+    <T> Mono<T> execute(Supplier<? extends Mono<T>> call) {
+        return acquire().flatMap(permit -> Mono.defer(call)
+                .doOnSuccess(value -> permit.succeeded())
+                .doOnError(permit::failed)
+                .doFinally(signal -> permit.release()));
+    }
+
+    /** Holds a slot for the whole stream; streams do not feed latency samples to the limit. */
+    <T> Flux<T> stream(Supplier<? extends Flux<T>> call) {
+        return acquire().flatMapMany(permit -> Flux.defer(call)
+                .doOnError(permit::failed)
+                .doFinally(signal -> permit.release()));
+    }
+
+    private Mono<Permit> acquire() {
+        return Mono.defer(() -> {
+            synchronized (this) {
+                if (queue.isEmpty() && inFlight < limit.get()) {
+                    inFlight++;
+                    return Mono.just(new Permit());
+                }
+            }
+            return Mono.create(this::enqueue);
+        });
+    }
+
+    private void enqueue(MonoSink<Permit> sink) {
+        Waiter waiter = new Waiter(sink);
+        sink.onCancel(() -> cancel(waiter));
+        int waiting;
+        synchronized (this) {
+            waiting = queue.size();
+            if (waiting < limits.maxQueue() && (waiting > 0 || inFlight >= limit.get())) {
+                queue.addLast(waiter);
+                sink.onDispose(Schedulers.parallel().schedule(() -> expire(waiter),
+                        limits.maxQueueWait().toNanos(), TimeUnit.NANOSECONDS));
+                return;
+            }
+            if (waiting == 0 && inFlight < limit.get() && waiter.state.compareAndSet(WAITING, GRANTED)) {
+                inFlight++;
+            }
+        }
+        // completed outside the lock: success runs the step on this thread
+        if (waiter.state.get() == GRANTED) {
+            sink.success(new Permit());
+        } else if (waiter.state.compareAndSet(WAITING, CANCELLED)) {
+            rejectedFull.increment();
+            log.warn("🚦 BULKHEAD: Shedding '{}' execution, {} already waiting", step, waiting);
+            sink.error(new OverloadedException("Step '" + step + "' is overloaded: queue is full"));
+        }
+    }
+
+    private void expire(Waiter waiter) {
+        if (waiter.state.compareAndSet(WAITING, CANCELLED)) {
+            synchronized (this) {
+                queue.remove(waiter);
+            }
+            rejectedTimeout.increment();
+            waiter.sink.error(new OverloadedException(
+                    "Step '" + step + "' is overloaded: no slot within " + limits.maxQueueWait().toMillis() + " ms"));
+        }
+    }
+
+    private void cancel(Waiter waiter) {
+        if (waiter.state.compareAndSet(WAITING, CANCELLED)) {
+            synchronized (this) {
+                queue.remove(waiter);
+            }
+        } else if (waiter.state.get() == GRANTED) {
+            // granted while being cancelled: the permit never reached the caller
+            release();
+        }
+    }
+
+    private void release() {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            inFlight--;
+            while (inFlight < limit.get() && !queue.isEmpty()) {
+                Waiter next = queue.pollFirst();
+                if (next.state.compareAndSet(WAITING, GRANTED)) {
+                    inFlight++;
+                    granted.add(next);
+                }
+            }
+        }
+        for (Waiter waiter : granted) {
+            queueWait.record(System.nanoTime() - waiter.enqueuedNanos, TimeUnit.NANOSECONDS);
+            waiter.sink.success(new Permit());
+        }
+    }
+
+    private synchronized int inFlight() {
+        return inFlight;
+    }
+
+    private synchronized int queued() {
+        return queue.size();
+    }
+
+    private static final class Waiter {
+        final MonoSink<Permit> sink;
+        final long enqueuedNanos = System.nanoTime();
+        final AtomicInteger state = new AtomicInteger(WAITING);
+
+        Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+    }
+
+    /** One slot; released exactly once. */
+    private final class Permit {
+        final long startNanos = System.nanoTime();
+        final AtomicBoolean released = new AtomicBoolean();
+
+        void succeeded() {
+            limit.onSuccess(startNanos, inFlight());
+        }
+
+        void failed(Throwable error) {
+            if (dropped.test(error)) {
+                limit.onDropped(startNanos);
+            }
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                Bulkhead.this.release();
+            }
+        }
+    }
+}
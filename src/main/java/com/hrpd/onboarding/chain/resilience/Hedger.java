@@ -0,0 +1,139 @@
+package com.hrpd.onboarding.chain.resilience;
+
+import com.hrpd.onboarding.config.HedgingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Hedged requests for a slow, idempotent call: if the primary attempt has not answered after
+ * the configured percentile of recent latencies, a second attempt is sent. The first value wins
+ * and the other attempt is cancelled (for an LlmClient call, its slot is freed at once, but the
+ * provider request is still billed). A primary that fails before the hedge delay fails right
+ * away (the step policy decides about retries); once a hedge is out, either attempt may answer.
+ *
+ * Hedges draw from a budget refilled by every call ({@code budgetRatio}, {@code budgetBurst}),
+ * so a provider slowdown costs at most that fraction of extra calls. Latency samples are the
+ * primary's own duration, or the time it had been running when a hedge beat it.
+ *
+ * Metrics (tag step):
+ *  - onboarding.hedge.requests{outcome=sent|budget-exhausted}
+ *  - onboarding.hedge.wins (hedges that answered first)
+ *  - onboarding.hedge.delay (current delay, ms)
+ */
+@Slf4j
+public class Hedger {
+
+    /** Recompute the percentile every this many samples. */
+    private static final int UPDATE_EVERY = 16;
+
+    private record Attempt<T>(T value, boolean hedge) {}
+
+    private final String step;
+    private final HedgingProperties props;
+    private final RetryBudget budget;
+
+    private final long[] samples;
+    private int sampleCount;
+    private int nextSample;
+    private int sinceUpdate;
+    private volatile long delayNanos;
+
+    private final Counter sent;
+    private final Counter budgetExhausted;
+    private final Counter wins;
+
+    public Hedger(String step, HedgingProperties props, MeterRegistry registry) {
+        this.step = step;
+        this.props = props;
+        this.budget = new RetryBudget(props.budgetRatio(), props.budgetBurst());
+        this.samples = new long[props.window()];
+        this.delayNanos = props.maxDelay().toNanos();
+        this.sent = Counter.builder("onboarding.hedge.requests")
+                .tag("step", step).tag("outcome", "sent").register(registry);
+        this.budgetExhausted = Counter.builder("onboarding.hedge.requests")
+                .tag("step", step).tag("outcome", "budget-exhausted").register(registry);
+        this.wins = Counter.builder("onboarding.hedge.wins").tag("step", step).register(registry);
+        Gauge.builder("onboarding.hedge.delay", this, h -> TimeUnit.NANOSECONDS.toMillis(h.delayNanos))
+                .tag("step", step).baseUnit("milliseconds").register(registry);
+    }
+
+    /** Delay after which a hedge is sent. */
+    public Duration delay() {
+        return Duration.ofNanos(delayNanos);
+    }
+
+    /**
+     * Runs the primary attempt, hedged by a second one if it is slow.
+     *
+     * @param primary creates the primary attempt
+     * @param hedge   creates the hedge (e.g. the same call to a secondary deployment)
+     */
+    public <T> Mono<T> execute(Supplier<? extends Mono<T>> primary, Supplier<? extends Mono<T>> hedge) {
+        return Mono.defer(() -> {
+            budget.deposit();
+            long start = System.nanoTime();
+            AtomicBoolean hedged = new AtomicBoolean();
+            Sinks.One<Boolean> primaryFailed = Sinks.one();
+
+            Mono<Attempt<T>> first = primary.get()
+                    .doOnNext(value -> record(System.nanoTime() - start))
+                    .doOnCancel(() -> {
+                        if (hedged.get()) {
+                            record(System.nanoTime() - start);
+                        }
+                    })
+                    .doOnError(error -> primaryFailed.tryEmitValue(Boolean.TRUE))
+                    .map(value -> new Attempt<>(value, false));
+
+            Mono<Attempt<T>> second = Mono.delay(delay())
+                    .takeUntilOther(primaryFailed.asMono())
+                    .flatMap(tick -> {
+                        if (!budget.tryWithdraw()) {
+                            budgetExhausted.increment();
+                            log.debug("🏁 HEDGE: Budget of '{}' exhausted, waiting for the primary call", step);
+                            return Mono.empty();
+                        }
+                        hedged.set(true);
+                        sent.increment();
+                        log.debug("🏁 HEDGE: '{}' slower than {} ms, sending a hedge", step,
+                                TimeUnit.NANOSECONDS.toMillis(delayNanos));
+                        return hedge.get().map(value -> new Attempt<>(value, true));
+                    });
+
+            return Flux.mergeDelayError(1, first, second)
+                    .next()
+                    .doOnNext(attempt -> {
+                        if (attempt.hedge()) {
+                            wins.increment();
+                            log.debug("🏁 HEDGE: Hedge of '{}' answered first", step);
+                        }
+                    })
+                    .map(Attempt::value);
+        });
+    }
+
+    private synchronized void record(long nanos) {
+        samples[nextSample] = nanos;
+        nextSample = (nextSample + 1) % samples.length;
+        sampleCount = Math.min(sampleCount + 1, samples.length);
+        if (++sinceUpdate < UPDATE_EVERY || sampleCount < props.minSamples()) {
+            return;
+        }
+        sinceUpdate = 0;
+        long[] sorted = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(sorted);
+        long value = sorted[Math.max(0, (int) Math.ceil(props.percentile() * sampleCount) - 1)];
+        delayNanos = Math.max(props.minDelay().toNanos(), Math.min(props.maxDelay().toNanos(), value));
+    }
+}
@@ -0,0 +1,16 @@
+package com.hrpd.onboarding.chain.resilience;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Raised when work is shed because a step (or the LLM client) has no capacity left.
+ * Surfaces as HTTP 429 so clients back off instead of piling up behind a saturated dependency.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class OverloadedException extends RuntimeException {
+
+    public OverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,40 @@
+package com.hrpd.onboarding.chain.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps retries at a fraction of the executions: every execution deposits {@code ratio}
+ * tokens and every retry withdraws one. At most {@code burst} tokens are kept (and the
+ * budget starts full), so a short error burst is retried but a sustained outage is not
+ * multiplied by the number of retries.
+ */
+class RetryBudget {
+
+    /** Fixed-point scale so deposits like 0.1 can be kept in a long. */
+    private static final long TOKEN = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    RetryBudget(double ratio, int burst) {
+        this.deposit = Math.round(ratio * TOKEN);
+        this.capacity = burst * TOKEN;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    void deposit() {
+        balance.accumulateAndGet(deposit, (current, amount) -> Math.min(capacity, current + amount));
+    }
+
+    boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+}
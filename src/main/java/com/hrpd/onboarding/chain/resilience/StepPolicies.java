@@ -0,0 +1,68 @@
+package com.hrpd.onboarding.chain.resilience;
+
+import com.hrpd.onboarding.chain.Step;
+import com.hrpd.onboarding.config.ResilienceProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.R2dbcTransientException;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Creates and keeps one {@link StepPolicy} per step, configured from
+ * {@code onboarding.resilience.steps.<name>} where the name is derived from the class
+ * ({@code DraftAnswerStep} becomes {@code draft-answer}).
+ */
+public class StepPolicies {
+
+    private final ResilienceProperties props;
+    private final MeterRegistry registry;
+    private final Map<String, StepPolicy> policies = new ConcurrentHashMap<>();
+
+    public StepPolicies(ResilienceProperties props, MeterRegistry registry) {
+        this.props = props;
+        this.registry = registry;
+    }
+
+    public StepPolicy forStep(Step step) {
+        return policies.computeIfAbsent(nameOf(step),
+                name -> new StepPolicy(name, props.limitsFor(name), props.retry(), registry));
+    }
+
+    /** Configuration key of a step: the class name without "Step", in kebab case. */
+    static String nameOf(Step step) {
+        String simpleName = step.getClass().getSimpleName().replaceFirst("Step$", "");
+        if (simpleName.isEmpty()) {
+            return "step";
+        }
+        return simpleName.replaceAll("([a-z0-9])([A-Z])", "$1-$2").toLowerCase();
+    }
+
+    /**
+     * Whether a failure is worth retrying: timeouts, I/O errors and errors the model provider
+     * or database flag as transient. Rejections, validation and programming errors are not.
+     */
+    public static boolean isTransient(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (e instanceof OverloadedException) {
+                return false;
+            }
+            if (e instanceof TimeoutException
+                    || e instanceof IOException
+                    || e instanceof TransientAiException
+                    || e instanceof ResourceAccessException
+                    || e instanceof WebClientRequestException
+                    || e instanceof TransientDataAccessException
+                    || e instanceof R2dbcTransientException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
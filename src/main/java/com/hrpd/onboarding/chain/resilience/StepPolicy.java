@@ -0,0 +1,134 @@
+package com.hrpd.onboarding.chain.resilience;
+
+import com.hrpd.onboarding.config.ResilienceProperties.Retry;
+import com.hrpd.onboarding.config.ResilienceProperties.StepLimits;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * How the orchestrator executes one step: every attempt goes through the step's
+ * {@link Bulkhead} and is bounded by the step timeout; transient failures are retried
+ * with jittered exponential backoff while the step's {@link RetryBudget} allows it.
+ *
+ * Metrics (tag step):
+ *  - onboarding.step.duration{outcome=success|error|timeout|rejected} (whole execution, p50/p95/p99)
+ *  - onboarding.step.timeouts (timed out attempts, retried or not)
+ *  - onboarding.step.retries{outcome=retried|budget-exhausted}
+ */
+@Slf4j
+public class StepPolicy {
+
+    private final String step;
+    private final StepLimits limits;
+    private final Retry retry;
+    private final Bulkhead bulkhead;
+    private final RetryBudget budget;
+
+    private final Timer succeeded;
+    private final Timer failed;
+    private final Timer timedOut;
+    private final Timer rejected;
+    private final Counter attemptTimeouts;
+    private final Counter retried;
+    private final Counter budgetExhausted;
+
+    StepPolicy(String step, StepLimits limits, Retry retry, MeterRegistry registry) {
+        this.step = step;
+        this.limits = limits;
+        this.retry = retry;
+        // a saturated dependency (e.g. the LLM client's queue) is a drop as much as a timeout
+        this.bulkhead = new Bulkhead(step, limits,
+                error -> StepPolicies.isTransient(error) || error instanceof OverloadedException, registry);
+        this.budget = new RetryBudget(retry.budgetRatio(), retry.budgetBurst());
+        this.succeeded = durationTimer("success", registry);
+        this.failed = durationTimer("error", registry);
+        this.timedOut = durationTimer("timeout", registry);
+        this.rejected = durationTimer("rejected", registry);
+        this.attemptTimeouts = Counter.builder("onboarding.step.timeouts").tag("step", step).register(registry);
+        this.retried = Counter.builder("onboarding.step.retries")
+                .tag("step", step).tag("outcome", "retried").register(registry);
+        this.budgetExhausted = Counter.builder("onboarding.step.retries")
+                .tag("step", step).tag("outcome", "budget-exhausted").register(registry);
+    }
+
+    /** Configuration key and metric tag of the step. */
+    public String name() {
+        return step;
+    }
+
+    /**
+     * Runs the step with admission control, timeout and retries.
+     *
+     * @param attempt creates one attempt; called again for every retry
+     */
+    public <T> Mono<T> execute(Supplier<? extends Mono<T>> attempt) {
+        return Mono.defer(() -> {
+            budget.deposit();
+            long start = System.nanoTime();
+            return bulkhead.execute(() -> attempt.get()
+                            .timeout(limits.timeout())
+                            .doOnError(TimeoutException.class, e -> attemptTimeouts.increment()))
+                    .retryWhen(retrySpec())
+                    .doOnSuccess(value -> succeeded.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .doOnError(error -> timerFor(error).record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /**
+     * Runs a streaming step with admission control only: once chunks have reached the
+     * client the step cannot be retried, and its own idle timeout applies.
+     */
+    public <T> Flux<T> stream(Supplier<? extends Flux<T>> call) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return bulkhead.stream(call)
+                    .doOnComplete(() -> succeeded.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .doOnError(error -> timerFor(error).record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private Timer timerFor(Throwable error) {
+        if (error instanceof OverloadedException) {
+            return rejected;
+        }
+        return error instanceof TimeoutException ? timedOut : failed;
+    }
+
+    private Timer durationTimer(String outcome, MeterRegistry registry) {
+        return Timer.builder("onboarding.step.duration")
+                .tag("step", step)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+
+    private reactor.util.retry.Retry retrySpec() {
+        AtomicInteger failures = new AtomicInteger();
+        return reactor.util.retry.Retry.backoff(retry.maxRetries(), retry.minBackoff())
+                .maxBackoff(retry.maxBackoff())
+                .jitter(retry.jitter())
+                .filter(error -> StepPolicies.isTransient(error)
+                        && failures.incrementAndGet() <= retry.maxRetries()
+                        && withdraw(error));
+    }
+
+    private boolean withdraw(Throwable error) {
+        if (!budget.tryWithdraw()) {
+            budgetExhausted.increment();
+            log.warn("🔁 RETRY: Budget of '{}' exhausted, not retrying: {}", step, error.getMessage());
+            return false;
+        }
+        retried.increment();
+        log.info("🔁 RETRY: Retrying '{}' after transient failure: {}", step, error.getMessage());
+        return true;
+    }
+}
@@ -0,0 +1,60 @@
+package com.hrpd.onboarding.chain.steps;
+
+import com.hrpd.onboarding.chain.Ctx;
+import com.hrpd.onboarding.chain.CtxField;
+import com.hrpd.onboarding.chain.PassageRef;
+import com.hrpd.onboarding.chain.Step;
+import com.hrpd.onboarding.chain.context.ContextAssembler;
+import com.hrpd.onboarding.chain.context.ContextAssembler.AssembledContext;
+import com.hrpd.onboarding.chain.context.ContextReport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Step between retrieval and drafting: replaces the retrieved passages with a deduplicated,
+ * compressed selection that fits the prompt token budget (see {@link ContextAssembler}).
+ * The draft cites the assembled passages as [#n] and ValidateStep checks the markers against
+ * them; which retrieved passage each one comes from is recorded in {@code meta.context}
+ * ({@link ContextReport}).
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class ContextAssemblyStep implements Step {
+
+    private final ContextAssembler assembler;
+
+    @Override
+    public Set<CtxField> reads() {
+        return EnumSet.of(CtxField.USER_TEXT, CtxField.PASSAGES);
+    }
+
+    @Override
+    public Set<CtxField> writes() {
+        return EnumSet.of(CtxField.PASSAGES, CtxField.META);
+    }
+
+    @Override
+    public Mono<Ctx> apply(Ctx ctx) {
+        AssembledContext context = assembler.assemble(ctx.userText(), ctx.passages());
+        ContextReport report = context.report();
+
+        log.debug("🧩 CONTEXT ASSEMBLY STEP: {} passages -> {} ({} near-duplicates), {} tokens, sources {}",
+            report.retrieved(), context.passages().size(), report.duplicates(), report.tokens(), report.sources());
+
+        ctx.meta().put("context", report);
+        return Mono.just(ctx.withPassages(context.passages(), sources(ctx.sources(), report)));
+    }
+
+    /** Sources of the assembled passages; none when the retrieved ones came without (e.g. an older checkpoint). */
+    private static List<PassageRef> sources(List<PassageRef> retrieved, ContextReport report) {
+        if (retrieved == null || retrieved.size() != report.retrieved()) {
+            return List.of();
+        }
+        return report.sources().stream().map(retrieved::get).toList();
+    }
+}
@@ -1,85 +1,182 @@
 package com.hrpd.onboarding.chain.steps;
 
 import com.hrpd.onboarding.chain.Ctx;
-import com.hrpd.onboarding.chain.Step;
-import lombok.RequiredArgsConstructor;
+import com.hrpd.onboarding.chain.CtxField;
+import com.hrpd.onboarding.chain.StreamingStep;
+import com.hrpd.onboarding.chain.llm.LlmClient;
+import com.hrpd.onboarding.chain.metrics.ChainMetrics;
+import com.hrpd.onboarding.chain.prompt.PromptTemplate;
+import com.hrpd.onboarding.chain.prompt.PromptTemplates;
+import com.hrpd.onboarding.chain.resilience.Hedger;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
-import java.util.stream.Collectors;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Step 3: Generate a grounded draft answer using ONLY the retrieved passages.
  * This prevents hallucinations and encourages citations.
+ * Can also be streamed token by token through {@link #stream(Ctx)}.
+ * The prompt comes from the {@value #PROMPT} template: static instructions in the system message,
+ * passages and question last. Its template version and estimated size are recorded in
+ * {@code meta.promptTemplate} / {@code meta.promptTokens} (see {@link ChainMetrics}).
+ * The provider's token usage is recorded by the LlmClient.
+ * With a {@link Hedger}, a slow call is hedged by a second one with the same prompt and
+ * options, optionally sent to another model (e.g. a secondary deployment).
  */
-@RequiredArgsConstructor
 @Slf4j
-public class DraftAnswerStep implements Step {
+public class DraftAnswerStep implements StreamingStep {
 
-    private final ChatModel model;
+    public static final String PROMPT = "draft-answer";
 
-    @Override
-    public Mono<Ctx> apply(Ctx ctx) {
-        log.info("✍️  DRAFT ANSWER STEP: Starting answer generation");
-        log.info("✍️  DRAFT ANSWER STEP: User text: '{}'", ctx.userText());
-        log.info("✍️  DRAFT ANSWER STEP: Intent: '{}'", ctx.intent());
-        log.info("✍️  DRAFT ANSWER STEP: Available passages: {}", ctx.passages().size());
-        
-        // Join passages into a simple, bullet-like context.
-        var context = ctx
-                .passages()
-                .stream()
-                .map(p -> "- " + p.replace("\n", " ").trim())
-                .collect(Collectors.joining("\n"));
-
-        log.info("✍️  DRAFT ANSWER STEP: Prepared context with {} passages", ctx.passages().size());
-        log.debug("✍️  DRAFT ANSWER STEP: Context length: {} characters", context.length());
+    private final LlmClient llm;
+    private final PromptTemplates prompts;
+    /** Null when hedging is disabled. */
+    private final Hedger hedger;
+    /** Model the hedge call is sent to; null to send the same prompt. */
+    private final String hedgeModel;
 
-        // Grounding prompt: force the model to only use the provided context.
-        String prompt = """
-        Instructions:
-        - Use ONLY the provided CONTEXT to answer.
-        - If information is missing, say it explicitly and suggest the right channel (IT/HR/Legal).
-        - Provide actionable steps.
-        - Add a "References" section with [#] markers based on the order of the context items.
+    public DraftAnswerStep(LlmClient llm, PromptTemplates prompts) {
+        this(llm, prompts, null, null);
+    }
 
-        CONTEXT:
-        %s
+    public DraftAnswerStep(LlmClient llm, PromptTemplates prompts, Hedger hedger, String hedgeModel) {
+        this.llm = llm;
+        this.prompts = prompts;
+        this.hedger = hedger;
+        this.hedgeModel = hedgeModel;
+    }
 
-        INTENT: %s
-        QUESTION: %s
+    @Override
+    public Set<CtxField> reads() {
+        return EnumSet.of(CtxField.USER_TEXT, CtxField.INTENT, CtxField.PASSAGES);
+    }
 
-        Format:
-        - Short, bullet-point answer (max 7 bullets).
-        - Final section: "References" with [#] and a short title.
-        """.formatted(context, ctx.intent(), ctx.userText());
+    @Override
+    public Set<CtxField> writes() {
+        return EnumSet.of(CtxField.DRAFT_ANSWER, CtxField.META);
+    }
 
-        log.info("✍️  DRAFT ANSWER STEP: Sending generation prompt to LLM");
-        log.debug("✍️  DRAFT ANSWER STEP: Prompt length: {} characters", prompt.length());
+    @Override
+    public Mono<Ctx> apply(Ctx ctx) {
+        Prompt prompt = buildPrompt(ctx);
 
-        return Mono.fromCallable(() -> {
-                log.info("✍️  DRAFT ANSWER STEP: Calling LLM for answer generation...");
-                return model.call(prompt);
-            })
-            .publishOn(Schedulers.boundedElastic())
+        log.debug("✍️  DRAFT ANSWER STEP: Sending generation prompt to LLM");
+        log.debug("✍️  DRAFT ANSWER STEP: Prompt size: {} tokens", ctx.meta().get(ChainMetrics.PROMPT_TOKENS));
+
+        log.debug("✍️  DRAFT ANSWER STEP: Calling LLM for answer generation...");
+        Mono<ChatResponse> call = hedger == null
+                ? llm.call(prompt)
+                : hedger.execute(() -> llm.call(prompt),
+                        () -> llm.call(hedgeModel == null ? prompt : withModel(prompt, hedgeModel)));
+        return call
+            .map(LlmClient::textOf)
             .doOnSuccess(rawResponse -> {
-                log.info("✍️  DRAFT ANSWER STEP: LLM response received");
-                log.info("✍️  DRAFT ANSWER STEP: Generated answer length: {} characters", 
+                log.debug("✍️  DRAFT ANSWER STEP: LLM response received");
+                log.debug("✍️  DRAFT ANSWER STEP: Generated answer length: {} characters",
                     rawResponse != null ? rawResponse.length() : 0);
-                log.debug("✍️  DRAFT ANSWER STEP: Generated answer: {}", rawResponse);
+                log.trace("✍️  DRAFT ANSWER STEP: Generated answer: {}", rawResponse);
             })
             .doOnError(error -> {
                 log.error("✍️  DRAFT ANSWER STEP: Answer generation failed: {}", error.getMessage());
             })
             .map(ctx::withDraft)
             .doOnSuccess(resultCtx -> {
-                log.info("✍️  DRAFT ANSWER STEP: Answer generation completed successfully");
-                log.info("✍️  DRAFT ANSWER STEP: Final answer length: {} characters", 
+                log.debug("✍️  DRAFT ANSWER STEP: Answer generation completed successfully");
+                log.debug("✍️  DRAFT ANSWER STEP: Final answer length: {} characters",
                     resultCtx.draftAnswer() != null ? resultCtx.draftAnswer().length() : 0);
+            });
+    }
+
+    @Override
+    public Flux<String> stream(Ctx ctx) {
+        Prompt prompt = buildPrompt(ctx);
+
+        log.debug("✍️  DRAFT ANSWER STEP: Streaming generation prompt to LLM");
+
+        return llm.stream(prompt)
+            .map(LlmClient::textOf)
+            .filter(chunk -> !chunk.isEmpty())
+            .doOnComplete(() -> log.debug("✍️  DRAFT ANSWER STEP: Answer streaming completed"))
+            .doOnError(error -> {
+                log.error("✍️  DRAFT ANSWER STEP: Answer streaming failed: {}", error.getMessage());
             })
+            // no chunk for this long means the generation is stuck
             .timeout(Duration.ofSeconds(12));
     }
+
+    @Override
+    public Ctx complete(Ctx ctx, String text) {
+        return ctx.withDraft(text);
+    }
+
+    /**
+     * The prompt with its options copied and only the model replaced, so the hedge keeps the
+     * temperature, token limit and provider-specific settings of the primary call.
+     */
+    static Prompt withModel(Prompt prompt, String model) {
+        ChatOptions original = prompt.getOptions();
+        if (original == null) {
+            return new Prompt(prompt.getInstructions(), ChatOptions.builder().model(model).build());
+        }
+        ChatOptions options = original.copy();
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(options);
+        if (wrapper.isWritableProperty("model")) {
+            wrapper.setPropertyValue("model", model);
+        } else {
+            options = ChatOptions.builder()
+                    .model(model)
+                    .temperature(original.getTemperature())
+                    .maxTokens(original.getMaxTokens())
+                    .topP(original.getTopP())
+                    .topK(original.getTopK())
+                    .frequencyPenalty(original.getFrequencyPenalty())
+                    .presencePenalty(original.getPresencePenalty())
+                    .stopSequences(original.getStopSequences())
+                    .build();
+        }
+        return new Prompt(prompt.getInstructions(), options);
+    }
+
+    /**
+     * Renders the grounding prompt and records its template and size in {@code meta}
+     * (package-private for the JMH benchmarks).
+     */
+    Prompt buildPrompt(Ctx ctx) {
+        log.debug("✍️  DRAFT ANSWER STEP: Starting answer generation");
+        log.debug("✍️  DRAFT ANSWER STEP: User text: '{}'", ctx.userText());
+        log.debug("✍️  DRAFT ANSWER STEP: Intent: '{}'", ctx.intent());
+        log.debug("✍️  DRAFT ANSWER STEP: Available passages: {}", ctx.passages().size());
+
+        // Number the passages: [#n] in the answer must point at the n-th passage (checked by ValidateStep).
+        var passages = ctx.passages();
+        var context = new StringBuilder();
+        for (int i = 0; i < passages.size(); i++) {
+            if (i > 0) {
+                context.append('\n');
+            }
+            context.append("[#").append(i + 1).append("] ").append(passages.get(i).replace("\n", " ").trim());
+        }
+
+        log.debug("✍️  DRAFT ANSWER STEP: Prepared context with {} passages", ctx.passages().size());
+        log.debug("✍️  DRAFT ANSWER STEP: Context length: {} characters", context.length());
+
+        PromptTemplate template = prompts.get(PROMPT);
+        PromptTemplate.Rendered rendered = template.render(Map.of(
+                "context", context,
+                "intent", String.valueOf(ctx.intent()),
+                "question", ctx.userText()));
+        ctx.meta().put(ChainMetrics.PROMPT_TEMPLATE, template.id());
+        ctx.meta().put(ChainMetrics.PROMPT_TOKENS, rendered.tokens());
+        return rendered.prompt();
+    }
 }
@@ -1,51 +1,74 @@
 package com.hrpd.onboarding.chain.steps;
 
 import com.hrpd.onboarding.chain.Ctx;
+import com.hrpd.onboarding.chain.CtxField;
 import com.hrpd.onboarding.chain.Step;
-import com.hrpd.onboarding.persistence.TicketRepository.TicketRepository;
+import com.hrpd.onboarding.chain.orchestrator.OnboardingChainOrchestratorService;
+import com.hrpd.onboarding.persistence.TicketRepository.DraftRecord;
+import com.hrpd.onboarding.persistence.TicketRepository.DraftWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
 
-import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
  * Step 5: Persist the exchange for auditing/analytics.
- * Uses reactive DatabaseClient under the hood (R2DBC).
+ * Uses reactive DatabaseClient under the hood (R2DBC), either directly or through
+ * a write-behind queue, in which case the request no longer waits for the INSERT.
  */
 @RequiredArgsConstructor
 @Slf4j
 public class PersistStep implements Step {
 
-    private final TicketRepository repo;
+    private final DraftWriter writer;
+
+    @Override
+    public Set<CtxField> reads() {
+        return EnumSet.allOf(CtxField.class);
+    }
+
+    @Override
+    public Set<CtxField> writes() {
+        return EnumSet.noneOf(CtxField.class);
+    }
 
     @Override
     public Mono<Ctx> apply(Ctx ctx) {
-        log.info("💾 PERSIST STEP: Starting data persistence");
-        log.info("💾 PERSIST STEP: User text: '{}'", ctx.userText());
-        log.info("💾 PERSIST STEP: Intent: '{}'", ctx.intent());
-        log.info("💾 PERSIST STEP: Passages to persist: {}", ctx.passages().size());
-        log.info("💾 PERSIST STEP: Answer to persist: {} characters", 
+        log.debug("💾 PERSIST STEP: Starting data persistence");
+        log.debug("💾 PERSIST STEP: User text: '{}'", ctx.userText());
+        log.debug("💾 PERSIST STEP: Intent: '{}'", ctx.intent());
+        log.debug("💾 PERSIST STEP: Passages to persist: {}", ctx.passages().size());
+        log.debug("💾 PERSIST STEP: Answer to persist: {} characters", 
             ctx.draftAnswer() != null ? ctx.draftAnswer().length() : 0);
         
-        log.info("💾 PERSIST STEP: Calling repository to save draft...");
+        log.debug("💾 PERSIST STEP: Handing draft over to {}...", writer.getClass().getSimpleName());
         
-        return repo
-                .saveDraft(ctx.userText(), ctx.intent(), ctx.draftAnswer(), ctx.passages())
+        return writer
+                .write(new DraftRecord(ctx.userText(), ctx.intent(), (String) ctx.meta().get(IntentStep.INTENT_SOURCE),
+                        ctx.draftAnswer(), ctx.sources(), (String) ctx.meta().get(OnboardingChainOrchestratorService.RUN_KEY),
+                        startedAt(ctx)))
                 .doOnSuccess(result -> {
-                    log.info("💾 PERSIST STEP: Repository save operation completed successfully");
+                    log.debug("💾 PERSIST STEP: Repository save operation completed successfully");
                 })
                 .doOnError(error -> {
                     log.error("💾 PERSIST STEP: Repository save operation failed: {}", error.getMessage());
                 })
                 .thenReturn(ctx)
                 .doOnSuccess(resultCtx -> {
-                    log.info("💾 PERSIST STEP: Data persistence completed successfully");
-                    log.info("💾 PERSIST STEP: Context returned unchanged for final result");
+                    log.debug("💾 PERSIST STEP: Data persistence completed successfully");
+                    log.debug("💾 PERSIST STEP: Context returned unchanged for final result");
                 })
                 .doOnError(error -> {
                     log.error("💾 PERSIST STEP: Persistence step failed: {}", error.getMessage());
-                })
-                .timeout(Duration.ofSeconds(5));
+                });
+    }
+
+    /** Start of a checkpointed run: a resumed run persists its draft under the same key and time. */
+    private static OffsetDateTime startedAt(Ctx ctx) {
+        Object startedAt = ctx.meta().get(OnboardingChainOrchestratorService.RUN_STARTED_AT);
+        return startedAt != null ? OffsetDateTime.parse(startedAt.toString()) : null;
     }
 }
@@ -1,76 +1,107 @@
 package com.hrpd.onboarding.chain.steps;
 
 import com.hrpd.onboarding.chain.Ctx;
+import com.hrpd.onboarding.chain.CtxField;
+import com.hrpd.onboarding.chain.PassageRef;
 import com.hrpd.onboarding.chain.Step;
+import com.hrpd.onboarding.chain.context.Passage;
+import com.hrpd.onboarding.rag.ingest.ContentHash;
+import com.hrpd.onboarding.rag.ingest.PgVectorChunkStore;
+import com.hrpd.onboarding.rag.retrieval.HybridRetriever;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.document.Document;
-import org.springframework.ai.vectorstore.SearchRequest;
-import org.springframework.ai.vectorstore.VectorStore;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
-import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Step 2: Retrieve relevant passages for grounding.
+ * Searches on the raw user text only, so it can run while IntentStep is still classifying,
+ * unless retrieval depends on the intent (domain partitioning or per-intent settings).
  */
 @RequiredArgsConstructor
 @Slf4j
 public class RetrieveStep implements Step {
 
-    private final VectorStore vectorStore;
+    private static final List<String> TITLE_KEYS = List.of("title", "source");
+    private static final int MAX_TITLE_LENGTH = 60;
+
+    private final HybridRetriever retriever;
+
+    @Override
+    public Set<CtxField> reads() {
+        return retriever.usesIntent()
+                ? EnumSet.of(CtxField.USER_TEXT, CtxField.INTENT)
+                : EnumSet.of(CtxField.USER_TEXT);
+    }
+
+    @Override
+    public Set<CtxField> writes() {
+        return EnumSet.of(CtxField.PASSAGES);
+    }
 
     @Override
     public Mono<Ctx> apply(Ctx ctx) {
-        log.info("🔍 RETRIEVE STEP: Starting vector search");
-        log.info("🔍 RETRIEVE STEP: User text: '{}'", ctx.userText());
-        log.info("🔍 RETRIEVE STEP: Intent: '{}'", ctx.intent());
-        
-        var query = (ctx.intent() != null ? ctx.intent() + " :: " : "") + ctx.userText();
-        log.info("🔍 RETRIEVE STEP: Search query: '{}'", query);
+        log.debug("🔍 RETRIEVE STEP: Starting retrieval");
+        log.debug("🔍 RETRIEVE STEP: User text: '{}'", ctx.userText());
 
-        return Mono
-                .fromCallable(() -> {
-                    log.info("🔍 RETRIEVE STEP: Building search request...");
-                    var request = SearchRequest
-                                    .builder()
-                                    .query(query)
-                                    .topK(6)
-                                    .similarityThreshold(0.0) // accept all; tighten if you want filtering by score
-                                    // .filterExpression("locale == 'en' && domain == 'onboarding'") // optional
-                                    .build();
-                    
-                    log.info("🔍 RETRIEVE STEP: Executing vector search with topK=6...");
-                    var docs = vectorStore.similaritySearch(request);
-                    log.info("🔍 RETRIEVE STEP: Found {} documents in vector store", docs.size());
-                    
+        return retriever
+                .retrieve(ctx.userText(), retriever.usesIntent() ? ctx.intent() : null)
+                .map(docs -> {
                     var passages = docs
                             .stream()
-                            .map(Document::getFormattedContent)
+                            .map(RetrieveStep::passageOf)
                             .toList();
-                    
-                    log.info("🔍 RETRIEVE STEP: Extracted {} passages", passages.size());
-                    for (int i = 0; i < passages.size(); i++) {
-                        String passage = passages.get(i);
-                        log.debug("🔍 RETRIEVE STEP: Passage {}: {}...", i + 1, 
-                            passage.length() > 100 ? passage.substring(0, 100) + "..." : passage);
+                    var sources = docs
+                            .stream()
+                            .map(doc -> new PassageRef(doc.getId(), doc.getScore(), contentHash(doc)))
+                            .toList();
+
+                    if (log.isTraceEnabled()) {
+                        for (int i = 0; i < passages.size(); i++) {
+                            String passage = passages.get(i);
+                            log.trace("🔍 RETRIEVE STEP: Passage {}: {}...", i + 1,
+                                passage.length() > 100 ? passage.substring(0, 100) + "..." : passage);
+                        }
                     }
-                    
-                    return passages;
+
+                    return ctx.withPassages(passages, sources);
                 })
-                .publishOn(Schedulers.boundedElastic())
-                .doOnSuccess(passages -> {
-                    log.info("🔍 RETRIEVE STEP: Vector search completed successfully");
-                    log.info("🔍 RETRIEVE STEP: Retrieved {} relevant passages", passages.size());
+                .doOnSuccess(retrieved -> {
+                    log.debug("🔍 RETRIEVE STEP: Retrieved {} relevant passages", retrieved.passages().size());
                 })
                 .doOnError(error -> {
-                    log.error("🔍 RETRIEVE STEP: Vector search failed: {}", error.getMessage());
-                })
-                .map(ctx::withPassages)
-                .doOnSuccess(resultCtx -> {
-                    log.info("🔍 RETRIEVE STEP: Context updated with {} passages", resultCtx.passages().size());
-                })
-                .timeout(Duration.ofSeconds(10));
+                    log.error("🔍 RETRIEVE STEP: Retrieval failed: {}", error.getMessage());
+                });
+    }
+
+    /** The chunk's content hash from ingestion, else the hash of its text (chunks added through VectorStore.add). */
+    private static String contentHash(Document doc) {
+        Object hash = doc.getMetadata().get(PgVectorChunkStore.CONTENT_HASH);
+        return hash != null ? hash.toString() : ContentHash.of(doc.getText());
+    }
+
+    /**
+     * Chunk text with a short title of its document. The doc id stays out of the prompt: for JSON
+     * documents it is often a 64-hex content hash (about 40 tokens), and [#n] plus
+     * {@code ctx.sources()} already identify the chunk.
+     */
+    private static String passageOf(Document doc) {
+        return Passage.of(titleOf(doc), doc.getText());
+    }
+
+    /** The document's "title", else the uploaded file name ("source"), cut to a few words; null when neither is set. */
+    private static String titleOf(Document doc) {
+        for (String key : TITLE_KEYS) {
+            Object value = doc.getMetadata().get(key);
+            if (value != null && !value.toString().isBlank()) {
+                String title = value.toString().strip();
+                return title.length() > MAX_TITLE_LENGTH ? title.substring(0, MAX_TITLE_LENGTH) + "…" : title;
+            }
+        }
+        return null;
     }
 }
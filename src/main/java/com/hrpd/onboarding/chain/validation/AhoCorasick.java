@@ -0,0 +1,111 @@
+package com.hrpd.onboarding.chain.validation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aho–Corasick automaton over a fixed keyword set, compiled into a complete DFA.
+ * Matching is case-insensitive: keywords are lowercased at build time and callers
+ * feed characters one by one through {@link #next(int, char)}, so scanning a text
+ * allocates nothing. Each keyword carries a bit mask (the groups it belongs to);
+ * {@link #matches(int)} returns the union of masks of all keywords ending at a state.
+ */
+final class AhoCorasick {
+
+    static final int ROOT = 0;
+
+    /** Sorted distinct characters used by the keywords; any other character leads back to the root. */
+    private final char[] alphabet;
+    private final int[][] transitions;
+    private final long[] output;
+
+    AhoCorasick(Map<String, Long> keywordMasks) {
+        StringBuilder chars = new StringBuilder();
+        keywordMasks.keySet().forEach(k -> k.toLowerCase().chars().distinct().forEach(c -> chars.append((char) c)));
+        char[] all = chars.toString().toCharArray();
+        Arrays.sort(all);
+        this.alphabet = dedupe(all);
+
+        // 1. trie
+        List<int[]> trie = new ArrayList<>();
+        List<Long> masks = new ArrayList<>();
+        trie.add(newRow());
+        masks.add(0L);
+        keywordMasks.forEach((keyword, mask) -> {
+            int state = ROOT;
+            for (char c : keyword.toLowerCase().toCharArray()) {
+                int symbol = symbol(c);
+                if (trie.get(state)[symbol] < 0) {
+                    trie.get(state)[symbol] = trie.size();
+                    trie.add(newRow());
+                    masks.add(0L);
+                }
+                state = trie.get(state)[symbol];
+            }
+            masks.set(state, masks.get(state) | mask);
+        });
+
+        // 2. failure links resolved breadth-first into a complete transition table
+        int[][] delta = trie.toArray(new int[0][]);
+        long[] out = masks.stream().mapToLong(Long::longValue).toArray();
+        int[] fail = new int[delta.length];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int s = 0; s < alphabet.length; s++) {
+            if (delta[ROOT][s] < 0) {
+                delta[ROOT][s] = ROOT;
+            } else {
+                fail[delta[ROOT][s]] = ROOT;
+                queue.add(delta[ROOT][s]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            out[state] |= out[fail[state]];
+            for (int s = 0; s < alphabet.length; s++) {
+                int child = delta[state][s];
+                if (child < 0) {
+                    delta[state][s] = delta[fail[state]][s];
+                } else {
+                    fail[child] = delta[fail[state]][s];
+                    queue.add(child);
+                }
+            }
+        }
+        this.transitions = delta;
+        this.output = out;
+    }
+
+    /** Advances the automaton by one (already lowercased) character. */
+    int next(int state, char c) {
+        int symbol = Arrays.binarySearch(alphabet, c);
+        return symbol < 0 ? ROOT : transitions[state][symbol];
+    }
+
+    /** Group mask of the keywords ending at {@code state}; 0 when none. */
+    long matches(int state) {
+        return output[state];
+    }
+
+    private int symbol(char c) {
+        return Arrays.binarySearch(alphabet, c);
+    }
+
+    private int[] newRow() {
+        int[] row = new int[alphabet.length];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static char[] dedupe(char[] sorted) {
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[n++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, n);
+    }
+}
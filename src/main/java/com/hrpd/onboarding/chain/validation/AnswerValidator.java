@@ -0,0 +1,173 @@
+package com.hrpd.onboarding.chain.validation;
+
+import com.hrpd.onboarding.config.ValidationProperties;
+import com.hrpd.onboarding.config.ValidationProperties.KeywordGroup;
+import com.hrpd.onboarding.config.ValidationProperties.Scope;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rule engine behind ValidateStep.
+ *
+ * All rules are compiled once from {@link ValidationProperties}: keyword groups and the
+ * references heading become a single Aho–Corasick automaton. {@link #validate(String, int)}
+ * then walks the answer exactly once, recognising bullet lines, {@code [#n]} markers and
+ * keywords in the same loop, without lowercasing or splitting the text.
+ */
+public class AnswerValidator {
+
+    /** Bit reserved for the references heading; keyword groups use the following bits. */
+    private static final long REFERENCES = 1L;
+
+    // line states
+    private static final int LINE_START = 0;
+    private static final int DASH = 1;
+    private static final int DASH_SPACE = 2;
+    private static final int BULLET = 3;
+    private static final int TEXT = 4;
+
+    // reference marker states: [ -> [# -> [#digits -> ]
+    private static final int NO_MARKER = 0;
+    private static final int OPEN = 1;
+    private static final int HASH = 2;
+    private static final int DIGITS = 3;
+
+    private final int maxBullets;
+    private final AhoCorasick automaton;
+    private final String[] groupNames;
+    private final long[] groupBits;
+    private final boolean[] groupInBullets;
+    private final boolean[] groupRequired;
+
+    public AnswerValidator(ValidationProperties props) {
+        if (props.keywordGroups().size() > 63) {
+            throw new IllegalArgumentException("At most 63 keyword groups are supported");
+        }
+        this.maxBullets = props.maxBullets();
+
+        int n = props.keywordGroups().size();
+        this.groupNames = new String[n];
+        this.groupBits = new long[n];
+        this.groupInBullets = new boolean[n];
+        this.groupRequired = new boolean[n];
+
+        Map<String, Long> keywordMasks = new LinkedHashMap<>();
+        keywordMasks.merge(props.referencesHeading().toLowerCase(), REFERENCES, (a, b) -> a | b);
+        int i = 0;
+        for (Map.Entry<String, KeywordGroup> entry : props.keywordGroups().entrySet()) {
+            KeywordGroup group = entry.getValue();
+            groupNames[i] = entry.getKey();
+            groupBits[i] = 1L << (i + 1);
+            groupInBullets[i] = group.scope() == Scope.BULLETS;
+            groupRequired[i] = group.required();
+            for (String keyword : group.keywords()) {
+                keywordMasks.merge(keyword.toLowerCase(), groupBits[i], (a, b) -> a | b);
+            }
+            i++;
+        }
+        this.automaton = new AhoCorasick(keywordMasks);
+    }
+
+    /**
+     * Validates an answer in a single pass.
+     * A bullet is one line of optional blanks, {@code '-'}, blanks and content; the blanks never run
+     * into the next line. A {@code [#n]} marker is invalid when {@code n} is not in {@code 1..passageCount}.
+     *
+     * @param answer       draft answer (not null)
+     * @param passageCount number of retrieved passages the {@code [#n]} markers may point to
+     * @return the validation report
+     */
+    public ValidationReport validate(String answer, int passageCount) {
+        int state = AhoCorasick.ROOT;
+        long answerMatches = 0;
+        long bulletMatches = 0;
+
+        int line = LINE_START;
+        int bullets = 0;
+
+        int marker = NO_MARKER;
+        int markerNumber = 0;
+        int markers = 0;
+        int invalidMarkers = 0;
+
+        for (int i = 0, len = answer.length(); i < len; i++) {
+            char c = answer.charAt(i);
+
+            // bullet lines: optional indentation, '-', whitespace, content
+            if (c == '\n') {
+                line = LINE_START;
+            } else {
+                // same set as the regex \s, minus the line break handled above
+                boolean blank = c == ' ' || c == '\t' || c == '\r' || c == '\f' || c == '\u000B';
+                switch (line) {
+                    case LINE_START -> line = blank ? LINE_START : (c == '-' ? DASH : TEXT);
+                    case DASH -> line = blank ? DASH_SPACE : TEXT;
+                    case DASH_SPACE -> {
+                        if (!blank) {
+                            line = BULLET;
+                            bullets++;
+                        }
+                    }
+                    default -> { }
+                }
+            }
+
+            // keywords
+            state = automaton.next(state, Character.toLowerCase(c));
+            long matched = automaton.matches(state);
+            if (matched != 0) {
+                answerMatches |= matched;
+                if (line == BULLET) {
+                    bulletMatches |= matched;
+                }
+            }
+
+            // [#n] markers
+            if (c == '[') {
+                marker = OPEN;
+            } else if (marker == OPEN) {
+                marker = c == '#' ? HASH : NO_MARKER;
+            } else if ((marker == HASH || marker == DIGITS) && c >= '0' && c <= '9') {
+                markerNumber = marker == HASH ? c - '0' : Math.min(markerNumber * 10 + (c - '0'), 1_000_000);
+                marker = DIGITS;
+            } else if (marker == DIGITS && c == ']') {
+                markers++;
+                if (markerNumber < 1 || markerNumber > passageCount) {
+                    invalidMarkers++;
+                }
+                marker = NO_MARKER;
+            } else {
+                marker = NO_MARKER;
+            }
+        }
+
+        List<String> failures = new ArrayList<>(4);
+        if (bullets == 0 || bullets > maxBullets) {
+            failures.add("Expected 1 to " + maxBullets + " bullet points, found " + bullets);
+        }
+        boolean referencesSection = (answerMatches & REFERENCES) != 0;
+        if (!referencesSection) {
+            failures.add("References section missing");
+        }
+        if (markers == 0) {
+            failures.add("No [#n] reference markers");
+        } else if (invalidMarkers > 0) {
+            failures.add(invalidMarkers + " reference marker(s) outside the " + passageCount + " retrieved passages");
+        }
+
+        Map<String, Boolean> groups = new LinkedHashMap<>();
+        for (int g = 0; g < groupNames.length; g++) {
+            boolean found = ((groupInBullets[g] ? bulletMatches : answerMatches) & groupBits[g]) != 0;
+            groups.put(groupNames[g], found);
+            if (!found && groupRequired[g]) {
+                failures.add("Keyword group '" + groupNames[g] + "' not found");
+            }
+        }
+
+        return new ValidationReport(failures.isEmpty(), bullets, referencesSection, markers, invalidMarkers,
+                groups, failures);
+    }
+}
@@ -0,0 +1,25 @@
+package com.hrpd.onboarding.chain.validation;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of validating a draft answer, stored in {@code Ctx.meta["validation"]}.
+ *
+ * @param valid                   true when no rule failed
+ * @param bulletCount             number of bullet points found
+ * @param referencesSection       whether the references heading is present
+ * @param referenceMarkers        number of {@code [#n]} markers found
+ * @param invalidReferenceMarkers markers pointing outside the retrieved passages
+ * @param keywordGroups           per configured keyword group, whether it matched
+ * @param failures                human-readable description of each failed rule
+ */
+public record ValidationReport(
+        boolean valid,
+        int bulletCount,
+        boolean referencesSection,
+        int referenceMarkers,
+        int invalidReferenceMarkers,
+        Map<String, Boolean> keywordGroups,
+        List<String> failures) {
+}
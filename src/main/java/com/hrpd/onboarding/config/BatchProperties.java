@@ -0,0 +1,17 @@
+package com.hrpd.onboarding.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Limits of the batch endpoint (POST /onboarding/ask/batch).
+ *
+ * @param maxQuestions questions accepted per request
+ * @param concurrency  chains of one batch running at the same time; also bounds how many intent
+ *                     classifications can be coalesced into one LLM call
+ */
+@ConfigurationProperties(prefix = "onboarding.batch")
+public record BatchProperties(
+        @DefaultValue("100") int maxQuestions,
+        @DefaultValue("16") int concurrency) {
+}
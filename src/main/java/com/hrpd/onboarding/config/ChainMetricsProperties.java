@@ -0,0 +1,33 @@
+package com.hrpd.onboarding.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Settings for chain instrumentation.
+ *
+ * @param promptUsdPerMillionTokens     price of prompt (input) tokens of a model without its own price,
+ *                                      used to estimate the cost of LLM calls
+ * @param completionUsdPerMillionTokens price of completion (output) tokens of such a model
+ * @param prices                        model name to its prices; a response's model (e.g. "gpt-4o-mini-2024-07-18")
+ *                                      takes the price of the longest name it starts with
+ */
+@ConfigurationProperties(prefix = "onboarding.metrics")
+public record ChainMetricsProperties(
+        @DefaultValue("0.15") double promptUsdPerMillionTokens,
+        @DefaultValue("0.60") double completionUsdPerMillionTokens,
+        Map<String, Price> prices) {
+
+    public ChainMetricsProperties {
+        prices = prices == null ? Map.of() : prices;
+    }
+
+    /**
+     * @param promptUsdPerMillionTokens     price of prompt (input) tokens
+     * @param completionUsdPerMillionTokens price of completion (output) tokens
+     */
+    public record Price(double promptUsdPerMillionTokens, double completionUsdPerMillionTokens) {
+    }
+}
@@ -1,64 +1,230 @@
 package com.hrpd.onboarding.config;
 
+import com.hrpd.onboarding.chain.Step;
+import com.hrpd.onboarding.chain.cache.SemanticAnswerCache;
+import com.hrpd.onboarding.chain.checkpoint.ChainCheckpointStore;
+import com.hrpd.onboarding.chain.checkpoint.CheckpointRecovery;
+import com.hrpd.onboarding.chain.context.ContextAssembler;
+import com.hrpd.onboarding.chain.intent.BatchingIntentClassifier;
+import com.hrpd.onboarding.chain.intent.CentroidIntentClassifier;
+import com.hrpd.onboarding.chain.intent.IntentClassifier;
+import com.hrpd.onboarding.chain.intent.LlmIntentClassifier;
+import com.hrpd.onboarding.chain.llm.LlmClient;
+import com.hrpd.onboarding.chain.llm.ModelRouter;
+import com.hrpd.onboarding.chain.metrics.ChainMetrics;
 import com.hrpd.onboarding.chain.orchestrator.ChainWorkflowOrchestratorService;
 import com.hrpd.onboarding.chain.orchestrator.OnboardingChainOrchestratorService;
+import com.hrpd.onboarding.chain.orchestrator.SemanticCachingOrchestratorService;
+import com.hrpd.onboarding.chain.prompt.PromptTemplates;
+import com.hrpd.onboarding.chain.resilience.Hedger;
+import com.hrpd.onboarding.chain.resilience.StepPolicies;
 import com.hrpd.onboarding.chain.steps.*;
+import com.hrpd.onboarding.chain.validation.AnswerValidator;
+import com.hrpd.onboarding.persistence.TicketRepository.DraftPartitions;
+import com.hrpd.onboarding.persistence.TicketRepository.DraftWriter;
 import com.hrpd.onboarding.persistence.TicketRepository.TicketRepository;
-import org.springframework.ai.chat.model.ChatModel;
-import org.springframework.ai.vectorstore.VectorStore;
+import com.hrpd.onboarding.persistence.TicketRepository.WriteBehindDraftWriter;
+import com.hrpd.onboarding.rag.ingest.EmbeddingCache;
+import com.hrpd.onboarding.rag.retrieval.HybridRetriever;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.vectorstore.pgvector.autoconfigure.PgVectorStoreProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.r2dbc.core.DatabaseClient;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Configuration
+@EnableConfigurationProperties({SemanticCacheProperties.class, WriteBehindProperties.class, ValidationProperties.class,
+        IntentClassifierProperties.class, ResilienceProperties.class, ChainMetricsProperties.class,
+        ContextAssemblyProperties.class, BatchProperties.class, CheckpointProperties.class, PromptProperties.class,
+        DraftPartitionProperties.class})
 public class ChainWorkflowConfig {
 
+    /** The LLM client of a step: on its model tier when routing is on and the step has one. */
+    private static LlmClient llmClientFor(String step, LlmClient llmClient, ObjectProvider<ModelRouter> modelRouter,
+                                          ModelRoutingProperties routing) {
+        ModelRouter router = modelRouter.getIfAvailable();
+        String tier = routing.steps().get(step);
+        return router == null || tier == null ? llmClient : llmClient.using(router.tier(tier));
+    }
+
     @Bean
-    public IntentStep intentStep(ChatModel chatModel) {
-        return new IntentStep(chatModel);
+    public PromptTemplates promptTemplates(PromptProperties props, MeterRegistry meterRegistry) {
+        var templates = new PromptTemplates(props, Map.of("labels", String.join(", ", IntentClassifier.LABELS)), meterRegistry);
+        // compile the templates at startup: a broken one fails the boot, not the first request
+        List.of(LlmIntentClassifier.PROMPT, BatchingIntentClassifier.PROMPT, DraftAnswerStep.PROMPT)
+                .forEach(templates::get);
+        return templates;
     }
 
     @Bean
-    public RetrieveStep retrieveStep(VectorStore vectorStore) {
-        return new RetrieveStep(vectorStore);
+    public IntentClassifier llmIntentClassifier(LlmClient llmClient,
+                                                ObjectProvider<ModelRouter> modelRouter,
+                                                ModelRoutingProperties routing,
+                                                PromptTemplates promptTemplates,
+                                                IntentClassifierProperties props,
+                                                MeterRegistry meterRegistry) {
+        LlmClient llm = llmClientFor("intent", llmClient, modelRouter, routing);
+        IntentClassifier single = new LlmIntentClassifier(llm, promptTemplates);
+        return props.batching().enabled()
+                ? new BatchingIntentClassifier(llm, promptTemplates, single, props.batching(), meterRegistry)
+                : single;
     }
 
     @Bean
-    public DraftAnswerStep draftAnswerStep(ChatModel chatModel) {
-        return new DraftAnswerStep(chatModel);
+    @ConditionalOnProperty(prefix = "onboarding.intent.local", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public CentroidIntentClassifier centroidIntentClassifier(@Qualifier("llmIntentClassifier") IntentClassifier llmIntentClassifier,
+                                                             EmbeddingModel embeddingModel,
+                                                             TicketRepository ticketRepository,
+                                                             ObjectProvider<EmbeddingCache> embeddingCache,
+                                                             IntentClassifierProperties props,
+                                                             MeterRegistry meterRegistry) {
+        return new CentroidIntentClassifier(llmIntentClassifier, embeddingModel, ticketRepository,
+                embeddingCache.getIfAvailable(), props.local(), meterRegistry);
     }
 
     @Bean
-    public ValidateStep validateStep() {
-        return new ValidateStep();
+    public IntentStep intentStep(@Qualifier("llmIntentClassifier") IntentClassifier llmIntentClassifier,
+                                 ObjectProvider<CentroidIntentClassifier> centroidIntentClassifier) {
+        IntentClassifier local = centroidIntentClassifier.getIfAvailable();
+        return new IntentStep(local != null ? local : llmIntentClassifier);
     }
 
     @Bean
-    public PersistStep persistStep(TicketRepository ticketRepository) {
-        return new PersistStep(ticketRepository);
+    public RetrieveStep retrieveStep(HybridRetriever hybridRetriever) {
+        return new RetrieveStep(hybridRetriever);
     }
 
     @Bean
-    public TicketRepository ticketRepository(DatabaseClient databaseClient, ObjectMapper objectMapper) {
-        return new TicketRepository(databaseClient, objectMapper);
+    @ConditionalOnProperty(prefix = "onboarding.context", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public ContextAssemblyStep contextAssemblyStep(ContextAssemblyProperties props) {
+        return new ContextAssemblyStep(new ContextAssembler(props, new JTokkitTokenCountEstimator()));
     }
 
     @Bean
-    public ChainWorkflowOrchestratorService chainOrchestratorService(
+    public DraftAnswerStep draftAnswerStep(LlmClient llmClient,
+                                           ObjectProvider<ModelRouter> modelRouter,
+                                           ModelRoutingProperties routing,
+                                           PromptTemplates promptTemplates,
+                                           HedgingProperties hedging,
+                                           MeterRegistry meterRegistry) {
+        LlmClient llm = llmClientFor("draft-answer", llmClient, modelRouter, routing);
+        if (!hedging.enabled()) {
+            return new DraftAnswerStep(llm, promptTemplates);
+        }
+        String hedgeModel = hedging.model().isBlank() ? null : hedging.model();
+        return new DraftAnswerStep(llm, promptTemplates, new Hedger("draft-answer", hedging, meterRegistry), hedgeModel);
+    }
+
+    @Bean
+    public ValidateStep validateStep(ValidationProperties validationProperties) {
+        return new ValidateStep(new AnswerValidator(validationProperties));
+    }
+
+    @Bean
+    public PersistStep persistStep(TicketRepository ticketRepository,
+                                   ObjectProvider<WriteBehindDraftWriter> writeBehindDraftWriter) {
+        DraftWriter writer = writeBehindDraftWriter.getIfAvailable();
+        return new PersistStep(writer != null ? writer : ticketRepository);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "onboarding.persistence.write-behind", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public WriteBehindDraftWriter writeBehindDraftWriter(TicketRepository ticketRepository,
+                                                         ObjectMapper objectMapper,
+                                                         WriteBehindProperties props,
+                                                         MeterRegistry meterRegistry) {
+        return new WriteBehindDraftWriter(ticketRepository, objectMapper, props, meterRegistry);
+    }
+
+    @Bean
+    public TicketRepository ticketRepository(DatabaseClient databaseClient,
+                                             ObjectMapper objectMapper,
+                                             PgVectorStoreProperties pgVectorProps) {
+        return new TicketRepository(databaseClient, objectMapper,
+                pgVectorProps.getSchemaName() + "." + pgVectorProps.getTableName());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "onboarding.persistence.drafts", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public DraftPartitions draftPartitions(DatabaseClient databaseClient, DraftPartitionProperties props) {
+        return new DraftPartitions(databaseClient, props);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "onboarding.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public SemanticAnswerCache semanticAnswerCache(SemanticCacheProperties props, MeterRegistry meterRegistry) {
+        return new SemanticAnswerCache(props, meterRegistry);
+    }
+
+    @Bean
+    public StepPolicies stepPolicies(ResilienceProperties props, MeterRegistry meterRegistry) {
+        return new StepPolicies(props, meterRegistry);
+    }
+
+    @Bean
+    public ChainMetrics chainMetrics(MeterRegistry meterRegistry) {
+        return new ChainMetrics(meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "onboarding.checkpoint", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public ChainCheckpointStore chainCheckpointStore(DatabaseClient databaseClient,
+                                                     ObjectMapper objectMapper,
+                                                     CheckpointProperties props,
+                                                     MeterRegistry meterRegistry) {
+        return new ChainCheckpointStore(databaseClient, objectMapper, props.staleAfter(), meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "onboarding.checkpoint", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public CheckpointRecovery checkpointRecovery(ChainCheckpointStore chainCheckpointStore,
+                                                 OnboardingChainOrchestratorService onboardingChainOrchestratorService,
+                                                 CheckpointProperties props) {
+        return new CheckpointRecovery(chainCheckpointStore, onboardingChainOrchestratorService, props);
+    }
+
+    @Bean
+    public OnboardingChainOrchestratorService onboardingChainOrchestratorService(
                         IntentStep intentStep,
                         RetrieveStep retrieveStep,
+                        ObjectProvider<ContextAssemblyStep> contextAssemblyStep,
                         DraftAnswerStep draftAnswerStep,
                         ValidateStep validateStep,
-                        PersistStep persistStep) {
+                        PersistStep persistStep,
+                        StepPolicies stepPolicies,
+                        ChainMetrics chainMetrics,
+                        ObjectProvider<ChainCheckpointStore> chainCheckpointStore) {
+        List<Step> steps = new ArrayList<>(List.of(intentStep, retrieveStep));
+        contextAssemblyStep.ifAvailable(steps::add);
+        steps.addAll(List.of(draftAnswerStep, validateStep, persistStep));
+
         return new OnboardingChainOrchestratorService(
-                List.of(intentStep,
-                        retrieveStep,
-                        draftAnswerStep,
-                        validateStep,
-                        persistStep)
+                steps,
+                stepPolicies,
+                chainMetrics,
+                chainCheckpointStore.getIfAvailable()
         );
     }
+
+    @Bean
+    @Primary
+    public ChainWorkflowOrchestratorService chainOrchestratorService(
+                        OnboardingChainOrchestratorService chain,
+                        ObjectProvider<SemanticAnswerCache> semanticAnswerCache,
+                        EmbeddingModel embeddingModel) {
+        var cache = semanticAnswerCache.getIfAvailable();
+        return cache == null ? chain : new SemanticCachingOrchestratorService(chain, cache, embeddingModel);
+    }
 }
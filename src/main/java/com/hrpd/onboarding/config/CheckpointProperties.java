@@ -0,0 +1,24 @@
+package com.hrpd.onboarding.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Checkpointing of chain runs that carry an idempotency key.
+ *
+ * @param enabled             store the context after every stage and resume retried runs from it
+ * @param staleAfter          a RUNNING checkpoint not updated for this long belongs to a crashed run
+ * @param ttl                 checkpoints not updated for this long are deleted, whatever their status
+ * @param maintenanceInterval how often crashed runs are replayed and expired checkpoints deleted
+ * @param replayConcurrency   crashed runs replayed at the same time
+ */
+@ConfigurationProperties(prefix = "onboarding.checkpoint")
+public record CheckpointProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("2m") Duration staleAfter,
+        @DefaultValue("24h") Duration ttl,
+        @DefaultValue("5m") Duration maintenanceInterval,
+        @DefaultValue("4") int replayConcurrency) {
+}
@@ -0,0 +1,22 @@
+package com.hrpd.onboarding.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * How ContextAssemblyStep turns the retrieved passages into the context of the draft prompt.
+ *
+ * @param enabled                run the step; otherwise every retrieved passage goes to the prompt in full
+ * @param tokenBudget            maximum tokens of all passages together (counted with the local JTokkit tokenizer)
+ * @param maxSentencesPerPassage sentences kept per passage, the ones sharing most terms with the question
+ * @param mmrLambda              maximal marginal relevance trade-off: 1 keeps the retrieval order, lower values favour diversity
+ * @param duplicateSimilarity    passages at least this similar (term cosine) to an already selected one are dropped
+ */
+@ConfigurationProperties(prefix = "onboarding.context")
+public record ContextAssemblyProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1200") int tokenBudget,
+        @DefaultValue("4") int maxSentencesPerPassage,
+        @DefaultValue("0.7") double mmrLambda,
+        @DefaultValue("0.9") double duplicateSimilarity) {
+}
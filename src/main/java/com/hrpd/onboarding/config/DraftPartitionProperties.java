@@ -0,0 +1,25 @@
+package com.hrpd.onboarding.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Upkeep of the daily partitions of the {@code drafts} table.
+ *
+ * @param enabled             create partitions ahead and expire old ones in the background
+ * @param retention           a day is expired once all of it is older than this
+ * @param partitionsAhead     days after today that always have a partition
+ * @param maintenanceInterval how often partitions are created and expired
+ * @param archiveSchema       schema expired partitions are detached into, to be dumped or moved
+ *                            elsewhere; blank to drop them
+ */
+@ConfigurationProperties(prefix = "onboarding.persistence.drafts")
+public record DraftPartitionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("90d") Duration retention,
+        @DefaultValue("7") int partitionsAhead,
+        @DefaultValue("1h") Duration maintenanceInterval,
+        @DefaultValue("") String archiveSchema) {
+}
@@ -0,0 +1,58 @@
+package com.hrpd.onboarding.config;
+
+import com.hrpd.onboarding.rag.embedding.CachingEmbeddingModel;
+import com.hrpd.onboarding.rag.embedding.QueryEmbeddingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.openai.OpenAiEmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Puts the query-embedding cache in front of the application's embedding model, whichever it is
+ * (OpenAI, or the simulated one of the loadtest profile): the {@link EmbeddingModel} bean is
+ * replaced by a {@link CachingEmbeddingModel} decorating it, so the pgvector VectorStore and the
+ * semantic answer cache both go through it.
+ */
+@Configuration
+@EnableConfigurationProperties(QueryEmbeddingCacheProperties.class)
+@ConditionalOnProperty(prefix = "onboarding.embedding.query-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class EmbeddingConfig {
+
+    private static final String OPENAI_EMBEDDING_MODEL = "spring.ai.openai.embedding.options.model";
+
+    @Bean
+    public QueryEmbeddingCache queryEmbeddingCache(QueryEmbeddingCacheProperties props, MeterRegistry meterRegistry) {
+        return new QueryEmbeddingCache(props, meterRegistry);
+    }
+
+    /** Static, and resolving the cache lazily, so that it does not hold back other post-processors. */
+    @Bean
+    public static BeanPostProcessor cachingEmbeddingModelPostProcessor(ObjectProvider<QueryEmbeddingCache> queryEmbeddingCache,
+                                                                       Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof EmbeddingModel model) || bean instanceof CachingEmbeddingModel) {
+                    return bean;
+                }
+                QueryEmbeddingCache cache = queryEmbeddingCache.getObject();
+                cache.open(modelName(model, environment));
+                return new CachingEmbeddingModel(model, cache);
+            }
+        };
+    }
+
+    /** Identifies the model in the cache snapshot: its class and, for OpenAI, the configured model id. */
+    private static String modelName(EmbeddingModel model, Environment environment) {
+        String configured = environment.getProperty(OPENAI_EMBEDDING_MODEL);
+        return model instanceof OpenAiEmbeddingModel && configured != null
+                ? model.getClass().getName() + ":" + configured
+                : model.getClass().getName();
+    }
+}
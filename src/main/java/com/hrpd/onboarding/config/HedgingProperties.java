@@ -0,0 +1,33 @@
+package com.hrpd.onboarding.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Hedged LLM calls of DraftAnswerStep: when the call has not answered after the given latency
+ * percentile, a second identical call is sent and the first answer wins.
+ *
+ * @param enabled     send hedges; otherwise every draft is a single call
+ * @param percentile  latency percentile of recent calls after which a hedge is sent
+ * @param minDelay    lower bound of the hedge delay
+ * @param maxDelay    upper bound of the hedge delay, also used until {@code minSamples} calls have been seen
+ * @param window      recent call latencies the percentile is computed from
+ * @param minSamples  calls to observe before the delay adapts
+ * @param budgetRatio hedges allowed per call on average (0.1 = at most one extra call per ten)
+ * @param budgetBurst hedges that may be sent at once before the ratio applies
+ * @param model       model (or deployment) the hedge is sent to; blank for the primary model
+ */
+@ConfigurationProperties(prefix = "onboarding.llm.hedging")
+public record HedgingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("0.9") double percentile,
+        @DefaultValue("1s") Duration minDelay,
+        @DefaultValue("6s") Duration maxDelay,
+        @DefaultValue("256") int window,
+        @DefaultValue("20") int minSamples,
+        @DefaultValue("0.1") double budgetRatio,
+        @DefaultValue("5") int budgetBurst,
+        @DefaultValue("") String model) {
+}
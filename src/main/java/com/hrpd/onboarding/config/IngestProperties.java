@@ -0,0 +1,50 @@
+package com.hrpd.onboarding.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for the document ingestion pipeline (/admin/ingest).
+ *
+ * @param chunkTokens          maximum tokens per chunk sent to the embedding model
+ * @param embeddingBatchSize   chunks per embedding request (OpenAI accepts up to 2048 inputs per request)
+ * @param embeddingConcurrency embedding requests (and pgvector batch inserts) in flight per job
+ * @param retainedJobs         finished jobs kept for the job-status endpoint
+ * @param embeddingCache       local embedding cache keyed by chunk content hash
+ * @param embeddingRetry       retries of an embedding request that failed transiently (e.g. a 429)
+ */
+@ConfigurationProperties(prefix = "onboarding.ingest")
+public record IngestProperties(
+        @DefaultValue("512") int chunkTokens,
+        @DefaultValue("128") int embeddingBatchSize,
+        @DefaultValue("4") int embeddingConcurrency,
+        @DefaultValue("50") int retainedJobs,
+        @DefaultValue EmbeddingCacheProperties embeddingCache,
+        @DefaultValue EmbeddingRetryProperties embeddingRetry) {
+
+    /**
+     * @param enabled keep chunk embeddings on local disk so re-ingestion never re-embeds known text
+     * @param dir     directory holding one cache file per embedding model
+     */
+    public record EmbeddingCacheProperties(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("data/embedding-cache") Path dir) {
+    }
+
+    /**
+     * Spring AI's own retries are turned off for the chain, so ingestion retries its embedding
+     * requests itself; a job fails only once a batch has used up its retries.
+     *
+     * @param maxRetries retries per embedding request
+     * @param minBackoff first backoff, doubled (with jitter) on every retry
+     * @param maxBackoff longest backoff
+     */
+    public record EmbeddingRetryProperties(
+            @DefaultValue("4") int maxRetries,
+            @DefaultValue("1s") Duration minBackoff,
+            @DefaultValue("30s") Duration maxBackoff) {
+    }
+}
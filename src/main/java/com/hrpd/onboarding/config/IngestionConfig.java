@@ -0,0 +1,48 @@
+package com.hrpd.onboarding.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hrpd.onboarding.rag.ingest.EmbeddingCache;
+import com.hrpd.onboarding.rag.ingest.IngestionJobs;
+import com.hrpd.onboarding.rag.ingest.PgVectorChunkStore;
+import com.hrpd.onboarding.rag.ingest.TextChunker;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.vectorstore.pgvector.autoconfigure.PgVectorStoreProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Wires the building blocks of the ingestion pipeline used by IngestionService.
+ */
+@Configuration
+@EnableConfigurationProperties(IngestProperties.class)
+public class IngestionConfig {
+
+    @Bean
+    public TextChunker textChunker(IngestProperties props) {
+        return new TextChunker(new JTokkitTokenCountEstimator(), props.chunkTokens());
+    }
+
+    @Bean
+    public PgVectorChunkStore pgVectorChunkStore(JdbcTemplate jdbcTemplate,
+                                                 ObjectMapper objectMapper,
+                                                 PgVectorStoreProperties pgVectorProps) {
+        return new PgVectorChunkStore(jdbcTemplate, objectMapper,
+                pgVectorProps.getSchemaName(), pgVectorProps.getTableName());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "onboarding.ingest.embedding-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public EmbeddingCache embeddingCache(IngestProperties props,
+                                         @Value("${spring.ai.openai.embedding.options.model:default}") String model) {
+        return new EmbeddingCache(props.embeddingCache().dir(), model);
+    }
+
+    @Bean
+    public IngestionJobs ingestionJobs(IngestProperties props) {
+        return new IngestionJobs(props.retainedJobs());
+    }
+}
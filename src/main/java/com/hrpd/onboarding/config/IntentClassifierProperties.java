@@ -0,0 +1,46 @@
+package com.hrpd.onboarding.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for intent classification.
+ *
+ * @param batching micro-batching of concurrent classification requests into one LLM call
+ * @param local    in-process nearest-centroid classifier tried before the LLM
+ */
+@ConfigurationProperties(prefix = "onboarding.intent")
+public record IntentClassifierProperties(@DefaultValue Batching batching, @DefaultValue Local local) {
+
+    /**
+     * @param enabled              group concurrent requests into one LLM call
+     * @param window               maximum time a request waits for others to join its batch
+     * @param maxBatchSize         maximum questions per LLM call
+     * @param maxConcurrentBatches batch calls in flight at the same time
+     */
+    public record Batching(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("20ms") Duration window,
+            @DefaultValue("32") int maxBatchSize,
+            @DefaultValue("8") int maxConcurrentBatches) {
+    }
+
+    /**
+     * @param enabled             classify in-process when confident, falling back to the LLM otherwise
+     * @param minSimilarity       minimum cosine similarity between the question and the best centroid
+     * @param minMargin           minimum similarity gap between the best and second-best centroid
+     * @param minExamplesPerLabel labels with fewer historical examples get no centroid
+     * @param maxExamples         most recent drafts used as training examples
+     * @param refreshInterval     how often centroids are rebuilt from the drafts table
+     */
+    public record Local(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("0.45") double minSimilarity,
+            @DefaultValue("0.05") double minMargin,
+            @DefaultValue("5") int minExamplesPerLabel,
+            @DefaultValue("5000") int maxExamples,
+            @DefaultValue("1h") Duration refreshInterval) {
+    }
+}
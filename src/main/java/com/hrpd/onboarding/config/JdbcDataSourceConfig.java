@@ -17,7 +17,7 @@ public class JdbcDataSourceConfig {
     @Primary
     public DataSource jdbcDataSource() {
         return DataSourceBuilder.create()
-                .url("jdbc:postgresql://localhost:5432/onboarding")
+                .url("jdbc:postgresql://localhost:5432/onboarding?reWriteBatchedInserts=true")
                 .username("onboarding")
                 .password("onboarding")
                 .driverClassName("org.postgresql.Driver")
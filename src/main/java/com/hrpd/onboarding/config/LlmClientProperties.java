@@ -0,0 +1,16 @@
+package com.hrpd.onboarding.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the LLM invocation layer.
+ *
+ * @param maxConcurrency maximum number of LLM calls in flight per node
+ * @param maxQueue       maximum number of calls waiting for a slot; beyond that calls are rejected
+ */
+@ConfigurationProperties(prefix = "onboarding.llm")
+public record LlmClientProperties(
+        @DefaultValue("32") int maxConcurrency,
+        @DefaultValue("256") int maxQueue) {
+}
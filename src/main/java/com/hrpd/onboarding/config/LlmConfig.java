@@ -0,0 +1,50 @@
+package com.hrpd.onboarding.config;
+
+import com.hrpd.onboarding.chain.llm.LlmClient;
+import com.hrpd.onboarding.chain.llm.ModelRouter;
+import com.hrpd.onboarding.chain.metrics.LlmUsage;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Wires the LLM invocation layer shared by every LLM-backed step, and the model tiers
+ * the steps are routed to (each backend is the OpenAI chat model with another model name).
+ */
+@Configuration
+@EnableConfigurationProperties({LlmClientProperties.class, HedgingProperties.class, ModelRoutingProperties.class})
+public class LlmConfig {
+
+    @Bean
+    public LlmUsage llmUsage(ChainMetricsProperties props, MeterRegistry meterRegistry) {
+        return new LlmUsage(props, meterRegistry);
+    }
+
+    @Bean
+    public LlmClient llmClient(ChatModel chatModel, LlmClientProperties props, LlmUsage llmUsage,
+                               MeterRegistry meterRegistry) {
+        return new LlmClient(chatModel, props, llmUsage, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "onboarding.llm.routing", name = "enabled", havingValue = "true")
+    public ModelRouter modelRouter(OpenAiChatModel openAiChatModel,
+                                   ModelRoutingProperties props,
+                                   MeterRegistry meterRegistry) {
+        Map<String, ChatModel> backends = new LinkedHashMap<>();
+        props.backends().forEach((name, model) -> {
+            OpenAiChatOptions options = OpenAiChatOptions.fromOptions((OpenAiChatOptions) openAiChatModel.getDefaultOptions());
+            options.setModel(model);
+            backends.put(name, openAiChatModel.mutate().defaultOptions(options).build());
+        });
+        return new ModelRouter(backends, props.tiers(), props.health(), meterRegistry);
+    }
+}
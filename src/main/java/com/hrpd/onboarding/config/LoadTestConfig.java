@@ -0,0 +1,73 @@
+package com.hrpd.onboarding.config;
+
+import com.hrpd.onboarding.chain.steps.PersistStep;
+import com.hrpd.onboarding.loadtest.InMemoryDraftWriter;
+import com.hrpd.onboarding.loadtest.SchedulerGauges;
+import com.hrpd.onboarding.loadtest.SimulatedBackend;
+import com.hrpd.onboarding.loadtest.SimulatedChatModel;
+import com.hrpd.onboarding.loadtest.SimulatedEmbeddingModel;
+import com.hrpd.onboarding.loadtest.SimulatedVectorStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.function.Function;
+
+/**
+ * The {@code loadtest} profile: OpenAI and pgvector are replaced by simulated models with
+ * configurable latency and error rates ({@code onboarding.loadtest.*}), drafts are kept in
+ * memory, and the event loops and boundedElastic report their saturation. The chain itself,
+ * its policies and its caches run unchanged. See application-loadtest.properties.
+ */
+@Configuration
+@Profile("loadtest")
+@EnableConfigurationProperties(LoadTestProperties.class)
+public class LoadTestConfig {
+
+    @Bean
+    public ChatModel simulatedChatModel(LoadTestProperties props) {
+        return new SimulatedChatModel(new SimulatedBackend("chat model", props.chat()), props.answerWords());
+    }
+
+    @Bean
+    public EmbeddingModel simulatedEmbeddingModel(LoadTestProperties props) {
+        return new SimulatedEmbeddingModel(new SimulatedBackend("embedding model", props.embedding()));
+    }
+
+    /** Primary over the PgVectorStore that the pgvector auto-configuration still creates. */
+    @Bean
+    @Primary
+    public VectorStore simulatedVectorStore(EmbeddingModel embeddingModel, LoadTestProperties props) {
+        return new SimulatedVectorStore(embeddingModel, new SimulatedBackend("vector store", props.vectorStore()),
+                props.corpusSize());
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "onboarding.loadtest", name = "in-memory-drafts", havingValue = "true", matchIfMissing = true)
+    public PersistStep inMemoryPersistStep(MeterRegistry meterRegistry) {
+        return new PersistStep(new InMemoryDraftWriter(1000, meterRegistry));
+    }
+
+    /** Publishes reactor.netty.eventloop.pending.tasks and the server's connection metrics. */
+    @Bean
+    public NettyServerCustomizer eventLoopMetrics() {
+        return server -> server.metrics(true, Function.identity());
+    }
+
+    /** Retrieval, the semantic cache and the embedding calls block on boundedElastic. */
+    @Bean
+    public MeterBinder boundedElasticGauges() {
+        return new SchedulerGauges("boundedElastic", Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,37 @@
+package com.hrpd.onboarding.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Simulated dependencies of the {@code loadtest} profile.
+ *
+ * @param chat           the chat model (one draw per call; a stream spreads its draw over the chunks)
+ * @param embedding      the embedding model
+ * @param vectorStore    the similarity search, on top of the query embedding
+ * @param answerWords    words of a simulated draft
+ * @param corpusSize     passages the simulated vector store picks from
+ * @param inMemoryDrafts keep drafts in memory instead of writing them to Postgres
+ */
+@ConfigurationProperties(prefix = "onboarding.loadtest")
+public record LoadTestProperties(
+        @DefaultValue Backend chat,
+        @DefaultValue Backend embedding,
+        @DefaultValue Backend vectorStore,
+        @DefaultValue("180") int answerWords,
+        @DefaultValue("2000") int corpusSize,
+        @DefaultValue("true") boolean inMemoryDrafts) {
+
+    /**
+     * Latencies are log-normal, fitted to the median and the 99th percentile.
+     *
+     * @param errorRate share of calls failing with a transient error
+     */
+    public record Backend(
+            @DefaultValue("100ms") Duration median,
+            @DefaultValue("500ms") Duration p99,
+            @DefaultValue("0") double errorRate) {
+    }
+}
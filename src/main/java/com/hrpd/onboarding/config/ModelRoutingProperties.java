@@ -0,0 +1,48 @@
+package com.hrpd.onboarding.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Model tiers of the LLM-backed steps (see ModelRouter).
+ *
+ * @param enabled  route the steps listed in {@code steps}; otherwise every step uses the default chat model
+ * @param backends backend name to OpenAI model (or deployment) name
+ * @param tiers    tier name to the backends serving it
+ * @param steps    step name ("intent", "draft-answer") to tier; unlisted steps use the default chat model
+ * @param health   how backends are ranked and ejected
+ */
+@ConfigurationProperties(prefix = "onboarding.llm.routing")
+public record ModelRoutingProperties(
+        @DefaultValue("false") boolean enabled,
+        Map<String, String> backends,
+        Map<String, List<String>> tiers,
+        Map<String, String> steps,
+        @DefaultValue Health health) {
+
+    public ModelRoutingProperties {
+        backends = backends == null ? Map.of() : backends;
+        tiers = tiers == null ? Map.of() : tiers;
+        steps = steps == null ? Map.of() : steps;
+    }
+
+    /**
+     * @param latencySmoothing weight of the newest call in the rolling latency and error rate (0..1]
+     * @param maxErrorRate     rolling error rate above which a backend is ejected
+     * @param failuresToEject  consecutive failures after which a backend is ejected
+     * @param ejectFor         how long an ejected backend gets no traffic (unless every backend is ejected)
+     * @param exploreRatio     share of calls sent to a random healthy backend other than the fastest,
+     *                         so the latency of the others stays known
+     */
+    public record Health(
+            @DefaultValue("0.2") double latencySmoothing,
+            @DefaultValue("0.5") double maxErrorRate,
+            @DefaultValue("3") int failuresToEject,
+            @DefaultValue("30s") Duration ejectFor,
+            @DefaultValue("0.05") double exploreRatio) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.hrpd.onboarding.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Prompt templates, read from {@code prompts/<name>/<version>.prompt}.
+ *
+ * @param versions       template name to version; templates not listed use "v1"
+ * @param location       directory searched before the classpath and watched for changes; empty for the bundled templates only
+ * @param reloadInterval how often templates are re-read from {@code location}
+ */
+@ConfigurationProperties(prefix = "onboarding.prompts")
+public record PromptProperties(
+        @DefaultValue Map<String, String> versions,
+        @DefaultValue("") String location,
+        @DefaultValue("30s") Duration reloadInterval) {
+
+    public String version(String name) {
+        return versions.getOrDefault(name, "v1");
+    }
+}
@@ -0,0 +1,20 @@
+package com.hrpd.onboarding.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+/**
+ * Settings for the in-memory cache of query embeddings.
+ *
+ * @param enabled      serve repeated query embeddings from memory instead of calling the embedding API
+ * @param maxEntries   maximum number of cached queries (least recently used are evicted first)
+ * @param snapshotFile file the cache is written to on shutdown and reloaded from at startup; empty disables it
+ */
+@ConfigurationProperties(prefix = "onboarding.embedding.query-cache")
+public record QueryEmbeddingCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10000") int maxEntries,
+        @DefaultValue("data/query-embeddings.bin") Path snapshotFile) {
+}
@@ -0,0 +1,91 @@
+package com.hrpd.onboarding.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Admission control and retry settings applied by the orchestrator to every step.
+ *
+ * @param retry    retry policy shared by all steps (each step keeps its own retry budget)
+ * @param defaults limits of a step that has no entry in {@code steps}
+ * @param steps    per-step limits keyed by step name ("intent", "retrieve", "context-assembly", "draft-answer", "validate", "persist")
+ */
+@ConfigurationProperties(prefix = "onboarding.resilience")
+public record ResilienceProperties(
+        @DefaultValue Retry retry,
+        @DefaultValue StepLimits defaults,
+        Map<String, StepLimits> steps) {
+
+    public ResilienceProperties {
+        if (steps == null || steps.isEmpty()) {
+            steps = defaultSteps(defaults);
+        }
+    }
+
+    /** Limits of the given step, falling back to {@link #defaults()}. */
+    public StepLimits limitsFor(String step) {
+        return steps.getOrDefault(step, defaults);
+    }
+
+    /**
+     * Only transient failures (timeouts, I/O errors, 5xx/429 from the model provider) are retried.
+     *
+     * @param maxRetries  retries per step execution on top of the first attempt
+     * @param minBackoff  delay before the first retry, doubled for every further retry
+     * @param maxBackoff  upper bound of the delay between retries
+     * @param jitter      random fraction (0..1) added to or removed from each delay
+     * @param budgetRatio retries allowed per step execution on average (0.1 = one retry per ten executions)
+     * @param budgetBurst retries that may be spent at once before the ratio applies
+     */
+    public record Retry(
+            @DefaultValue("2") int maxRetries,
+            @DefaultValue("100ms") Duration minBackoff,
+            @DefaultValue("1s") Duration maxBackoff,
+            @DefaultValue("0.5") double jitter,
+            @DefaultValue("0.1") double budgetRatio,
+            @DefaultValue("10") int budgetBurst) {
+    }
+
+    /**
+     * @param timeout          time allowed for one attempt of the step (queueing excluded)
+     * @param adaptive         adjust the concurrency limit from observed latency; otherwise it stays at {@code initialLimit}
+     * @param initialLimit     concurrent executions allowed at startup
+     * @param minLimit         lower bound of the adaptive limit
+     * @param maxLimit         upper bound of the adaptive limit
+     * @param maxQueue         executions waiting for a slot; beyond that requests are rejected (HTTP 429)
+     * @param maxQueueWait     longest time an execution waits for a slot before it is rejected (HTTP 429)
+     * @param latencyTolerance the limit shrinks while recent latency exceeds this multiple of the baseline latency
+     * @param backoffRatio     factor applied to the limit when an attempt times out or hits an overloaded dependency
+     */
+    public record StepLimits(
+            @DefaultValue("10s") Duration timeout,
+            @DefaultValue("true") boolean adaptive,
+            @DefaultValue("16") int initialLimit,
+            @DefaultValue("2") int minLimit,
+            @DefaultValue("64") int maxLimit,
+            @DefaultValue("128") int maxQueue,
+            @DefaultValue("2s") Duration maxQueueWait,
+            @DefaultValue("2.0") double latencyTolerance,
+            @DefaultValue("0.9") double backoffRatio) {
+
+        StepLimits withTimeout(Duration timeout) {
+            return new StepLimits(timeout, adaptive, initialLimit, minLimit, maxLimit, maxQueue, maxQueueWait,
+                    latencyTolerance, backoffRatio);
+        }
+    }
+
+    private static Map<String, StepLimits> defaultSteps(StepLimits defaults) {
+        Map<String, StepLimits> steps = new LinkedHashMap<>();
+        steps.put("intent", defaults.withTimeout(Duration.ofSeconds(10)));
+        steps.put("retrieve", defaults.withTimeout(Duration.ofSeconds(10)));
+        steps.put("context-assembly", defaults.withTimeout(Duration.ofSeconds(2)));
+        steps.put("draft-answer", defaults.withTimeout(Duration.ofSeconds(12)));
+        steps.put("validate", defaults.withTimeout(Duration.ofSeconds(5)));
+        steps.put("persist", defaults.withTimeout(Duration.ofSeconds(5)));
+        return steps;
+    }
+}
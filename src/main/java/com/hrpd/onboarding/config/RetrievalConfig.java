@@ -0,0 +1,73 @@
+package com.hrpd.onboarding.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hrpd.onboarding.rag.retrieval.FullTextSearch;
+import com.hrpd.onboarding.rag.retrieval.HybridRetriever;
+import com.hrpd.onboarding.rag.retrieval.MirroredVectorStore;
+import com.hrpd.onboarding.rag.retrieval.VectorMirror;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.pgvector.autoconfigure.PgVectorStoreProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Wires passage retrieval used by RetrieveStep: pgvector similarity search plus full-text search,
+ * with similarity searches answered by the in-process mirror when it is enabled.
+ */
+@Configuration
+@EnableConfigurationProperties(RetrievalProperties.class)
+public class RetrievalConfig {
+
+    @Bean
+    public FullTextSearch fullTextSearch(JdbcTemplate jdbcTemplate,
+                                         ObjectMapper objectMapper,
+                                         PgVectorStoreProperties pgVectorProps) {
+        return new FullTextSearch(jdbcTemplate, objectMapper,
+                pgVectorProps.getSchemaName(), pgVectorProps.getTableName());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "onboarding.retrieval.mirror", name = "enabled", havingValue = "true")
+    public VectorMirror vectorMirror(JdbcTemplate jdbcTemplate,
+                                     ObjectMapper objectMapper,
+                                     PgVectorStoreProperties pgVectorProps,
+                                     R2dbcProperties r2dbcProps,
+                                     RetrievalProperties props,
+                                     MeterRegistry meterRegistry) {
+        return new VectorMirror(jdbcTemplate, objectMapper, listenerConnectionFactory(r2dbcProps),
+                pgVectorProps.getSchemaName(), pgVectorProps.getTableName(), props.mirror(), meterRegistry);
+    }
+
+    @Bean
+    public HybridRetriever hybridRetriever(VectorStore vectorStore,
+                                           ObjectProvider<VectorMirror> vectorMirror,
+                                           EmbeddingModel embeddingModel,
+                                           FullTextSearch fullTextSearch,
+                                           RetrievalProperties props) {
+        VectorMirror mirror = vectorMirror.getIfAvailable();
+        VectorStore store = mirror != null ? new MirroredVectorStore(mirror, embeddingModel, vectorStore) : vectorStore;
+        return new HybridRetriever(store, fullTextSearch, props);
+    }
+
+    /** Unpooled: the mirror holds its LISTEN connection for the lifetime of the application. */
+    private static ConnectionFactory listenerConnectionFactory(R2dbcProperties r2dbcProps) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(r2dbcProps.getUrl()).mutate();
+        if (r2dbcProps.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, r2dbcProps.getUsername());
+        }
+        if (r2dbcProps.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, r2dbcProps.getPassword());
+        }
+        return ConnectionFactories.get(options.build());
+    }
+}
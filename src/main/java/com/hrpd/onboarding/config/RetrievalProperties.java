@@ -0,0 +1,75 @@
+package com.hrpd.onboarding.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Settings of passage retrieval.
+ *
+ * @param mode              VECTOR (similarity search only) or HYBRID (similarity and full-text search fused with RRF)
+ * @param partitionByDomain only search the chunks of the intent's domain and the general ones (see Domains);
+ *                          retrieval then waits for intent classification instead of running next to it, so
+ *                          enable it once the corpus is tagged
+ * @param defaults          settings used when the intent is unknown or has no entry in {@code intents}
+ * @param intents           per-intent settings keyed by intent label (e.g. "ONBOARDING_IT"); configuring any
+ *                          also makes retrieval wait for intent classification instead of running next to it
+ * @param mirror            in-process HNSW replica of the vector table answering similarity searches
+ */
+@ConfigurationProperties(prefix = "onboarding.retrieval")
+public record RetrievalProperties(
+        @DefaultValue("HYBRID") Mode mode,
+        @DefaultValue("false") boolean partitionByDomain,
+        @DefaultValue Settings defaults,
+        Map<String, Settings> intents,
+        @DefaultValue Mirror mirror) {
+
+    public RetrievalProperties {
+        TreeMap<String, Settings> byIntent = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (intents != null) {
+            byIntent.putAll(intents);
+        }
+        intents = byIntent;
+    }
+
+    /** Settings of the given intent, falling back to {@link #defaults()}. */
+    public Settings settingsFor(String intent) {
+        return intent == null ? defaults : intents.getOrDefault(intent, defaults);
+    }
+
+    public enum Mode { VECTOR, HYBRID }
+
+    /**
+     * @param topK                passages handed to the draft step
+     * @param similarityThreshold minimum cosine similarity of vector candidates (0 accepts all)
+     * @param candidates          candidates fetched from each retriever before fusion
+     * @param vectorWeight        weight of the vector ranking in reciprocal-rank fusion
+     * @param lexicalWeight       weight of the full-text ranking in reciprocal-rank fusion
+     * @param rrfK                RRF rank constant; larger values flatten the difference between top ranks
+     */
+    public record Settings(
+            @DefaultValue("6") int topK,
+            @DefaultValue("0.0") double similarityThreshold,
+            @DefaultValue("20") int candidates,
+            @DefaultValue("1.0") double vectorWeight,
+            @DefaultValue("1.0") double lexicalWeight,
+            @DefaultValue("60") int rrfK) {
+    }
+
+    /**
+     * @param enabled             answer similarity searches from memory; pgvector stays the system of record
+     * @param m                   graph neighbours per node (twice as many on the bottom level)
+     * @param efConstruction      candidates considered when inserting a vector
+     * @param efSearch            candidates considered when searching (raised to topK when lower)
+     * @param rebuildDeletedRatio share of deleted vectors beyond which the graph is rebuilt from the table
+     */
+    public record Mirror(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("16") int m,
+            @DefaultValue("64") int efConstruction,
+            @DefaultValue("100") int efSearch,
+            @DefaultValue("0.25") double rebuildDeletedRatio) {
+    }
+}
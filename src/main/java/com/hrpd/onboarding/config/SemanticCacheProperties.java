@@ -0,0 +1,22 @@
+package com.hrpd.onboarding.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for the semantic answer cache placed in front of the chain.
+ *
+ * @param enabled     whether answers are served from the cache at all
+ * @param maxEntries  upper bound on cached answers (least recently used are evicted first)
+ * @param ttl         how long a cached answer stays valid
+ * @param maxDistance maximum cosine distance between two questions to be considered "the same"
+ */
+@ConfigurationProperties(prefix = "onboarding.cache")
+public record SemanticCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1000") int maxEntries,
+        @DefaultValue("1h") Duration ttl,
+        @DefaultValue("0.08") double maxDistance) {
+}
@@ -0,0 +1,55 @@
+package com.hrpd.onboarding.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rules applied by ValidateStep to every draft answer. Compiled once at startup.
+ *
+ * @param maxBullets        maximum number of bullet points (the prompt asks for at most 7)
+ * @param referencesHeading text that must appear for the answer to have a references section (case-insensitive)
+ * @param keywordGroups     named keyword sets; a group matches when any of its keywords occurs (case-insensitive)
+ */
+@ConfigurationProperties(prefix = "onboarding.validation")
+public record ValidationProperties(
+        @DefaultValue("7") int maxBullets,
+        @DefaultValue("references") String referencesHeading,
+        Map<String, KeywordGroup> keywordGroups) {
+
+    public ValidationProperties {
+        if (keywordGroups == null || keywordGroups.isEmpty()) {
+            keywordGroups = defaultKeywordGroups();
+        }
+    }
+
+    /**
+     * @param keywords keywords to look for
+     * @param scope    where the keywords are looked for
+     * @param required whether a missing group makes the answer invalid (otherwise it is only reported)
+     */
+    public record KeywordGroup(
+            List<String> keywords,
+            @DefaultValue("ANSWER") Scope scope,
+            @DefaultValue("false") boolean required) {
+    }
+
+    public enum Scope {
+        /** Anywhere in the answer. */
+        ANSWER,
+        /** Only inside bullet points. */
+        BULLETS
+    }
+
+    private static Map<String, KeywordGroup> defaultKeywordGroups() {
+        Map<String, KeywordGroup> groups = new LinkedHashMap<>();
+        groups.put("missing-info", new KeywordGroup(
+                List.of("missing", "information", "contact", "it", "hr", "legal"), Scope.ANSWER, false));
+        groups.put("actionable", new KeywordGroup(
+                List.of("step", "action", "contact", "email", "call", "visit", "submit", "complete"), Scope.BULLETS, false));
+        return groups;
+    }
+}
@@ -0,0 +1,25 @@
+package com.hrpd.onboarding.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for write-behind persistence of drafts.
+ *
+ * @param enabled       queue drafts and flush them in batches instead of inserting on the request path
+ * @param capacity      maximum number of queued drafts; when full, callers write synchronously
+ * @param batchSize     maximum rows per multi-row INSERT (also triggers an early flush)
+ * @param flushInterval maximum time a draft waits in the queue
+ * @param spillFile     local file holding drafts that could not be flushed (replayed at startup)
+ */
+@ConfigurationProperties(prefix = "onboarding.persistence.write-behind")
+public record WriteBehindProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10000") int capacity,
+        @DefaultValue("200") int batchSize,
+        @DefaultValue("500ms") Duration flushInterval,
+        @DefaultValue("data/drafts-spill.ndjson") Path spillFile) {
+}
@@ -0,0 +1,34 @@
+package com.hrpd.onboarding.controller;
+
+import com.hrpd.onboarding.persistence.TicketRepository.StoredDraft;
+import com.hrpd.onboarding.persistence.TicketRepository.TicketRepository;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Admin API to audit stored drafts.
+ *
+ * GET /admin/drafts/{id} returns the draft with the text of the passages it was drafted from,
+ * looked up in the vector store (null for chunks re-ingested or deleted since).
+ */
+@RestController
+@RequestMapping("/admin/drafts")
+public class DraftController {
+
+    private final TicketRepository ticketRepository;
+
+    public DraftController(TicketRepository ticketRepository) {
+        this.ticketRepository = ticketRepository;
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<StoredDraft>> draft(@PathVariable long id) {
+        return ticketRepository.findDraft(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
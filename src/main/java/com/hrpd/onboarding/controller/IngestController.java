@@ -1,50 +1,184 @@
 package com.hrpd.onboarding.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hrpd.onboarding.rag.IngestionService;
+import com.hrpd.onboarding.rag.ingest.IngestSource;
+import com.hrpd.onboarding.rag.ingest.IngestionFailedException;
+import com.hrpd.onboarding.rag.ingest.IngestionJob;
+import com.hrpd.onboarding.rag.ingest.IngestionJob.IngestionJobStatus;
+import com.hrpd.onboarding.rag.ingest.IngestionJobs;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.codec.multipart.FormFieldPart;
+import org.springframework.http.codec.multipart.Part;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.net.URI;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Admin API to ingest content into the VectorStore.
- * POST /admin/ingest
+ *
+ * POST /admin/ingest (application/json), answered with 202 and the job to poll (Location header)
  * {
  *   "texts": ["doc1", "doc2"],
- *   "metadata": {"locale":"en","domain":"onboarding"}
+ *   "metadata": {"locale":"en","domain":"it"}
  * }
+ *
+ * POST /admin/ingest (application/x-ndjson), one document per line, streamed:
+ * {"id": "vpn-guide", "text": "doc1", "metadata": {"domain":"it"}}
+ *
+ * POST /admin/ingest (multipart/form-data), one document per "file" part (keyed by file name),
+ * streamed line by line; an optional "metadata" JSON field applies to the files that follow it.
+ * A "domain" metadata value is normalized and decides which intent finds the chunks
+ * ("Onboarding IT" becomes "it"); documents without one are tagged "general".
+ *
+ * The streaming variants take {@code ?collection=...&prune=true} to delete the documents of the
+ * collection that are not part of the upload (full sync). Unchanged chunks are never re-embedded.
+ * They consume the body while ingesting, so they answer once the job is done: 200 with its status,
+ * 400 if the upload is malformed, 500 if the job failed otherwise.
+ *
+ * GET /admin/ingest/jobs and GET /admin/ingest/jobs/{id} report progress and throughput.
  */
 @RestController
 @RequestMapping("/admin/ingest")
 public class IngestController {
 
+    private static final TypeReference<Map<String, Object>> METADATA = new TypeReference<>() { };
+
     private final IngestionService ingestionService;
+    private final IngestionJobs jobs;
+    private final ObjectMapper objectMapper;
+    private final StringDecoder lineDecoder = StringDecoder.textPlainOnly();
 
-    public IngestController(IngestionService ingestionService) {
+    public IngestController(IngestionService ingestionService, IngestionJobs jobs, ObjectMapper objectMapper) {
         this.ingestionService = ingestionService;
+        this.jobs = jobs;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Ingests texts with optional metadata into the VectorStore.
+     * Starts ingesting texts with optional metadata into the VectorStore.
      *
      * @param body JSON payload containing "texts" and optional "metadata"
-     * @return Mono that completes when ingestion is done
+     * @return 202 with the status of the started job, 400 if the payload is invalid
      */
-    @PostMapping
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
     @SuppressWarnings("unchecked")
-    public Mono<Void> ingest(@RequestBody Map<String, Object> body) {
-        List<String> texts = (List<String>) body.get("texts");
-        Map<String,Object> meta = (Map<String, Object>) body.getOrDefault("metadata", Map.of());
-
-        if (texts == null || texts.isEmpty()) {
-            return Mono.error(new IllegalArgumentException("'texts' must be a non-empty array"));
+    public Mono<ResponseEntity<IngestionJobStatus>> ingest(@RequestBody Map<String, Object> body) {
+        if (!(body.get("texts") instanceof List<?> texts) || texts.isEmpty()
+                || !texts.stream().allMatch(String.class::isInstance)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "'texts' must be a non-empty array of strings"));
+        }
+        if (!(body.getOrDefault("metadata", Map.of()) instanceof Map<?, ?> meta)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "'metadata' must be a JSON object"));
         }
 
-        return ingestionService.addDocs(texts, meta);
+        IngestionJob job = ingestionService.addDocs((List<String>) texts, (Map<String, Object>) meta);
+        return Mono.just(ResponseEntity.accepted()
+                .location(URI.create("/admin/ingest/jobs/" + job.id()))
+                .body(job.status()));
+    }
+
+    /**
+     * Ingests a stream of newline-delimited JSON documents without buffering the body.
+     *
+     * @param records    one {@code {"id": ..., "text": ..., "metadata": {...}}} object per line
+     * @param collection collection the documents belong to
+     * @param prune      delete the documents of the collection that are not part of this upload
+     * @return Mono emitting the job status when ingestion is done (400/500 if it failed)
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<IngestionJobStatus> ingestNdjson(@RequestBody Flux<IngestRecord> records,
+                                                 @RequestParam(defaultValue = IngestionService.DEFAULT_COLLECTION) String collection,
+                                                 @RequestParam(defaultValue = "false") boolean prune) {
+        return ingestionService.ingest(records
+                .filter(r -> r.text() != null && !r.text().isBlank())
+                .map(r -> IngestSource.of(r.id(), r.text(), r.metadata())), collection, prune)
+                .onErrorMap(IngestionFailedException.class, IngestController::toResponseStatus);
+    }
+
+    /**
+     * Ingests uploaded files. File parts larger than the multipart reader's in-memory limit are
+     * spooled to disk by WebFlux and read back line by line.
+     *
+     * @param parts      multipart body: optional "metadata" JSON field followed by "file" parts
+     * @param collection collection the files belong to
+     * @param prune      delete the files of the collection that are not part of this upload
+     * @return Mono emitting the job status when ingestion is done (400/500 if it failed)
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Mono<IngestionJobStatus> ingestFiles(@RequestBody Flux<Part> parts,
+                                                @RequestParam(defaultValue = IngestionService.DEFAULT_COLLECTION) String collection,
+                                                @RequestParam(defaultValue = "false") boolean prune) {
+        Map<String, Object> common = new HashMap<>();
+        Flux<IngestSource> sources = parts.concatMap(part -> {
+            if (part instanceof FormFieldPart field && "metadata".equals(field.name())) {
+                try {
+                    common.putAll(objectMapper.readValue(field.value(), METADATA));
+                } catch (JsonProcessingException e) {
+                    return Mono.error(new IllegalArgumentException("'metadata' must be a JSON object", e));
+                }
+                return Mono.empty();
+            }
+            if (part instanceof FilePart file) {
+                Map<String, Object> meta = new HashMap<>(common);
+                meta.put("source", file.filename());
+                Flux<String> lines = lineDecoder.decode(file.content(),
+                        ResolvableType.forClass(String.class), MimeTypeUtils.TEXT_PLAIN, null);
+                return Mono.just(new IngestSource(file.filename(), lines, meta));
+            }
+            return part.content().doOnNext(DataBufferUtils::release).then(Mono.empty());
+        });
+        return ingestionService.ingest(sources, collection, prune)
+                .onErrorMap(IngestionFailedException.class, IngestController::toResponseStatus);
+    }
+
+    @GetMapping("/jobs")
+    public Flux<IngestionJobStatus> jobs() {
+        return Flux.fromIterable(jobs.all()).map(IngestionJob::status);
     }
 
+    @GetMapping("/jobs/{id}")
+    public Mono<ResponseEntity<IngestionJobStatus>> job(@PathVariable String id) {
+        return Mono.justOrEmpty(jobs.get(id))
+                .map(job -> ResponseEntity.ok(job.status()))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /** A malformed upload is the client's fault; anything else (embedding API, database) is ours. */
+    private static ResponseStatusException toResponseStatus(IngestionFailedException e) {
+        Throwable cause = e.getCause();
+        boolean badInput = cause instanceof ServerWebInputException
+                || cause instanceof DecodingException
+                || cause instanceof IllegalArgumentException;
+        return new ResponseStatusException(badInput ? HttpStatus.BAD_REQUEST : HttpStatus.INTERNAL_SERVER_ERROR,
+                e.getMessage(), e);
+    }
+
+    /** One NDJSON line; without an id the document is keyed by its content hash. */
+    public record IngestRecord(String id, String text, Map<String, Object> metadata) {
+    }
 }
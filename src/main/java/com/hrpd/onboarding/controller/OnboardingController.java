@@ -1,13 +1,21 @@
 package com.hrpd.onboarding.controller;
 
 import com.hrpd.onboarding.chain.orchestrator.ChainWorkflowOrchestratorService;
+import com.hrpd.onboarding.config.BatchProperties;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/onboarding")
 public class OnboardingController {
@@ -19,25 +27,89 @@ public class OnboardingController {
     /** Response DTO for /ask endpoint. */
     private record AskRes(String intent, String answer) {}
 
+    /** Request DTO for /ask/batch endpoint. */
+    private record BatchReq(List<String> questions) {}
+
+    /** One line of the /ask/batch response; {@code error} is set instead of intent and answer on failure. */
+    private record BatchRes(int index, String question, String intent, String answer, String error) {}
+
     private final ChainWorkflowOrchestratorService chainOrchestratorService;
+    private final BatchProperties batchProperties;
 
-    public OnboardingController(ChainWorkflowOrchestratorService chainOrchestratorService) {
+    public OnboardingController(ChainWorkflowOrchestratorService chainOrchestratorService,
+                                BatchProperties batchProperties) {
         this.chainOrchestratorService = chainOrchestratorService;
+        this.batchProperties = batchProperties;
     }
 
     /**
      * Runs the full chain: classify → retrieve → draft → validate → persist.
+     * With an Idempotency-Key header the run is checkpointed: retrying with the same key returns
+     * the stored answer, or resumes a failed run after its last completed step (409 while it runs).
      *
-     * @param askReq user request with "text"
+     * @param askReq         user request with "text"
+     * @param idempotencyKey optional client-chosen key of the run
      * @return response with intent and grounded answer
      */
     @PostMapping(
             value = "/ask",
             consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<AskRes> ask(@RequestBody AskReq askReq) {
+    public Mono<AskRes> ask(@RequestBody AskReq askReq,
+                            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
         return chainOrchestratorService
-                .run(askReq.text())
+                .run(askReq.text(), idempotencyKey)
                 .map(ctx -> new AskRes(ctx.intent(), ctx.draftAnswer()));
     }
+
+    /**
+     * Same chain as {@link #ask(AskReq, String)}, streamed as Server-Sent Events:
+     * "intent", then "passages" (references), then one "token" event per answer chunk,
+     * and finally "done" once validation and persistence have finished.
+     *
+     * @param askReq user request with "text"
+     * @return SSE stream of chain events
+     */
+    @PostMapping(
+            value = "/ask/stream",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> askStream(@RequestBody AskReq askReq) {
+        return chainOrchestratorService
+                .stream(askReq.text())
+                .map(event -> ServerSentEvent.builder(event.data())
+                        .event(event.type())
+                        .build());
+    }
+
+    /**
+     * Runs the chain for a list of questions (e.g. an onboarding checklist) and streams one
+     * JSON line per question as soon as it is answered, in completion order. Duplicate questions
+     * are answered once, their embeddings are computed with a single call and their intents
+     * are classified together; a failed question yields a line with "error".
+     *
+     * @param batchReq request with "questions", at most {@code onboarding.batch.max-questions} (400 otherwise)
+     * @return NDJSON stream of {index, question, intent, answer, error}
+     */
+    @PostMapping(
+            value = "/ask/batch",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchRes> askBatch(@RequestBody BatchReq batchReq) {
+        List<String> questions = batchReq.questions();
+        if (questions == null || questions.isEmpty() || questions.contains(null)) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "'questions' must be a non-empty array of strings"));
+        }
+        if (questions.size() > batchProperties.maxQuestions()) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + batchProperties.maxQuestions() + " questions are accepted per batch"));
+        }
+        return chainOrchestratorService
+                .runBatch(questions, batchProperties.concurrency())
+                .map(result -> result.ctx() == null
+                        ? new BatchRes(result.index(), result.question(), null, null, result.error())
+                        : new BatchRes(result.index(), result.question(), result.ctx().intent(),
+                                result.ctx().draftAnswer(), null));
+    }
 }
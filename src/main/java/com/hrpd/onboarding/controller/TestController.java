@@ -9,6 +9,9 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
 @RestController
 @RequestMapping("/test")
 public class TestController {
@@ -28,7 +31,7 @@ public class TestController {
 
     @GetMapping("/intent")
     public Mono<String> testIntent(@RequestParam String text) {
-        Ctx ctx = new Ctx(text, null, null, null, null);
+        Ctx ctx = new Ctx(text, null, List.of(), List.of(), null, new ConcurrentHashMap<>());
         return intentStep.apply(ctx)
                 .map(Ctx::intent)
                 .onErrorReturn("ERROR: " + text);
@@ -36,7 +39,7 @@ public class TestController {
 
     @GetMapping("/retrieve")
     public Mono<String> testRetrieve(@RequestParam String text) {
-        Ctx ctx = new Ctx(text, "ONBOARDING_IT", null, null, null);
+        Ctx ctx = new Ctx(text, "ONBOARDING_IT", List.of(), List.of(), null, new ConcurrentHashMap<>());
         return retrieveStep.apply(ctx)
                 .map(Ctx::passages)
                 .map(passages -> "Found " + passages.size() + " passages")
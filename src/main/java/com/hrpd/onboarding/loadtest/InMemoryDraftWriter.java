@@ -0,0 +1,51 @@
+package com.hrpd.onboarding.loadtest;
+
+import com.hrpd.onboarding.persistence.TicketRepository.DraftRecord;
+import com.hrpd.onboarding.persistence.TicketRepository.DraftWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the latest drafts in memory instead of writing them to the {@code drafts} table, so a
+ * load test measures the chain without Postgres write capacity in the way.
+ *
+ * Metrics:
+ *  - onboarding.loadtest.drafts (drafts accepted)
+ */
+public class InMemoryDraftWriter implements DraftWriter {
+
+    private final int capacity;
+    private final Deque<DraftRecord> drafts;
+    private final Counter written;
+
+    public InMemoryDraftWriter(int capacity, MeterRegistry registry) {
+        this.capacity = capacity;
+        this.drafts = new ArrayDeque<>(capacity);
+        this.written = Counter.builder("onboarding.loadtest.drafts").register(registry);
+    }
+
+    @Override
+    public Mono<Void> write(DraftRecord draft) {
+        return Mono.fromRunnable(() -> {
+            synchronized (drafts) {
+                if (drafts.size() == capacity) {
+                    drafts.removeFirst();
+                }
+                drafts.addLast(draft);
+            }
+            written.increment();
+        });
+    }
+
+    /** The latest drafts, oldest first. */
+    public List<DraftRecord> recent() {
+        synchronized (drafts) {
+            return List.copyOf(drafts);
+        }
+    }
+}
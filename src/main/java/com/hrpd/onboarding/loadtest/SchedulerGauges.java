@@ -0,0 +1,49 @@
+package com.hrpd.onboarding.loadtest;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import reactor.core.Scannable;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Saturation gauges of a Reactor scheduler, read through {@link Scannable}.
+ *
+ * Metrics (tag scheduler):
+ *  - onboarding.loadtest.scheduler.threads (workers alive)
+ *  - onboarding.loadtest.scheduler.capacity (maximum workers)
+ *  - onboarding.loadtest.scheduler.queued (tasks waiting for a busy worker)
+ */
+public class SchedulerGauges implements MeterBinder {
+
+    private final String name;
+    private final Scannable scheduler;
+
+    public SchedulerGauges(String name, Scheduler scheduler) {
+        this.name = name;
+        this.scheduler = Scannable.from(scheduler);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("onboarding.loadtest.scheduler.threads", scheduler, s -> attribute(s, Scannable.Attr.BUFFERED))
+                .tag("scheduler", name).register(registry);
+        Gauge.builder("onboarding.loadtest.scheduler.capacity", scheduler, s -> attribute(s, Scannable.Attr.CAPACITY))
+                .tag("scheduler", name).register(registry);
+        Gauge.builder("onboarding.loadtest.scheduler.queued", scheduler, SchedulerGauges::queued)
+                .tag("scheduler", name).register(registry);
+    }
+
+    private static double attribute(Scannable scannable, Scannable.Attr<Integer> attr) {
+        Integer value = scannable.scan(attr);
+        return value != null ? value : Double.NaN;
+    }
+
+    /** Each worker reports the tasks submitted to it but not yet started. */
+    private static double queued(Scannable scannable) {
+        return scannable.inners().mapToInt(worker -> {
+            Integer buffered = worker.scan(Scannable.Attr.BUFFERED);
+            return buffered != null ? buffered : 0;
+        }).sum();
+    }
+}
@@ -0,0 +1,59 @@
+package com.hrpd.onboarding.loadtest;
+
+import com.hrpd.onboarding.config.LoadTestProperties.Backend;
+import org.springframework.ai.retry.TransientAiException;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency and failures of a simulated dependency. Latencies are drawn from a log-normal
+ * distribution with the configured median and 99th percentile; failures are transient, so the
+ * step policies retry them as they would a provider error.
+ */
+public class SimulatedBackend {
+
+    /** Standard normal quantile of 0.99. */
+    private static final double Z_99 = 2.3263;
+
+    private final String name;
+    private final double medianNanos;
+    private final double sigma;
+    private final double errorRate;
+
+    public SimulatedBackend(String name, Backend props) {
+        if (props.p99().compareTo(props.median()) < 0) {
+            throw new IllegalArgumentException("p99 of simulated " + name + " is below its median");
+        }
+        this.name = name;
+        this.medianNanos = Math.max(props.median().toNanos(), 1);
+        this.sigma = Math.log(Math.max(props.p99().toNanos(), 1) / medianNanos) / Z_99;
+        this.errorRate = props.errorRate();
+    }
+
+    public Duration latency() {
+        return Duration.ofNanos((long) (medianNanos * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian())));
+    }
+
+    public boolean fails() {
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    public TransientAiException failure() {
+        return new TransientAiException("Simulated " + name + " failure");
+    }
+
+    /** Blocks for one latency draw, like the real client, then fails or returns. */
+    public void call() {
+        try {
+            TimeUnit.NANOSECONDS.sleep(latency().toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while simulating " + name, e);
+        }
+        if (fails()) {
+            throw failure();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.hrpd.onboarding.loadtest;
+
+import com.hrpd.onboarding.chain.intent.IntentClassifier;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Offline stand-in for the OpenAI chat model. Classification prompts get a label derived from
+ * the question; every other prompt gets a grounded-looking draft of {@code answerWords} words
+ * that cites [#1] and ends with a References section, so it passes validation. Responses carry
+ * token usage (about four characters per token), so the cost metrics keep working.
+ *
+ * A streamed answer waits a quarter of its latency draw for the first chunk and spreads the
+ * rest over the remaining chunks.
+ */
+public class SimulatedChatModel implements ChatModel {
+
+    /** Model name reported with the usage, so its tokens are metered apart from real models. */
+    public static final String MODEL = "simulated";
+
+    private static final Pattern BATCH_ITEM = Pattern.compile("^(\\d+)\\. \"(.*)\"$", Pattern.MULTILINE);
+    private static final Pattern SINGLE_ITEM = Pattern.compile("Text: \"(.*)\"", Pattern.DOTALL);
+    private static final String[] WORDS = {
+            "request", "access", "through", "the", "service", "portal", "your", "manager", "approves",
+            "within", "two", "business", "days", "then", "IT", "sends", "credentials", "by", "email",
+            "check", "policy", "before", "first", "day", "contact", "HR", "if", "anything", "is", "missing"};
+    private static final int WORDS_PER_CHUNK = 4;
+
+    private final SimulatedBackend backend;
+    private final int answerWords;
+
+    public SimulatedChatModel(SimulatedBackend backend, int answerWords) {
+        this.backend = backend;
+        this.answerWords = answerWords;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        backend.call();
+        String text = answer(prompt.getContents());
+        return response(text, prompt, text);
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        Duration latency = backend.latency();
+        if (backend.fails()) {
+            return Flux.<ChatResponse>error(backend.failure()).delaySubscription(latency.dividedBy(4));
+        }
+        String text = answer(prompt.getContents());
+        List<String> chunks = chunks(text);
+        Duration perChunk = latency.minus(latency.dividedBy(4)).dividedBy(Math.max(chunks.size(), 1));
+        return Flux.range(0, chunks.size())
+                .map(i -> response(chunks.get(i), prompt, i == chunks.size() - 1 ? text : null))
+                .delayElements(perChunk)
+                .delaySubscription(latency.dividedBy(4));
+    }
+
+    private String answer(String prompt) {
+        if (!prompt.contains("You are a classifier")) {
+            return draft();
+        }
+        Matcher items = BATCH_ITEM.matcher(prompt);
+        StringBuilder labels = new StringBuilder();
+        while (items.find()) {
+            labels.append(items.group(1)).append(": ").append(label(items.group(2))).append('\n');
+        }
+        if (!labels.isEmpty()) {
+            return labels.toString();
+        }
+        Matcher single = SINGLE_ITEM.matcher(prompt);
+        return label(single.find() ? single.group(1) : prompt);
+    }
+
+    private static String label(String question) {
+        List<String> labels = IntentClassifier.LABELS;
+        return labels.get(Math.floorMod(question.hashCode(), labels.size()));
+    }
+
+    private String draft() {
+        int bullets = 5;
+        StringBuilder text = new StringBuilder();
+        for (int b = 0; b < bullets; b++) {
+            text.append("- ");
+            for (int w = 0; w < answerWords / bullets; w++) {
+                text.append(WORDS[(b * 7 + w) % WORDS.length]).append(' ');
+            }
+            text.append("[#1]\n");
+        }
+        return text.append("\nReferences\n- [#1] Onboarding handbook\n").toString();
+    }
+
+    private static List<String> chunks(String text) {
+        String[] words = text.split("(?<= )");
+        List<String> chunks = new ArrayList<>(words.length / WORDS_PER_CHUNK + 1);
+        for (int i = 0; i < words.length; i += WORDS_PER_CHUNK) {
+            chunks.add(String.join("", List.of(words).subList(i, Math.min(i + WORDS_PER_CHUNK, words.length))));
+        }
+        return chunks;
+    }
+
+    /**
+     * @param answer the whole answer when token usage is to be attached (providers send it with
+     *               the final chunk), otherwise null
+     */
+    private static ChatResponse response(String text, Prompt prompt, String answer) {
+        Generation generation = new Generation(new AssistantMessage(text));
+        if (answer == null) {
+            return new ChatResponse(List.of(generation));
+        }
+        int promptTokens = prompt.getContents().length() / 4;
+        int completionTokens = answer.length() / 4;
+        return new ChatResponse(List.of(generation),
+                ChatResponseMetadata.builder().model(MODEL).usage(new DefaultUsage(promptTokens, completionTokens)).build());
+    }
+}
@@ -0,0 +1,58 @@
+package com.hrpd.onboarding.loadtest;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Offline stand-in for the OpenAI embedding model: one latency draw per request, and a vector
+ * seeded from the text's hash, so a repeated question embeds to the same vector and the
+ * semantic cache behaves as it would in production.
+ */
+public class SimulatedEmbeddingModel implements EmbeddingModel {
+
+    /** Same as text-embedding-3-small. */
+    public static final int DIMENSIONS = 1536;
+
+    private final SimulatedBackend backend;
+
+    public SimulatedEmbeddingModel(SimulatedBackend backend) {
+        this.backend = backend;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        backend.call();
+        List<Embedding> embeddings = new ArrayList<>();
+        List<String> texts = request.getInstructions();
+        for (int i = 0; i < texts.size(); i++) {
+            embeddings.add(new Embedding(vector(texts.get(i)), i));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getText());
+    }
+
+    @Override
+    public int dimensions() {
+        return DIMENSIONS;
+    }
+
+    private static float[] vector(String text) {
+        var random = new SplittableRandom(text.hashCode());
+        float[] v = new float[DIMENSIONS];
+        for (int i = 0; i < v.length; i++) {
+            v[i] = (float) (random.nextDouble() * 2 - 1);
+        }
+        return v;
+    }
+}
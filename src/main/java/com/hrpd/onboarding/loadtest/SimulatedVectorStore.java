@@ -0,0 +1,79 @@
+package com.hrpd.onboarding.loadtest;
+
+import com.hrpd.onboarding.rag.Domains;
+import com.hrpd.onboarding.rag.ingest.PgVectorChunkStore;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offline stand-in for pgvector. A search embeds the query, like PgVectorStore, then takes one
+ * latency draw and returns {@code topK} passages of a synthetic handbook picked from the query's
+ * hash, best first. Filters are ignored and writes are dropped: ingestion is not part of a load test.
+ */
+public class SimulatedVectorStore implements VectorStore {
+
+    private final EmbeddingModel embeddingModel;
+    private final SimulatedBackend backend;
+    private final List<Document> corpus;
+
+    public SimulatedVectorStore(EmbeddingModel embeddingModel, SimulatedBackend backend, int corpusSize) {
+        this.embeddingModel = embeddingModel;
+        this.backend = backend;
+        this.corpus = new ArrayList<>(corpusSize);
+        for (int i = 0; i < corpusSize; i++) {
+            corpus.add(Document.builder()
+                    .id("00000000-0000-0000-0000-" + String.format("%012d", i))
+                    .text(passage(i))
+                    .metadata(Map.of(PgVectorChunkStore.DOC_ID, "handbook-" + (i / 10), Domains.KEY, Domains.GENERAL))
+                    .build());
+        }
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+        embeddingModel.embed(request.getQuery());
+        backend.call();
+        int topK = Math.min(request.getTopK(), corpus.size());
+        int first = Math.floorMod(request.getQuery().hashCode(), corpus.size());
+        List<Document> results = new ArrayList<>(topK);
+        for (int i = 0; i < topK; i++) {
+            double score = 0.9 - 0.02 * i;
+            Document document = corpus.get((first + i * 7) % corpus.size());
+            Map<String, Object> metadata = new HashMap<>(document.getMetadata());
+            metadata.put("distance", 1 - score);
+            results.add(document.mutate().metadata(metadata).score(score).build());
+        }
+        return results;
+    }
+
+    @Override
+    public void add(List<Document> documents) {
+    }
+
+    @Override
+    public void delete(List<String> idList) {
+    }
+
+    @Override
+    public void delete(Filter.Expression filterExpression) {
+    }
+
+    private static String passage(int i) {
+        return "Section " + (i + 1) + " of the employee handbook. New employees request remote access through "
+                + "the IT Service Portal. Requests are routed to the direct manager for approval and then "
+                + "provisioned by the network team. The VPN client is distributed through the Software Center "
+                + "and requires multi-factor authentication. Employees must complete the security awareness "
+                + "training before their first login.\n"
+                + "Benefits enrollment must be completed within 30 days of the start date through the HR portal. "
+                + "Questions about leave, expenses or equipment go to the People team, who answer within two "
+                + "business days. Laptops are shipped to the home address a week before the start date.";
+    }
+}
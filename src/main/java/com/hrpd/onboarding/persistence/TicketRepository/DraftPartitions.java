@@ -0,0 +1,161 @@
+package com.hrpd.onboarding.persistence.TicketRepository;
+
+import com.hrpd.onboarding.config.DraftPartitionProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Background upkeep of the daily partitions of {@code drafts} (V9), once the application is up
+ * and then every {@code maintenanceInterval}:
+ *  - creates the partitions of today and the next {@code partitionsAhead} days (UTC);
+ *  - expires the partitions whose whole day is older than {@code retention}: dropped, or detached
+ *    into {@code archiveSchema} when one is set. Rows that fell into the default partition are
+ *    deleted past retention instead;
+ *  - deletes the passage texts (draft_passages) no draft within retention has stored, with a day
+ *    of slack as their {@code last_used_at} is refreshed at most daily. Archived partitions keep
+ *    their passage references only.
+ *
+ * Every statement is idempotent, so instances running it at the same time at worst log a
+ * failure that the next run does not repeat. Detaching or dropping a partition briefly locks
+ * {@code drafts}, which is why expiry goes a whole day at a time.
+ */
+@Slf4j
+public class DraftPartitions implements DisposableBean {
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+    /** drafts_20261017 holds that day; drafts_before_20261017 everything before it. */
+    private static final Pattern PARTITION = Pattern.compile("drafts_(before_)?(\\d{8})");
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final DatabaseClient dbClient;
+    private final DraftPartitionProperties props;
+
+    private volatile Disposable maintenance;
+
+    public DraftPartitions(DatabaseClient dbClient, DraftPartitionProperties props) {
+        if (!props.archiveSchema().isBlank() && !IDENTIFIER.matcher(props.archiveSchema()).matches()) {
+            throw new IllegalArgumentException("Invalid archive schema name: " + props.archiveSchema());
+        }
+        this.dbClient = dbClient;
+        this.props = props;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        maintenance = Flux.interval(Duration.ZERO, props.maintenanceInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> maintain()
+                        .onErrorResume(error -> {
+                            log.warn("💾 DRAFTS: Partition maintenance failed: {}", error.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (maintenance != null) {
+            maintenance.dispose();
+        }
+    }
+
+    /** Creates the partitions ahead, then expires the old ones. */
+    public Mono<Void> maintain() {
+        return createAhead().then(expire());
+    }
+
+    private Mono<Void> createAhead() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        return Flux.range(0, props.partitionsAhead() + 1)
+                .map(today::plusDays)
+                .concatMap(day -> dbClient
+                        .sql("CREATE TABLE IF NOT EXISTS drafts_%s PARTITION OF drafts FOR VALUES FROM ('%s') TO ('%s')"
+                                .formatted(day.format(DAY), startOf(day), startOf(day.plusDays(1))))
+                        .then()
+                        .onErrorResume(error -> {
+                            // e.g. rows of that day already in drafts_default
+                            log.error("💾 DRAFTS: Could not create the partition of {}: {}", day, error.getMessage());
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    private Mono<Void> expire() {
+        Instant cutoff = Instant.now().minus(props.retention());
+        return dbClient
+                .sql("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'drafts'::regclass
+                """)
+                .map((row, meta) -> row.get("relname", String.class))
+                .all()
+                .filter(partition -> {
+                    Instant end = endOf(partition);
+                    return end != null && !end.isAfter(cutoff);
+                })
+                .concatMap(this::expire)
+                .then(dbClient
+                        .sql("DELETE FROM drafts_default WHERE created_at < $1")
+                        .bind("$1", cutoff.atOffset(ZoneOffset.UTC))
+                        .fetch()
+                        .rowsUpdated()
+                        .doOnNext(deleted -> {
+                            if (deleted > 0) {
+                                log.info("💾 DRAFTS: Deleted {} expired drafts from drafts_default", deleted);
+                            }
+                        }))
+                .then(dbClient
+                        .sql("DELETE FROM draft_passages WHERE last_used_at < $1")
+                        .bind("$1", cutoff.minus(Duration.ofDays(1)).atOffset(ZoneOffset.UTC))
+                        .fetch()
+                        .rowsUpdated()
+                        .doOnNext(deleted -> {
+                            if (deleted > 0) {
+                                log.info("💾 DRAFTS: Deleted {} passage texts no longer cited", deleted);
+                            }
+                        }))
+                .then();
+    }
+
+    private Mono<Void> expire(String partition) {
+        String schema = props.archiveSchema();
+        if (schema.isBlank()) {
+            return dbClient.sql("DROP TABLE IF EXISTS " + partition).then()
+                    .doOnSuccess(done -> log.info("💾 DRAFTS: Dropped {} (past {} retention)", partition, props.retention()));
+        }
+        return dbClient.sql("CREATE SCHEMA IF NOT EXISTS " + schema).then()
+                .then(dbClient.sql("ALTER TABLE drafts DETACH PARTITION " + partition).then())
+                .then(dbClient.sql("ALTER TABLE " + partition + " SET SCHEMA " + schema).then())
+                .doOnSuccess(done -> log.info("💾 DRAFTS: Archived {} to schema {} (past {} retention)",
+                        partition, schema, props.retention()));
+    }
+
+    /** End of the range of a partition created by V9 or by this class, null for any other. */
+    private static Instant endOf(String partition) {
+        Matcher m = PARTITION.matcher(partition);
+        if (!m.matches()) {
+            return null;
+        }
+        LocalDate day = LocalDate.parse(m.group(2), DAY);
+        return startOf(m.group(1) != null ? day : day.plusDays(1));
+    }
+
+    private static Instant startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+}
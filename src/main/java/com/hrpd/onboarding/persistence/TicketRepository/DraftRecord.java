@@ -0,0 +1,26 @@
+package com.hrpd.onboarding.persistence.TicketRepository;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.hrpd.onboarding.chain.PassageRef;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * A single row of the {@code drafts} table, as produced by the chain.
+ *
+ * @param userText     original query
+ * @param intent       classified intent
+ * @param intentSource classifier that produced the intent ("llm" or "local"), null when unknown
+ * @param draftAnswer  grounded draft answer
+ * @param sources      vector store references (id, score, chunk content hash) of the passages the answer
+ *                     was drafted from; the chunk texts are copied once per hash into draft_passages
+ * @param runKey       idempotency key of the run, so a resumed run does not store its draft twice (nullable)
+ * @param createdAt    start of that run, which the row is stored under (nullable: now)
+ *
+ * Drafts spilled to disk by an older version still replay, with the fields they lack left null.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record DraftRecord(String userText, String intent, String intentSource, String draftAnswer,
+                          List<PassageRef> sources, String runKey, OffsetDateTime createdAt) {
+}
@@ -0,0 +1,17 @@
+package com.hrpd.onboarding.persistence.TicketRepository;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Destination for drafts produced by the chain.
+ */
+public interface DraftWriter {
+
+    /**
+     * Hands a draft over for persistence.
+     *
+     * @param draft the draft to store
+     * @return Mono that completes once the writer has accepted the draft
+     */
+    Mono<Void> write(DraftRecord draft);
+}
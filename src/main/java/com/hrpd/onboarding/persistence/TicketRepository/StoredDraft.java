@@ -0,0 +1,20 @@
+package com.hrpd.onboarding.persistence.TicketRepository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * A draft read back from the {@code drafts} table, with the full text of the chunks it cited
+ * (as ingested, before the per-question compression of ContextAssemblyStep).
+ *
+ * @param passages in the order they were cited ([#1] first)
+ */
+public record StoredDraft(long id, String userText, String intent, String draftAnswer, OffsetDateTime createdAt,
+                          List<SourcedPassage> passages) {
+
+    /**
+     * @param text null for a draft without content hashes whose chunk is no longer in the vector store
+     */
+    public record SourcedPassage(String id, Double score, String text) {
+    }
+}
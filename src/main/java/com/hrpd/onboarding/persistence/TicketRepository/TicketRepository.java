@@ -2,50 +2,224 @@ package com.hrpd.onboarding.persistence.TicketRepository;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hrpd.onboarding.chain.PassageRef;
+import com.hrpd.onboarding.persistence.TicketRepository.StoredDraft.SourcedPassage;
 import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
-public class TicketRepository {
+/**
+ * Reads and writes the {@code drafts} table (partitioned by day, see V9 and DraftPartitions).
+ * A draft stores the vector store ids, scores and chunk content hashes of its passages rather
+ * than their text. The chunk text is copied from the vector store into {@code draft_passages}
+ * (V13) once per content hash, inside the database, so a draft citing chunks already cited
+ * writes no text at all, and keeps it after the chunks are re-ingested.
+ * {@link #findDraft(long)} joins it back, falling back to the vector store for older drafts.
+ */
+public class TicketRepository implements DraftWriter {
+
+    private static final int COLUMNS = 7;
 
     private final DatabaseClient dbClient;
     private final ObjectMapper objectMapper;
+    private final String findDraftSql;
+    private final String savePassagesSql;
 
-    public TicketRepository(DatabaseClient dbClient, ObjectMapper objectMapper) {
+    /**
+     * @param vectorTable schema-qualified table of the vector store the passage ids refer to
+     */
+    public TicketRepository(DatabaseClient dbClient, ObjectMapper objectMapper, String vectorTable) {
         this.dbClient = dbClient;
         this.objectMapper = objectMapper;
+        this.findDraftSql = """
+                SELECT d.id, d.user_text, d.intent, d.draft_answer, d.created_at,
+                       r.ref->>'id' AS source_id, (r.ref->>'score')::float8 AS score,
+                       COALESCE(p.content, v.content) AS content
+                FROM drafts d
+                LEFT JOIN LATERAL jsonb_array_elements(d.passage_refs) WITH ORDINALITY AS r(ref, ord) ON TRUE
+                LEFT JOIN draft_passages p ON p.content_hash = r.ref->>'hash'
+                LEFT JOIN %s v ON p.content_hash IS NULL AND v.id = (r.ref->>'id')::uuid
+                WHERE d.id = $1
+                ORDER BY r.ord
+                """.formatted(vectorTable);
+        this.savePassagesSql = """
+                INSERT INTO draft_passages (content_hash, content)
+                SELECT c.hash, v.content
+                FROM unnest(CAST($1 AS UUID[]), CAST($2 AS TEXT[])) AS c(id, hash)
+                JOIN %s v ON v.id = c.id
+                ON CONFLICT (content_hash) DO UPDATE SET last_used_at = NOW()
+                WHERE draft_passages.last_used_at < NOW() - INTERVAL '1 day'
+                """.formatted(vectorTable);
+    }
+
+    @Override
+    public Mono<Void> write(DraftRecord draft) {
+        return saveDrafts(List.of(draft)).then();
     }
 
     /**
-     * Persists a single draft entry (question, intent, draft answer, passages).
+     * Persists several drafts with a single multi-row INSERT, after the text of their passages.
+     * A draft of a run already stored (same run key and start) is skipped, so a resumed run can
+     * persist again safely.
      *
-     * @param userText   original query
-     * @param intent     classified intent
-     * @param draft      grounded draft answer
-     * @param passages   retrieved passages (top-k)
-     * @return Mono that completes when the row has been inserted
+     * @param drafts drafts to insert
+     * @return Mono emitting the number of inserted rows
      */
-    public Mono<Void> saveDraft(String userText, String intent, String draft, List<String> passages) {
-        var passagesJson = "";
+    public Mono<Long> saveDrafts(List<DraftRecord> drafts) {
+        if (drafts.isEmpty()) {
+            return Mono.just(0L);
+        }
 
+        var sql = new StringBuilder("INSERT INTO drafts "
+                + "(user_text, intent, intent_source, draft_answer, passage_refs, run_key, created_at) VALUES ");
+        for (int i = 0; i < drafts.size(); i++) {
+            int p = i * COLUMNS;
+            sql.append(i == 0 ? "" : ", ")
+                    .append("($").append(p + 1)
+                    .append(", $").append(p + 2)
+                    .append(", $").append(p + 3)
+                    .append(", $").append(p + 4)
+                    .append(", CAST($").append(p + 5).append(" AS JSONB)")
+                    .append(", $").append(p + 6)
+                    .append(", COALESCE($").append(p + 7).append(", NOW()))");
+        }
+        sql.append(" ON CONFLICT (run_key, created_at) DO NOTHING");
+
+        var spec = dbClient.sql(sql.toString());
+        Map<String, String> cited = new LinkedHashMap<>();
         try {
-            passagesJson = objectMapper.writeValueAsString(passages);
+            for (int i = 0; i < drafts.size(); i++) {
+                var d = drafts.get(i);
+                int p = i * COLUMNS;
+                spec = bindNullable(spec, p + 2, d.intentSource(), String.class);
+                spec = bindNullable(spec, p + 5, d.runKey(), String.class);
+                spec = bindNullable(spec, p + 6, d.createdAt(), OffsetDateTime.class)
+                        .bind(p, d.userText())
+                        .bind(p + 1, d.intent())
+                        .bind(p + 3, d.draftAnswer())
+                        .bind(p + 4, objectMapper.writeValueAsString(storedRefs(d, cited)));
+            }
         } catch (JsonProcessingException e) {
             return Mono.error(e);
         }
 
+        return savePassages(cited).then(spec.fetch().rowsUpdated());
+    }
+
+    /**
+     * Copies the text of the cited chunks not stored yet, keyed by content hash. A hash stored
+     * again only refreshes {@code last_used_at} (at most daily), which DraftPartitions uses to
+     * expire texts with the drafts citing them.
+     *
+     * @param cited chunk id by content hash
+     */
+    private Mono<Long> savePassages(Map<String, String> cited) {
+        if (cited.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return dbClient.sql(savePassagesSql)
+                .bind(0, cited.values().toArray(String[]::new))
+                .bind(1, cited.keySet().toArray(String[]::new))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * References of a draft's passages, their chunk id by content hash collected into {@code cited}.
+     * Drafts spilled before V9 replay without references, older ones also without hashes.
+     */
+    private static List<StoredRef> storedRefs(DraftRecord draft, Map<String, String> cited) {
+        List<PassageRef> sources = draft.sources() != null ? draft.sources() : List.of();
+        List<StoredRef> refs = new ArrayList<>(sources.size());
+        for (PassageRef source : sources) {
+            if (source.hash() != null && source.id() != null) {
+                cited.putIfAbsent(source.hash(), source.id());
+            }
+            refs.add(new StoredRef(source.id(), source.score(), source.hash()));
+        }
+        return refs;
+    }
+
+    /** One element of {@code passage_refs}. */
+    private record StoredRef(String id, Double score, String hash) {
+    }
+
+    /**
+     * Most recent (question, intent) pairs, used as labeled examples for intent classification.
+     *
+     * @param intents only rows classified with one of these labels
+     * @param source  only rows labelled by this classifier
+     * @param limit   maximum number of rows
+     * @return Flux of labeled questions, newest first
+     */
+    public Flux<LabeledQuestion> findLabeledQuestions(List<String> intents, String source, int limit) {
         return dbClient
                 .sql("""
-                INSERT INTO drafts (user_text, intent, draft_answer, passages)
-                VALUES ($1, $2, $3, CAST($4 AS JSONB))
+                SELECT user_text, intent FROM drafts
+                WHERE intent = ANY($1) AND intent_source = $2
+                ORDER BY created_at DESC
+                LIMIT $3
                 """)
-                .bind("$1", userText)
-                .bind("$2", intent)
-                .bind("$3", draft)
-                .bind("$4", passagesJson)
-                .fetch()
-                .rowsUpdated()
-                .then();
+                .bind("$1", intents.toArray(String[]::new))
+                .bind("$2", source)
+                .bind("$3", limit)
+                .map((row, meta) -> new LabeledQuestion(row.get("user_text", String.class), row.get("intent", String.class)))
+                .all();
+    }
+
+    /**
+     * A stored draft with the text of its passages, for auditing.
+     *
+     * @param id id of the draft
+     * @return Mono emitting the draft, or empty when there is none (or it is past retention)
+     */
+    public Mono<StoredDraft> findDraft(long id) {
+        return dbClient
+                .sql(findDraftSql)
+                .bind("$1", id)
+                .map((row, meta) -> new DraftRow(
+                        row.get("id", Long.class),
+                        row.get("user_text", String.class),
+                        row.get("intent", String.class),
+                        row.get("draft_answer", String.class),
+                        row.get("created_at", OffsetDateTime.class),
+                        row.get("source_id", String.class) == null ? null : new SourcedPassage(
+                                row.get("source_id", String.class),
+                                row.get("score", Double.class),
+                                row.get("content", String.class))))
+                .all()
+                .collectList()
+                .flatMap(rows -> rows.isEmpty() ? Mono.empty() : Mono.just(storedDraft(rows)));
+    }
+
+    private static StoredDraft storedDraft(List<DraftRow> rows) {
+        DraftRow first = rows.get(0);
+        List<SourcedPassage> passages = rows.stream()
+                .map(DraftRow::passage)
+                .filter(Objects::nonNull)
+                .toList();
+        return new StoredDraft(first.id(), first.userText(), first.intent(), first.draftAnswer(), first.createdAt(),
+                passages);
+    }
+
+    /** One row of the draft lookup: the draft joined with one of its passages, if it has any. */
+    private record DraftRow(long id, String userText, String intent, String draftAnswer, OffsetDateTime createdAt,
+                            SourcedPassage passage) {
+    }
+
+    private static <T> DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec, int index,
+                                                                      T value, Class<T> type) {
+        return value != null ? spec.bind(index, value) : spec.bindNull(index, type);
+    }
+
+    /** A past question with the intent it was classified as. */
+    public record LabeledQuestion(String userText, String intent) {
     }
 }
@@ -0,0 +1,262 @@
+package com.hrpd.onboarding.persistence.TicketRepository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hrpd.onboarding.config.WriteBehindProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Write-behind {@link DraftWriter}: drafts are accepted into a bounded in-memory queue
+ * and flushed by a single background worker with multi-row INSERTs, either every
+ * {@code flushInterval} or as soon as a full batch is waiting.
+ *
+ * Notes:
+ *  <li>When the queue is full the caller falls back to a direct INSERT, so load
+ *      pushes back on the request instead of growing memory.</li>
+ *  <li>Batches that fail to flush, and anything still queued at shutdown, are appended
+ *      to a local NDJSON spill file which is replayed on the next start. Lines that do not
+ *      parse (a crash mid-spill) are skipped and the file is kept aside for inspection.</li>
+ *  <li>Stops after the web server has finished its in-flight requests; a draft written
+ *      after stopping anyway is inserted directly.</li>
+ */
+@Slf4j
+public class WriteBehindDraftWriter implements DraftWriter, SmartLifecycle {
+
+    private static final Duration SHUTDOWN_FLUSH_TIMEOUT = Duration.ofSeconds(5);
+    /** After the web server stops (graceful shutdown, then stop), so in-flight requests are still queued. */
+    private static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+
+    private final TicketRepository repo;
+    private final ObjectMapper objectMapper;
+    private final WriteBehindProperties props;
+    private final BlockingQueue<DraftRecord> queue;
+    private final Sinks.Many<Boolean> flushRequests = Sinks.many().multicast().directBestEffort();
+    /** Completes the flush triggers; the worker then finishes the flush in progress and terminates. */
+    private final Sinks.Empty<Void> stopping = Sinks.empty();
+    private final Sinks.Empty<Void> stopped = Sinks.empty();
+    private final Scheduler scheduler = Schedulers.newSingle("drafts-write-behind");
+
+    private final Counter flushed;
+    private final Counter overflow;
+    private final Counter spilled;
+    private final Counter corrupt;
+
+    private volatile Disposable worker;
+    private volatile boolean accepting;
+
+    public WriteBehindDraftWriter(TicketRepository repo,
+                                  ObjectMapper objectMapper,
+                                  WriteBehindProperties props,
+                                  MeterRegistry registry) {
+        this.repo = repo;
+        this.objectMapper = objectMapper;
+        this.props = props;
+        this.queue = new ArrayBlockingQueue<>(props.capacity());
+        this.flushed = Counter.builder("onboarding.drafts.flushed").register(registry);
+        this.overflow = Counter.builder("onboarding.drafts.overflow").register(registry);
+        this.spilled = Counter.builder("onboarding.drafts.spilled").register(registry);
+        this.corrupt = Counter.builder("onboarding.drafts.spill.corrupt").register(registry);
+        Gauge.builder("onboarding.drafts.queue.size", queue, BlockingQueue::size).register(registry);
+    }
+
+    @Override
+    public Mono<Void> write(DraftRecord draft) {
+        if (!accepting) {
+            return repo.write(draft);
+        }
+        if (!queue.offer(draft)) {
+            overflow.increment();
+            log.warn("💾 WRITE-BEHIND: Queue full ({} drafts), writing synchronously", props.capacity());
+            return repo.write(draft);
+        }
+        if (queue.size() >= props.batchSize()) {
+            flushRequests.tryEmitNext(Boolean.TRUE);
+        }
+        return Mono.empty();
+    }
+
+    @Override
+    public void start() {
+        replaySpillFile();
+
+        worker = Flux.merge(
+                        Flux.interval(props.flushInterval(), scheduler).map(tick -> Boolean.TRUE),
+                        flushRequests.asFlux())
+                .takeUntilOther(stopping.asMono())
+                .onBackpressureDrop()
+                .concatMap(trigger -> flushAll(), 1)
+                .doFinally(signal -> stopped.tryEmitEmpty())
+                .subscribe();
+        accepting = true;
+        log.info("💾 WRITE-BEHIND: Started (capacity={}, batchSize={}, flushInterval={})",
+                props.capacity(), props.batchSize(), props.flushInterval());
+    }
+
+    @Override
+    public void stop() {
+        accepting = false;
+        if (worker != null) {
+            // the batch being flushed is already off the queue: let it finish rather than cancel it
+            stopping.tryEmitEmpty();
+            try {
+                stopped.asMono().block(SHUTDOWN_FLUSH_TIMEOUT);
+            } catch (RuntimeException e) {
+                log.error("💾 WRITE-BEHIND: Flush in progress did not finish in {}", SHUTDOWN_FLUSH_TIMEOUT);
+            }
+            worker.dispose();
+        }
+        try {
+            flushAll().block(SHUTDOWN_FLUSH_TIMEOUT);
+        } catch (RuntimeException e) {
+            log.error("💾 WRITE-BEHIND: Final flush failed: {}", e.getMessage());
+        }
+        List<DraftRecord> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        spill(remaining);
+        scheduler.dispose();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return worker != null && !worker.isDisposed();
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /** Drains the queue in batches, one multi-row INSERT per batch. */
+    private Mono<Void> flushAll() {
+        return Flux.<List<DraftRecord>>generate(sink -> {
+                    List<DraftRecord> batch = new ArrayList<>(props.batchSize());
+                    queue.drainTo(batch, props.batchSize());
+                    if (batch.isEmpty()) {
+                        sink.complete();
+                    } else {
+                        sink.next(batch);
+                    }
+                })
+                .concatMap(batch -> repo.saveDrafts(batch)
+                        .doOnNext(flushed::increment)
+                        .onErrorResume(e -> {
+                            log.error("💾 WRITE-BEHIND: Flush of {} drafts failed, spilling to disk: {}",
+                                    batch.size(), e.getMessage());
+                            return Mono.<Long>fromRunnable(() -> spill(batch))
+                                    .subscribeOn(Schedulers.boundedElastic());
+                        }))
+                .then();
+    }
+
+    private synchronized void spill(List<DraftRecord> drafts) {
+        if (drafts.isEmpty()) {
+            return;
+        }
+        try {
+            var file = props.spillFile();
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (DraftRecord draft : drafts) {
+                    out.write(objectMapper.writeValueAsString(draft));
+                    out.newLine();
+                }
+            }
+            spilled.increment(drafts.size());
+            log.warn("💾 WRITE-BEHIND: Spilled {} drafts to {}", drafts.size(), file);
+        } catch (IOException e) {
+            log.error("💾 WRITE-BEHIND: Could not spill {} drafts: {}", drafts.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Re-queues drafts left over from a previous run; whatever does not fit is spilled again.
+     * A file with unreadable lines is moved aside rather than deleted, and never fails the start.
+     */
+    private synchronized void replaySpillFile() {
+        var file = props.spillFile();
+        if (!Files.exists(file)) {
+            return;
+        }
+        List<DraftRecord> pending = new ArrayList<>();
+        int unreadable = 0;
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    pending.add(objectMapper.readValue(line, DraftRecord.class));
+                } catch (JsonProcessingException e) {
+                    unreadable++;
+                }
+            }
+        } catch (IOException e) {
+            log.error("💾 WRITE-BEHIND: Could not read spill file {}: {}", file, e.getMessage());
+            moveAside(file);
+            return;
+        }
+        if (unreadable > 0) {
+            corrupt.increment(unreadable);
+            log.error("💾 WRITE-BEHIND: Skipped {} unreadable lines of spill file {}", unreadable, file);
+            if (!moveAside(file)) {
+                return;
+            }
+        } else {
+            try {
+                Files.delete(file);
+            } catch (IOException e) {
+                log.error("💾 WRITE-BEHIND: Could not delete spill file {}, not replaying it: {}", file, e.getMessage());
+                return;
+            }
+        }
+
+        int replayed = 0;
+        for (DraftRecord draft : pending) {
+            if (!queue.offer(draft)) {
+                spill(pending.subList(replayed, pending.size()));
+                break;
+            }
+            replayed++;
+        }
+        log.info("💾 WRITE-BEHIND: Replaying {} spilled drafts from {}", replayed, file);
+    }
+
+    /** Keeps a spill file that could not be fully replayed next to it, out of the way of the next spill. */
+    private static boolean moveAside(Path file) {
+        Path aside = file.resolveSibling(file.getFileName() + ".corrupt-" + System.currentTimeMillis());
+        try {
+            Files.move(file, aside);
+            log.warn("💾 WRITE-BEHIND: Moved spill file {} to {}", file, aside);
+            return true;
+        } catch (IOException e) {
+            log.error("💾 WRITE-BEHIND: Could not move spill file {} aside, not replaying it: {}", file, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.hrpd.onboarding.rag;
+
+/**
+ * Published whenever the indexed corpus changes, so anything derived from
+ * retrieval results (e.g. cached answers) can be discarded.
+ *
+ * @param documents number of documents affected by the change
+ */
+public record CorpusChangedEvent(int documents) {
+}
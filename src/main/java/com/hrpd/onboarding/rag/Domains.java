@@ -0,0 +1,43 @@
+package com.hrpd.onboarding.rag;
+
+import java.util.Locale;
+
+/**
+ * The corpus is partitioned by a normalized {@code domain} metadata value, which ingestion
+ * tags on every chunk and retrieval derives from the intent label: "Onboarding IT",
+ * "onboarding_it" and the intent ONBOARDING_IT all become {@code it}. Chunks ingested
+ * without a domain belong to {@link #GENERAL} and are searched for every domain.
+ *
+ * V6 backfills existing chunks with the same rules; keep both in sync.
+ */
+public final class Domains {
+
+    public static final String KEY = "domain";
+    public static final String GENERAL = "general";
+
+    /** Intent label that does not map to a domain: such questions search the whole corpus. */
+    private static final String OTHER_INTENT = "OTHER";
+
+    private Domains() {
+    }
+
+    /** Normalized domain of a metadata value (lower case, dashes, no "onboarding-" prefix). */
+    public static String normalize(Object value) {
+        if (value == null) {
+            return GENERAL;
+        }
+        String domain = value.toString().toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z0-9]+", "-")
+                .replaceAll("^-+|-+$", "")
+                .replaceFirst("^onboarding-", "");
+        return domain.isEmpty() ? GENERAL : domain;
+    }
+
+    /** Domain searched for an intent, or null when the whole corpus should be searched. */
+    public static String forIntent(String intent) {
+        if (intent == null || intent.isBlank() || OTHER_INTENT.equalsIgnoreCase(intent.trim())) {
+            return null;
+        }
+        return normalize(intent);
+    }
+}
@@ -1,46 +1,265 @@
 package com.hrpd.onboarding.rag;
 
+import com.hrpd.onboarding.chain.resilience.StepPolicies;
+import com.hrpd.onboarding.config.IngestProperties;
+import com.hrpd.onboarding.rag.ingest.ContentHash;
+import com.hrpd.onboarding.rag.ingest.EmbeddingCache;
+import com.hrpd.onboarding.rag.ingest.IngestSource;
+import com.hrpd.onboarding.rag.ingest.IngestionFailedException;
+import com.hrpd.onboarding.rag.ingest.IngestionJob;
+import com.hrpd.onboarding.rag.ingest.IngestionJob.IngestionJobStatus;
+import com.hrpd.onboarding.rag.ingest.IngestionJobs;
+import com.hrpd.onboarding.rag.ingest.PgVectorChunkStore;
+import com.hrpd.onboarding.rag.ingest.TextChunker;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.document.Document;
-import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * High-level ingestion service that converts raw texts to
- * Spring AI Documents and adds them to the configured VectorStore.
+ * High-level ingestion service that turns raw documents into embedded chunks
+ * stored in the pgvector table behind the VectorStore.
  *
- * Note: Spring AI will call the EmbeddingModel for each document,
- * then store content + metadata + embedding into pgvector automatically.
+ * The pipeline is fully streaming: documents are chunked as they arrive
+ * (token-bounded, see {@link TextChunker}), chunks are grouped into embedding
+ * batches, and a bounded number of batches are embedded and written (one JDBC
+ * batch each) concurrently. Backpressure reaches the request body, so large
+ * uploads are never held in memory. Progress is tracked in an {@link IngestionJob}.
+ *
+ * Ingestion is content-addressed: every chunk is stored with its document key and
+ * SHA-256 hash of its text and metadata. Chunks already stored for the document are
+ * skipped. Once every new chunk of the job is stored, stale chunks of the changed documents
+ * are deleted and, with {@code prune}, the documents of the collection that were not part of
+ * the run are removed; a failed job deletes nothing, so a document keeps its old chunks
+ * rather than losing them. Embeddings are looked up by text hash in the local
+ * {@link EmbeddingCache} before calling the embedding API; an embedding request that fails
+ * transiently (e.g. rate limited) is retried with backoff ({@code onboarding.ingest.embedding-retry.*}).
+ * A {@link CorpusChangedEvent} is published once the job has finished, failed or not.
  */
 @Service
+@Slf4j
 public class IngestionService {
 
-    private final VectorStore vectorStore;
+    public static final String DEFAULT_COLLECTION = "default";
+
+    private final EmbeddingModel embeddingModel;
+    private final TextChunker chunker;
+    private final PgVectorChunkStore store;
+    private final IngestionJobs jobs;
+    private final IngestProperties props;
+    private final EmbeddingCache embeddingCache;
+    private final ApplicationEventPublisher events;
 
-    public IngestionService(VectorStore vectorStore) {
-        this.vectorStore = vectorStore;
+    public IngestionService(EmbeddingModel embeddingModel,
+                            TextChunker chunker,
+                            PgVectorChunkStore store,
+                            IngestionJobs jobs,
+                            IngestProperties props,
+                            ObjectProvider<EmbeddingCache> embeddingCache,
+                            ApplicationEventPublisher events) {
+        this.embeddingModel = embeddingModel;
+        this.chunker = chunker;
+        this.store = store;
+        this.jobs = jobs;
+        this.props = props;
+        this.embeddingCache = embeddingCache.getIfAvailable();
+        this.events = events;
     }
 
     /**
-     * Adds a batch of documents with shared metadata.
+     * Starts indexing a batch of documents with shared metadata in the background. Each text is
+     * keyed by its content hash.
      *
-     * @param texts   raw content items to index
+     * @param texts      raw content items to index
      * @param commonMeta optional metadata attached to each document (nullable)
-     * @return Mono that completes when all documents are added
+     * @return the started job, to be polled through {@link IngestionJobs}
+     */
+    public IngestionJob addDocs(List<String> texts, Map<String, Object> commonMeta) {
+        IngestionJob job = jobs.start();
+        run(Flux.fromIterable(texts).map(text -> IngestSource.of(null, text, commonMeta)),
+                DEFAULT_COLLECTION, false, job)
+                .subscribe(status -> { }, error -> { }); // logged and recorded on the job
+        return job;
+    }
+
+    /**
+     * Runs the ingestion pipeline over a stream of documents.
+     *
+     * @param sources    documents to index, consumed lazily
+     * @param collection collection the documents belong to
+     * @param prune      delete the documents of the collection that are not part of this run
+     * @return Mono emitting the final job status, or an {@link IngestionFailedException} if the job failed
+     */
+    public Mono<IngestionJobStatus> ingest(Flux<IngestSource> sources, String collection, boolean prune) {
+        return Mono.defer(() -> run(sources, collection, prune, jobs.start()));
+    }
+
+    private Mono<IngestionJobStatus> run(Flux<IngestSource> sources, String collection, boolean prune, IngestionJob job) {
+        log.info("📥 INGEST: Job {} started (collection '{}', prune: {})", job.id(), collection, prune);
+        Set<String> documentIds = ConcurrentHashMap.newKeySet();
+        Queue<UUID> stale = new ConcurrentLinkedQueue<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        return sources
+                .doOnNext(source -> {
+                    job.documentReceived();
+                    documentIds.add(source.id());
+                })
+                .concatMap(source -> changedChunks(source, collection, job, stale))
+                .buffer(props.embeddingBatchSize())
+                .flatMap(batch -> embedAndStore(batch, job), props.embeddingConcurrency())
+                .then(Mono.fromRunnable(() -> {
+                    job.deleted(store.delete(List.copyOf(stale)));
+                    if (prune) {
+                        job.deleted(store.deleteDocumentsExcept(collection, documentIds));
+                    }
+                }).subscribeOn(Schedulers.boundedElastic()))
+                .then(Mono.fromRunnable(job::complete))
+                .doOnError(error -> {
+                    log.error("📥 INGEST: Job {} failed: {}", job.id(), error.getMessage());
+                    job.fail(error);
+                    failure.set(error);
+                })
+                .onErrorResume(error -> Mono.empty())
+                .then(Mono.fromCallable(() -> {
+                    var status = job.status();
+                    if (status.storedChunks() > 0 || status.deletedChunks() > 0) {
+                        events.publishEvent(new CorpusChangedEvent((int) (status.storedChunks() + status.deletedChunks())));
+                    }
+                    log.info("📥 INGEST: Job {} {} - {} documents, {} chunks stored, {} unchanged, {} deleted, "
+                                    + "{} cached embeddings in {} ms ({} chunks/s)",
+                            job.id(), status.state(), status.documents(), status.storedChunks(),
+                            status.unchangedChunks(), status.deletedChunks(), status.cachedEmbeddings(),
+                            status.elapsedMs(), String.format("%.1f", status.chunksPerSecond()));
+                    return status;
+                }))
+                .flatMap(status -> failure.get() == null
+                        ? Mono.just(status)
+                        : Mono.error(new IngestionFailedException(status, failure.get())));
+    }
+
+    /**
+     * Chunks of a document that are not stored yet; once the whole document has been chunked,
+     * the ids of its stored chunks that are no longer part of it are added to {@code stale}.
      */
-    public Mono<Void> addDocs(List<String> texts, Map<String, Object> commonMeta) {
-        var docs = texts.stream()
-                .map(t -> new Document(t, commonMeta == null ? Map.of() : commonMeta))
-                .toList();
+    private Flux<Document> changedChunks(IngestSource source, String collection, IngestionJob job, Queue<UUID> stale) {
+        return Mono.fromCallable(() -> store.chunkHashes(collection, source.id()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(stored -> {
+                    Set<String> current = new HashSet<>();
+                    Map<String, Object> documentMeta = new HashMap<>(source.metadata());
+                    documentMeta.put(Domains.KEY, Domains.normalize(documentMeta.get(Domains.KEY)));
+                    return chunker.chunk(source.lines())
+                            .index()
+                            .doOnNext(chunk -> job.chunked())
+                            .<Document>handle((chunk, sink) -> {
+                                String hash = ContentHash.of(chunk.getT2(), documentMeta);
+                                if (!current.add(hash)) {
+                                    return; // same text twice in one document
+                                }
+                                if (stored.containsKey(hash)) {
+                                    job.unchanged();
+                                    return;
+                                }
+                                Map<String, Object> meta = new HashMap<>(documentMeta);
+                                meta.put("chunk", chunk.getT1());
+                                meta.put(PgVectorChunkStore.DOC_ID, source.id());
+                                meta.put(PgVectorChunkStore.CONTENT_HASH, hash);
+                                meta.put(PgVectorChunkStore.COLLECTION, collection);
+                                sink.next(new Document(PgVectorChunkStore.chunkId(collection, source.id(), hash),
+                                        chunk.getT2(), meta));
+                            })
+                            .doOnComplete(() -> stored.forEach((hash, id) -> {
+                                if (!current.contains(hash)) {
+                                    stale.add(id);
+                                }
+                            }));
+                });
+    }
+
+    private Mono<Void> embedAndStore(List<Document> batch, IngestionJob job) {
+        return Mono.fromCallable(() -> cachedEmbeddings(batch, job))
+                .flatMap(embeddings -> embedMisses(batch, embeddings))
+                .doOnNext(embeddings -> {
+                    store.write(batch, embeddings);
+                    job.stored(batch.size());
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
 
-        return Mono.fromCallable(() -> {
-            vectorStore.add(docs);
-            return null;
-        }).publishOn(Schedulers.boundedElastic()).then();
+    /** Embeddings of the batch found in the cache; null where the text is not cached. */
+    private float[][] cachedEmbeddings(List<Document> batch, IngestionJob job) {
+        float[][] embeddings = new float[batch.size()][];
+        int cached = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            embeddings[i] = embeddingCache == null ? null : embeddingCache.get(textHash(batch.get(i)));
+            if (embeddings[i] != null) {
+                cached++;
+            }
+        }
+        job.cachedEmbeddings(cached);
+        return embeddings;
     }
 
+    /** Fills in the missing embeddings with one embedding request, retried on transient failures. */
+    private Mono<List<float[]>> embedMisses(List<Document> batch, float[][] embeddings) {
+        List<Integer> misses = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (embeddings[i] == null) {
+                misses.add(i);
+            }
+        }
+        if (misses.isEmpty()) {
+            return Mono.just(Arrays.asList(embeddings));
+        }
+        List<String> texts = misses.stream().map(i -> batch.get(i).getText()).toList();
+        return Mono.fromCallable(() -> embeddingModel.embed(texts))
+                .subscribeOn(Schedulers.boundedElastic())
+                .retryWhen(embeddingRetry())
+                .map(fresh -> {
+                    for (int j = 0; j < misses.size(); j++) {
+                        int i = misses.get(j);
+                        embeddings[i] = fresh.get(j);
+                        if (embeddingCache != null) {
+                            embeddingCache.put(textHash(batch.get(i)), embeddings[i]);
+                        }
+                    }
+                    return Arrays.asList(embeddings);
+                });
+    }
+
+    private Retry embeddingRetry() {
+        IngestProperties.EmbeddingRetryProperties retry = props.embeddingRetry();
+        return Retry.backoff(retry.maxRetries(), retry.minBackoff())
+                .maxBackoff(retry.maxBackoff())
+                .filter(StepPolicies::isTransient)
+                .doBeforeRetry(signal -> log.warn("📥 INGEST: Retrying embedding request ({}/{}) after transient failure: {}",
+                        signal.totalRetries() + 1, retry.maxRetries(), signal.failure().getMessage()))
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    /** Embeddings depend on the text only, so they are cached by text hash. */
+    private static String textHash(Document chunk) {
+        return ContentHash.of(chunk.getText());
+    }
 }
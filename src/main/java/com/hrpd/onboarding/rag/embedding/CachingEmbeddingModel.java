@@ -0,0 +1,50 @@
+package com.hrpd.onboarding.rag.embedding;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.util.List;
+
+/**
+ * EmbeddingModel decorator serving single-text embeddings ({@link #embed(String)}, which is what
+ * VectorStore similarity searches and the semantic answer cache use) from a {@link QueryEmbeddingCache}.
+ * Batch calls made by ingestion go straight to the delegate; batches of questions use
+ * {@link #embedQueries(List)} instead.
+ */
+public class CachingEmbeddingModel implements EmbeddingModel {
+
+    private final EmbeddingModel delegate;
+    private final QueryEmbeddingCache cache;
+
+    public CachingEmbeddingModel(EmbeddingModel delegate, QueryEmbeddingCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        return cache.get(text, delegate::embed);
+    }
+
+    /** Embeds several questions through the cache, with one delegate call for all the misses. */
+    public List<float[]> embedQueries(List<String> texts) {
+        return cache.getAll(texts, delegate::embed);
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        return delegate.call(request);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return delegate.embed(document);
+    }
+
+    @Override
+    public int dimensions() {
+        return delegate.dimensions();
+    }
+}
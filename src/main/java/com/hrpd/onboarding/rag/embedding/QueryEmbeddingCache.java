@@ -0,0 +1,265 @@
+package com.hrpd.onboarding.rag.embedding;
+
+import com.hrpd.onboarding.config.QueryEmbeddingCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded LRU cache of query embeddings keyed by normalized query text
+ * (Unicode NFKC, lower case, collapsed whitespace).
+ *
+ * The cache is written to a snapshot file on shutdown and reloaded at startup,
+ * so common questions keep hitting after a restart. The snapshot records the embedding model
+ * and the dimensions of its vectors; it is discarded if the model changed, and the reloaded
+ * entries are dropped if the first embedding computed after the restart has other dimensions.
+ *
+ * Metrics (Actuator /actuator/metrics):
+ *  - onboarding.embedding.cache.requests{result=hit|miss}
+ *  - onboarding.embedding.cache.evictions
+ *  - onboarding.embedding.cache.size
+ *  - onboarding.embedding.cache.hit.ratio
+ */
+@Slf4j
+public class QueryEmbeddingCache implements DisposableBean {
+
+    private static final int SNAPSHOT_VERSION = 2;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final QueryEmbeddingCacheProperties props;
+    private final LinkedHashMap<String, float[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    /** Model the cached embeddings come from, set by {@link #open}. */
+    private volatile String model;
+    /** Dimensions of the reloaded embeddings until a fresh embedding confirms them; 0 once checked. */
+    private volatile int snapshotDimensions;
+
+    public QueryEmbeddingCache(QueryEmbeddingCacheProperties props, MeterRegistry registry) {
+        this.props = props;
+        this.hits = Counter.builder("onboarding.embedding.cache.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("onboarding.embedding.cache.requests").tag("result", "miss").register(registry);
+        this.evictions = Counter.builder("onboarding.embedding.cache.evictions").register(registry);
+        Gauge.builder("onboarding.embedding.cache.size", this, QueryEmbeddingCache::size).register(registry);
+        Gauge.builder("onboarding.embedding.cache.hit.ratio", this, QueryEmbeddingCache::hitRatio).register(registry);
+    }
+
+    /**
+     * Attaches the cache to the embedding model it is put in front of and reloads the snapshot
+     * taken with that model.
+     *
+     * @param model name identifying the embedding model (and its configured model id)
+     */
+    public void open(String model) {
+        this.model = model;
+        load();
+    }
+
+    /**
+     * Returns the cached embedding of {@code query}, computing and storing it on a miss.
+     * The embedding call runs outside the lock; concurrent misses on the same query may both compute it.
+     */
+    public float[] get(String query, Function<String, float[]> embed) {
+        String key = normalize(query);
+        float[] cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        float[] embedding = embed.apply(query);
+        checkDimensions(embedding);
+        put(key, embedding);
+        return embedding;
+    }
+
+    /**
+     * Returns the embeddings of several queries, in order, computing all misses with a single
+     * call to {@code embed} (which receives the missing queries and returns their embeddings in order).
+     */
+    public List<float[]> getAll(List<String> queries, Function<List<String>, List<float[]>> embed) {
+        float[][] embeddings = new float[queries.size()][];
+        List<Integer> missing = new ArrayList<>();
+        synchronized (entries) {
+            for (int i = 0; i < queries.size(); i++) {
+                embeddings[i] = entries.get(normalize(queries.get(i)));
+                if (embeddings[i] == null) {
+                    missing.add(i);
+                }
+            }
+        }
+        hits.increment(queries.size() - missing.size());
+        if (!missing.isEmpty()) {
+            misses.increment(missing.size());
+            List<float[]> computed = embed.apply(missing.stream().map(queries::get).toList());
+            if (!computed.isEmpty()) {
+                checkDimensions(computed.get(0));
+            }
+            for (int i = 0; i < missing.size(); i++) {
+                int index = missing.get(i);
+                embeddings[index] = computed.get(i);
+                put(normalize(queries.get(index)), computed.get(i));
+            }
+        }
+        return Arrays.asList(embeddings);
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        Path file = props.snapshotFile();
+        if (file == null || file.toString().isEmpty() || model == null) {
+            return;
+        }
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            int written;
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                synchronized (entries) {
+                    int dimensions = entries.isEmpty() ? 0 : entries.values().iterator().next().length;
+                    List<Map.Entry<String, float[]>> snapshot = entries.entrySet().stream()
+                            .filter(e -> e.getValue().length == dimensions)
+                            .toList();
+                    written = snapshot.size();
+                    out.writeInt(SNAPSHOT_VERSION);
+                    writeString(out, model);
+                    out.writeInt(dimensions);
+                    out.writeInt(written);
+                    for (Map.Entry<String, float[]> e : snapshot) {
+                        writeString(out, e.getKey());
+                        for (float f : e.getValue()) {
+                            out.writeFloat(f);
+                        }
+                    }
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("🔍 QUERY EMBEDDING CACHE: Saved {} embeddings to {}", written, file);
+        } catch (IOException e) {
+            log.warn("🔍 QUERY EMBEDDING CACHE: Could not save snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    static String normalize(String query) {
+        String text = Normalizer.normalize(query, Normalizer.Form.NFKC).strip().toLowerCase(Locale.ROOT);
+        return WHITESPACE.matcher(text).replaceAll(" ");
+    }
+
+    /** Drops the reloaded entries if the model now returns vectors of other dimensions. */
+    private void checkDimensions(float[] embedding) {
+        int expected = snapshotDimensions;
+        if (expected == 0) {
+            return;
+        }
+        snapshotDimensions = 0;
+        if (embedding.length != expected) {
+            log.warn("🔍 QUERY EMBEDDING CACHE: Model returns {} dimensions, snapshot had {}; dropping reloaded entries",
+                    embedding.length, expected);
+            synchronized (entries) {
+                entries.values().removeIf(cached -> cached.length != embedding.length);
+            }
+        }
+    }
+
+    private void put(String key, float[] embedding) {
+        synchronized (entries) {
+            entries.put(key, embedding);
+            var it = entries.keySet().iterator();
+            while (entries.size() > props.maxEntries() && it.hasNext()) {
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private void load() {
+        Path file = props.snapshotFile();
+        if (file == null || file.toString().isEmpty() || !Files.exists(file)) {
+            return;
+        }
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("🔍 QUERY EMBEDDING CACHE: Ignoring snapshot {} with unknown version", file);
+                return;
+            }
+            String snapshotModel = readString(in);
+            if (!snapshotModel.equals(model)) {
+                log.warn("🔍 QUERY EMBEDDING CACHE: Ignoring snapshot {} of model {} (now {})", file, snapshotModel, model);
+                return;
+            }
+            int dimensions = in.readInt();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = readString(in);
+                float[] embedding = new float[dimensions];
+                for (int j = 0; j < embedding.length; j++) {
+                    embedding[j] = in.readFloat();
+                }
+                put(key, embedding);
+            }
+            snapshotDimensions = dimensions;
+            log.info("🔍 QUERY EMBEDDING CACHE: Loaded {} embeddings from {}", size(), file);
+        } catch (IOException | RuntimeException e) {
+            log.warn("🔍 QUERY EMBEDDING CACHE: Could not load snapshot {}: {}", file, e.getMessage());
+            synchronized (entries) {
+                entries.clear();
+            }
+            snapshotDimensions = 0;
+        }
+    }
+
+    /** Length-prefixed UTF-8, as {@code writeUTF} is limited to 64 KB. */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,32 @@
+package com.hrpd.onboarding.rag.ingest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SHA-256 content hashes used to address chunks and cached embeddings.
+ */
+public final class ContentHash {
+
+    private ContentHash() {
+    }
+
+    /** Hex-encoded SHA-256 of the UTF-8 bytes of {@code text}. */
+    public static String of(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** Hash of {@code text} together with {@code metadata} (entries in key order). */
+    public static String of(String text, Map<String, ?> metadata) {
+        return of(text + "\n" + new TreeMap<>(metadata));
+    }
+}
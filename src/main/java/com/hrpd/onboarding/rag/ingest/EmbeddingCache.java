@@ -0,0 +1,126 @@
+package com.hrpd.onboarding.rag.ingest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Local, persistent cache of chunk embeddings keyed by content hash, so re-ingesting
+ * unchanged text (e.g. after the vector table was recreated) never calls the embedding API.
+ *
+ * Embeddings are appended to one file per embedding model; each record is
+ * {@code [32-byte SHA-256][int dimensions][dimensions x float]}. Only the hash-to-offset
+ * index is kept in memory; vectors are read back with positional reads. A truncated
+ * record left by a crash is cut off when the file is opened.
+ */
+@Slf4j
+public class EmbeddingCache implements DisposableBean {
+
+    private static final int HASH_BYTES = 32;
+    private static final int HEADER_BYTES = HASH_BYTES + Integer.BYTES;
+
+    private final FileChannel channel;
+    private final Map<String, Long> offsets = new HashMap<>();
+    private long size;
+
+    public EmbeddingCache(Path dir, String model) {
+        try {
+            Files.createDirectories(dir);
+            Path file = dir.resolve(model.replaceAll("[^A-Za-z0-9._-]", "_") + ".bin");
+            this.channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            load();
+            log.info("📥 INGEST: Embedding cache {} holds {} embeddings", file, offsets.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Cached embedding for a content hash, or null. */
+    public synchronized float[] get(String contentHash) {
+        Long offset = offsets.get(contentHash);
+        if (offset == null) {
+            return null;
+        }
+        try {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(header, offset + HASH_BYTES);
+            int dimensions = header.flip().getInt();
+            ByteBuffer data = ByteBuffer.allocate(dimensions * Float.BYTES);
+            while (data.hasRemaining()) {
+                channel.read(data, offset + HEADER_BYTES + data.position());
+            }
+            float[] vector = new float[dimensions];
+            data.flip().asFloatBuffer().get(vector);
+            return vector;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized void put(String contentHash, float[] embedding) {
+        if (offsets.containsKey(contentHash)) {
+            return;
+        }
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + embedding.length * Float.BYTES);
+        record.put(HexFormat.of().parseHex(contentHash)).putInt(embedding.length);
+        record.asFloatBuffer().put(embedding);
+        record.rewind();
+        try {
+            long offset = size;
+            while (record.hasRemaining()) {
+                channel.write(record, offset + record.position());
+            }
+            offsets.put(contentHash, offset);
+            size += record.capacity();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized int size() {
+        return offsets.size();
+    }
+
+    @Override
+    public synchronized void destroy() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    private void load() throws IOException {
+        long fileSize = channel.size();
+        long offset = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (offset + HEADER_BYTES <= fileSize) {
+            header.clear();
+            while (header.hasRemaining()) {
+                channel.read(header, offset + header.position());
+            }
+            header.flip();
+            byte[] hash = new byte[HASH_BYTES];
+            header.get(hash);
+            long next = offset + HEADER_BYTES + (long) header.getInt() * Float.BYTES;
+            if (next > fileSize) {
+                break;
+            }
+            offsets.put(HexFormat.of().formatHex(hash), offset);
+            offset = next;
+        }
+        if (offset < fileSize) {
+            log.warn("📥 INGEST: Dropping {} bytes of incomplete embedding cache record", fileSize - offset);
+            channel.truncate(offset);
+        }
+        size = offset;
+    }
+}
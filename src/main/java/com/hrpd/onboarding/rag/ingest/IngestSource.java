@@ -0,0 +1,27 @@
+package com.hrpd.onboarding.rag.ingest;
+
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+
+/**
+ * One document entering the ingestion pipeline. The content is a stream of lines so
+ * uploaded files can be chunked while they are still being read.
+ *
+ * @param id       stable document key (file name, record id); re-ingesting the same key replaces the
+ *                 document's changed chunks
+ * @param lines    document content, line by line
+ * @param metadata metadata attached to every chunk of the document
+ */
+public record IngestSource(String id, Flux<String> lines, Map<String, Object> metadata) {
+
+    /**
+     * Document held in memory. Without an explicit id, the document is keyed by the hash of its text.
+     */
+    public static IngestSource of(String id, String text, Map<String, Object> metadata) {
+        return new IngestSource(
+                id != null && !id.isBlank() ? id : ContentHash.of(text),
+                Flux.fromStream(text::lines),
+                metadata == null ? Map.of() : metadata);
+    }
+}
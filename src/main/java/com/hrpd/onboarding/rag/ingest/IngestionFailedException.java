@@ -0,0 +1,21 @@
+package com.hrpd.onboarding.rag.ingest;
+
+import com.hrpd.onboarding.rag.ingest.IngestionJob.IngestionJobStatus;
+
+/**
+ * Signals an ingestion run that did not complete. The cause is the error that stopped it;
+ * the job status, also available from the jobs endpoint, tells what was stored before.
+ */
+public class IngestionFailedException extends RuntimeException {
+
+    private final transient IngestionJobStatus status;
+
+    public IngestionFailedException(IngestionJobStatus status, Throwable cause) {
+        super("Ingestion job " + status.id() + " failed: " + status.error(), cause);
+        this.status = status;
+    }
+
+    public IngestionJobStatus status() {
+        return status;
+    }
+}
@@ -0,0 +1,102 @@
+package com.hrpd.onboarding.rag.ingest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one ingestion run. Counters are updated by the pipeline while it runs
+ * and read through {@link #status()}.
+ */
+public class IngestionJob {
+
+    public enum State { RUNNING, COMPLETED, FAILED }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Instant startedAt = Instant.now();
+    private final AtomicLong documents = new AtomicLong();
+    private final AtomicLong chunks = new AtomicLong();
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong cachedEmbeddings = new AtomicLong();
+    private volatile State state = State.RUNNING;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public String id() {
+        return id;
+    }
+
+    public void documentReceived() {
+        documents.incrementAndGet();
+    }
+
+    public void chunked() {
+        chunks.incrementAndGet();
+    }
+
+    public void stored(int count) {
+        stored.addAndGet(count);
+    }
+
+    public void unchanged() {
+        unchanged.incrementAndGet();
+    }
+
+    public void deleted(int count) {
+        deleted.addAndGet(count);
+    }
+
+    public void cachedEmbeddings(int count) {
+        cachedEmbeddings.addAndGet(count);
+    }
+
+    public void complete() {
+        finishedAt = Instant.now();
+        state = State.COMPLETED;
+    }
+
+    public void fail(Throwable t) {
+        error = t.getMessage();
+        finishedAt = Instant.now();
+        state = State.FAILED;
+    }
+
+    public IngestionJobStatus status() {
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long elapsedMs = Math.max(Duration.between(startedAt, end).toMillis(), 1);
+        long storedChunks = stored.get();
+        return new IngestionJobStatus(id, state, documents.get(), chunks.get(), storedChunks,
+                unchanged.get(), deleted.get(), cachedEmbeddings.get(),
+                startedAt, finishedAt, elapsedMs, storedChunks * 1000.0 / elapsedMs, error);
+    }
+
+    /**
+     * Snapshot returned by the job-status endpoint.
+     *
+     * @param documents        documents received so far
+     * @param chunks           chunks produced by the chunker
+     * @param storedChunks     chunks embedded and written to pgvector
+     * @param unchangedChunks  chunks skipped because they are already stored with the same content
+     * @param deletedChunks    stale chunks removed (changed or removed documents)
+     * @param cachedEmbeddings embeddings served by the local embedding cache instead of the API
+     * @param chunksPerSecond  throughput of stored chunks since the start
+     */
+    public record IngestionJobStatus(
+            String id,
+            State state,
+            long documents,
+            long chunks,
+            long storedChunks,
+            long unchangedChunks,
+            long deletedChunks,
+            long cachedEmbeddings,
+            Instant startedAt,
+            Instant finishedAt,
+            long elapsedMs,
+            double chunksPerSecond,
+            String error) {
+    }
+}
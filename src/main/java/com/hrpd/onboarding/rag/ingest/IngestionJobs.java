@@ -0,0 +1,43 @@
+package com.hrpd.onboarding.rag.ingest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory registry of ingestion jobs. Running jobs are always kept; only the most
+ * recent {@code retainedJobs} finished jobs are remembered.
+ */
+public class IngestionJobs {
+
+    private final int retainedJobs;
+    private final Map<String, IngestionJob> jobs = new LinkedHashMap<>();
+
+    public IngestionJobs(int retainedJobs) {
+        this.retainedJobs = retainedJobs;
+    }
+
+    public synchronized IngestionJob start() {
+        var job = new IngestionJob();
+        jobs.put(job.id(), job);
+        long finished = jobs.values().stream().filter(j -> j.status().state() != IngestionJob.State.RUNNING).count();
+        var it = jobs.values().iterator();
+        while (finished > retainedJobs && it.hasNext()) {
+            if (it.next().status().state() != IngestionJob.State.RUNNING) {
+                it.remove();
+                finished--;
+            }
+        }
+        return job;
+    }
+
+    public synchronized Optional<IngestionJob> get(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public synchronized List<IngestionJob> all() {
+        return new ArrayList<>(jobs.values());
+    }
+}
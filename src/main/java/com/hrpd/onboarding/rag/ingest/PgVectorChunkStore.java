@@ -0,0 +1,133 @@
+package com.hrpd.onboarding.rag.ingest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pgvector.PGvector;
+import org.springframework.ai.document.Document;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Chunk-level access to the pgvector table used by PgVectorStore.
+ *
+ * Already-embedded chunks are written with one JDBC batch per embedding batch (the driver
+ * rewrites it into a multi-row INSERT thanks to {@code reWriteBatchedInserts}); going through
+ * {@code VectorStore.add} would embed the documents a second time. Chunks carry their document
+ * key, collection and content hash in metadata ({@link #DOC_ID}, {@link #COLLECTION},
+ * {@link #CONTENT_HASH}) so re-ingestion can skip unchanged chunks and delete stale ones. The hash
+ * covers the chunk text and the document metadata, so a metadata-only change is re-applied.
+ */
+public class PgVectorChunkStore {
+
+    public static final String DOC_ID = "doc_id";
+    public static final String CONTENT_HASH = "content_hash";
+    public static final String COLLECTION = "collection";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String table;
+    private final String upsertSql;
+
+    public PgVectorChunkStore(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, String schemaName, String tableName) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.table = schemaName + "." + tableName;
+        this.upsertSql = """
+                INSERT INTO %s (id, content, metadata, embedding)
+                VALUES (?, ?, ?::jsonb, ?)
+                ON CONFLICT (id) DO UPDATE
+                SET content = EXCLUDED.content, metadata = EXCLUDED.metadata, embedding = EXCLUDED.embedding
+                """.formatted(table);
+    }
+
+    /**
+     * Deterministic row id of a chunk, so the same content of the same document of a collection
+     * always maps to the same row.
+     */
+    public static String chunkId(String collection, String docId, String contentHash) {
+        return UUID.nameUUIDFromBytes((collection + "#" + docId + "#" + contentHash).getBytes()).toString();
+    }
+
+    /**
+     * Upserts the documents with their embeddings (same order) in a single batch.
+     */
+    public void write(List<Document> documents, List<float[]> embeddings) {
+        jdbcTemplate.batchUpdate(upsertSql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Document document = documents.get(i);
+                ps.setObject(1, UUID.fromString(document.getId()));
+                ps.setString(2, document.getText());
+                ps.setString(3, toJson(document));
+                ps.setObject(4, new PGvector(embeddings.get(i)));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return documents.size();
+            }
+        });
+    }
+
+    /**
+     * Content hash to row id of every chunk currently stored for a document of a collection.
+     */
+    public Map<String, UUID> chunkHashes(String collection, String docId) {
+        Map<String, UUID> hashes = new HashMap<>();
+        jdbcTemplate.query("SELECT id, metadata->>'" + CONTENT_HASH + "' FROM " + table
+                        + " WHERE metadata->>'" + DOC_ID + "' = ? AND metadata->>'" + COLLECTION + "' = ?",
+                rs -> {
+                    hashes.put(rs.getString(2), rs.getObject(1, UUID.class));
+                },
+                docId, collection);
+        return hashes;
+    }
+
+    /**
+     * Deletes chunks by row id.
+     *
+     * @return number of deleted rows
+     */
+    public int delete(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("DELETE FROM " + table + " WHERE id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("uuid", ids.toArray()));
+            return ps;
+        });
+    }
+
+    /**
+     * Deletes the chunks of every document of {@code collection} whose key is not in {@code keep}.
+     *
+     * @return number of deleted rows
+     */
+    public int deleteDocumentsExcept(String collection, Collection<String> keep) {
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("DELETE FROM " + table
+                    + " WHERE metadata->>'" + COLLECTION + "' = ? AND NOT (metadata->>'" + DOC_ID + "' = ANY(?))");
+            ps.setString(1, collection);
+            ps.setArray(2, con.createArrayOf("text", keep.toArray()));
+            return ps;
+        });
+    }
+
+    private String toJson(Document document) {
+        try {
+            return objectMapper.writeValueAsString(document.getMetadata());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.hrpd.onboarding.rag.ingest;
+
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a stream of lines into chunks of at most {@code maxTokens} tokens.
+ *
+ * Lines are packed greedily; a blank line closes the current chunk once it is at least half
+ * full so chunks tend to end on paragraph boundaries. Lines longer than the budget are split
+ * on whitespace.
+ */
+public class TextChunker {
+
+    private final TokenCountEstimator estimator;
+    private final int maxTokens;
+
+    public TextChunker(TokenCountEstimator estimator, int maxTokens) {
+        this.estimator = estimator;
+        this.maxTokens = maxTokens;
+    }
+
+    public Flux<String> chunk(Flux<String> lines) {
+        return Flux.defer(() -> {
+            var chunk = new Accumulator();
+            return lines.concatMapIterable(chunk::add)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(chunk.flush())));
+        });
+    }
+
+    private final class Accumulator {
+
+        private final StringBuilder text = new StringBuilder();
+        private int tokens;
+
+        List<String> add(String line) {
+            List<String> done = new ArrayList<>(1);
+            if (line.isBlank()) {
+                if (tokens >= maxTokens / 2) {
+                    flushInto(done);
+                } else if (!text.isEmpty()) {
+                    text.append('\n');
+                }
+                return done;
+            }
+
+            int lineTokens = estimator.estimate(line);
+            if (lineTokens > maxTokens) {
+                for (String word : line.split("\\s+")) {
+                    append(word, estimator.estimate(word), ' ', done);
+                }
+                return done;
+            }
+            append(line, lineTokens, '\n', done);
+            return done;
+        }
+
+        List<String> flush() {
+            List<String> done = new ArrayList<>(1);
+            flushInto(done);
+            return done;
+        }
+
+        private void append(String piece, int pieceTokens, char separator, List<String> done) {
+            if (tokens + pieceTokens > maxTokens) {
+                flushInto(done);
+            }
+            if (!text.isEmpty()) {
+                text.append(separator);
+            }
+            text.append(piece);
+            tokens += pieceTokens;
+        }
+
+        private void flushInto(List<String> done) {
+            String chunk = text.toString().strip();
+            if (!chunk.isEmpty()) {
+                done.add(chunk);
+            }
+            text.setLength(0);
+            tokens = 0;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.hrpd.onboarding.rag.retrieval;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the JSON metadata column of the pgvector table into a Document metadata map.
+ */
+final class ChunkMetadata {
+
+    private static final TypeReference<Map<String, Object>> METADATA = new TypeReference<>() {
+    };
+
+    private ChunkMetadata() {
+    }
+
+    /** Metadata without null values (which Document rejects); empty for a null column. */
+    static Map<String, Object> fromJson(ObjectMapper objectMapper, String json) {
+        if (json == null) {
+            return Map.of();
+        }
+        try {
+            Map<String, Object> metadata = new HashMap<>(objectMapper.readValue(json, METADATA));
+            metadata.values().removeIf(value -> value == null);
+            return metadata;
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.hrpd.onboarding.rag.retrieval;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hrpd.onboarding.rag.Domains;
+import org.springframework.ai.document.Document;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+
+/**
+ * Keyword search over the pgvector table, backed by the {@code content_tsv} column and its GIN index (V5).
+ *
+ * The question is parsed with {@code plainto_tsquery} and its terms are OR-ed, so a chunk matching
+ * only some of them still qualifies; chunks are ranked with {@code ts_rank_cd}, which rewards
+ * matching more terms and matching them close together.
+ */
+public class FullTextSearch {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String searchSql;
+    private final String domainSearchSql;
+
+    public FullTextSearch(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, String schemaName, String tableName) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        String table = schemaName + "." + tableName;
+        this.searchSql = """
+                SELECT id, content, metadata::text
+                FROM %s, replace(plainto_tsquery('english', ?)::text, '&', '|')::tsquery AS query
+                WHERE content_tsv @@ query
+                ORDER BY ts_rank_cd(content_tsv, query) DESC
+                LIMIT ?
+                """.formatted(table);
+        this.domainSearchSql = """
+                SELECT id, content, metadata::text
+                FROM %s, replace(plainto_tsquery('english', ?)::text, '&', '|')::tsquery AS query
+                WHERE content_tsv @@ query AND metadata->>'%s' IN (?, '%s')
+                ORDER BY ts_rank_cd(content_tsv, query) DESC
+                LIMIT ?
+                """.formatted(table, Domains.KEY, Domains.GENERAL);
+    }
+
+    /**
+     * Best matching chunks first; blocks on JDBC.
+     *
+     * @param domain only search chunks of this domain and general ones, or null for the whole corpus
+     */
+    public List<Document> search(String text, String domain, int limit) {
+        RowMapper<Document> rowMapper = (rs, rowNum) -> Document.builder()
+                .id(rs.getString(1))
+                .text(rs.getString(2))
+                .metadata(ChunkMetadata.fromJson(objectMapper, rs.getString(3)))
+                .build();
+        return domain == null
+                ? jdbcTemplate.query(searchSql, rowMapper, text, limit)
+                : jdbcTemplate.query(domainSearchSql, rowMapper, text, domain, limit);
+    }
+}
@@ -0,0 +1,313 @@
+package com.hrpd.onboarding.rag.retrieval;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntPredicate;
+
+/**
+ * Hierarchical navigable small world graph (Malkov and Yashunin) over vectors compared by
+ * cosine distance. Vectors are normalized on the way in, so the distance is one minus the
+ * dot product.
+ *
+ * Vectors live off-heap in direct buffers of {@value #CHUNK_VECTORS} vectors each, so a large
+ * corpus adds little to the Java heap; only the neighbour lists stay on it. Removing a node only
+ * marks it deleted: it still routes searches but is never returned, until the owner rebuilds
+ * the index.
+ *
+ * Not thread-safe: concurrent searches are fine, but adds and removals need exclusive access.
+ */
+final class HnswIndex {
+
+    private static final int CHUNK_VECTORS = 1024;
+    private static final int MAX_LEVEL = 16;
+
+    /** A node and its distance to the query. */
+    record Scored(int node, float distance) {
+    }
+
+    private static final Comparator<Scored> CLOSEST_FIRST = Comparator.comparingDouble(Scored::distance);
+    private static final Comparator<Scored> FARTHEST_FIRST = CLOSEST_FIRST.reversed();
+
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+
+    private final List<FloatBuffer> chunks = new ArrayList<>();
+    /** links.get(node)[level] holds the neighbour count followed by the neighbour ids. */
+    private final List<int[][]> links = new ArrayList<>();
+    private final BitSet deleted = new BitSet();
+
+    private int dimensions = -1;
+    private int size;
+    private int deletedCount;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    /**
+     * @param m              neighbours per node on the upper levels (twice as many on level 0)
+     * @param efConstruction candidates considered when linking a new node
+     */
+    HnswIndex(int m, int efConstruction) {
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+    }
+
+    /** Nodes in the graph, deleted ones included. */
+    int size() {
+        return size;
+    }
+
+    int deletedCount() {
+        return deletedCount;
+    }
+
+    /**
+     * Adds a vector and returns its node id. The first vector fixes the number of dimensions.
+     */
+    int add(float[] vector) {
+        if (dimensions < 0) {
+            dimensions = vector.length;
+        } else if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions, got " + vector.length);
+        }
+        float[] q = normalize(vector);
+        int node = size;
+        store(node, q);
+
+        int level = randomLevel();
+        int[][] nodeLinks = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            nodeLinks[l] = new int[(l == 0 ? maxM0 : m) + 1];
+        }
+        links.add(nodeLinks);
+        size++;
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return node;
+        }
+
+        int ep = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            ep = closest(q, ep, l);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Scored> nearest = sorted(searchLayer(q, ep, efConstruction, l, null));
+            for (Scored neighbour : selectNeighbours(nearest, m)) {
+                connect(node, neighbour.node(), l);
+                connect(neighbour.node(), node, l);
+            }
+            ep = nearest.get(0).node();
+        }
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+        return node;
+    }
+
+    void remove(int node) {
+        if (!deleted.get(node)) {
+            deleted.set(node);
+            deletedCount++;
+        }
+    }
+
+    /**
+     * The {@code k} nearest live nodes accepted by the filter, closest first.
+     *
+     * @param ef     candidates kept while searching level 0 (higher is more accurate and slower)
+     * @param accept filter on node ids, or null to accept every live node
+     */
+    List<Scored> search(float[] query, int k, int ef, IntPredicate accept) {
+        if (entryPoint < 0 || query.length != dimensions) {
+            return List.of();
+        }
+        float[] q = normalize(query);
+        int ep = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            ep = closest(q, ep, l);
+        }
+        IntPredicate live = accept == null ? node -> !deleted.get(node) : node -> !deleted.get(node) && accept.test(node);
+        List<Scored> nearest = sorted(searchLayer(q, ep, Math.max(ef, k), 0, live));
+        return nearest.size() > k ? nearest.subList(0, k) : nearest;
+    }
+
+    /** Greedy walk towards the query on one level. */
+    private int closest(float[] q, int ep, int level) {
+        int best = ep;
+        float bestDistance = distance(q, ep);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] neighbours = links.get(best)[level];
+            for (int i = 1; i <= neighbours[0]; i++) {
+                float d = distance(q, neighbours[i]);
+                if (d < bestDistance) {
+                    bestDistance = d;
+                    best = neighbours[i];
+                    improved = true;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Best-first search of one level. Nodes rejected by {@code accept} are still expanded, so they
+     * keep routing the search, but never enter the results.
+     */
+    private PriorityQueue<Scored> searchLayer(float[] q, int ep, int ef, int level, IntPredicate accept) {
+        BitSet visited = new BitSet(size);
+        PriorityQueue<Scored> candidates = new PriorityQueue<>(CLOSEST_FIRST);
+        PriorityQueue<Scored> results = new PriorityQueue<>(FARTHEST_FIRST);
+
+        Scored start = new Scored(ep, distance(q, ep));
+        visited.set(ep);
+        candidates.add(start);
+        if (accept == null || accept.test(ep)) {
+            results.add(start);
+        }
+
+        while (!candidates.isEmpty()) {
+            Scored current = candidates.poll();
+            if (results.size() >= ef && current.distance() > results.peek().distance()) {
+                break;
+            }
+            int[] neighbours = links.get(current.node())[level];
+            for (int i = 1; i <= neighbours[0]; i++) {
+                int neighbour = neighbours[i];
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                float d = distance(q, neighbour);
+                if (results.size() < ef || d < results.peek().distance()) {
+                    candidates.add(new Scored(neighbour, d));
+                    if (accept == null || accept.test(neighbour)) {
+                        results.add(new Scored(neighbour, d));
+                        if (results.size() > ef) {
+                            results.poll();
+                        }
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Neighbour selection heuristic: a candidate is kept only if it is closer to the base node
+     * than to every neighbour kept so far, which spreads links across clusters. Remaining slots
+     * are filled with the closest pruned candidates.
+     */
+    private List<Scored> selectNeighbours(List<Scored> candidates, int max) {
+        if (candidates.size() <= max) {
+            return candidates;
+        }
+        List<Scored> selected = new ArrayList<>(max);
+        List<Scored> pruned = new ArrayList<>();
+        for (Scored candidate : candidates) {
+            if (selected.size() >= max) {
+                break;
+            }
+            float[] vector = vector(candidate.node());
+            boolean diverse = true;
+            for (Scored kept : selected) {
+                if (distance(vector, kept.node()) < candidate.distance()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            (diverse ? selected : pruned).add(candidate);
+        }
+        for (int i = 0; i < pruned.size() && selected.size() < max; i++) {
+            selected.add(pruned.get(i));
+        }
+        return selected;
+    }
+
+    /** Adds a link from one node to another, re-selecting the neighbours once the list is full. */
+    private void connect(int from, int to, int level) {
+        int[] neighbours = links.get(from)[level];
+        int count = neighbours[0];
+        if (count < neighbours.length - 1) {
+            neighbours[++neighbours[0]] = to;
+            return;
+        }
+        float[] base = vector(from);
+        List<Scored> candidates = new ArrayList<>(count + 1);
+        for (int i = 1; i <= count; i++) {
+            candidates.add(new Scored(neighbours[i], distance(base, neighbours[i])));
+        }
+        candidates.add(new Scored(to, distance(base, to)));
+        candidates.sort(CLOSEST_FIRST);
+        List<Scored> selected = selectNeighbours(candidates, neighbours.length - 1);
+        neighbours[0] = selected.size();
+        for (int i = 0; i < selected.size(); i++) {
+            neighbours[i + 1] = selected.get(i).node();
+        }
+    }
+
+    private int randomLevel() {
+        double r = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return Math.min(MAX_LEVEL, (int) (-Math.log(r) * levelMultiplier));
+    }
+
+    private float distance(float[] q, int node) {
+        FloatBuffer chunk = chunks.get(node / CHUNK_VECTORS);
+        int offset = (node % CHUNK_VECTORS) * dimensions;
+        float dot = 0;
+        for (int i = 0; i < dimensions; i++) {
+            dot += q[i] * chunk.get(offset + i);
+        }
+        return 1 - dot;
+    }
+
+    private float[] vector(int node) {
+        float[] vector = new float[dimensions];
+        chunks.get(node / CHUNK_VECTORS).get((node % CHUNK_VECTORS) * dimensions, vector);
+        return vector;
+    }
+
+    private void store(int node, float[] vector) {
+        if (node / CHUNK_VECTORS == chunks.size()) {
+            chunks.add(ByteBuffer.allocateDirect(CHUNK_VECTORS * dimensions * Float.BYTES)
+                    .order(ByteOrder.nativeOrder())
+                    .asFloatBuffer());
+        }
+        chunks.get(node / CHUNK_VECTORS).put((node % CHUNK_VECTORS) * dimensions, vector);
+    }
+
+    private static List<Scored> sorted(PriorityQueue<Scored> queue) {
+        List<Scored> list = new ArrayList<>(queue);
+        list.sort(CLOSEST_FIRST);
+        return list;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        float[] normalized = vector.clone();
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < normalized.length; i++) {
+                normalized[i] *= scale;
+            }
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,93 @@
+package com.hrpd.onboarding.rag.retrieval;
+
+import com.hrpd.onboarding.config.RetrievalProperties;
+import com.hrpd.onboarding.config.RetrievalProperties.Mode;
+import com.hrpd.onboarding.config.RetrievalProperties.Settings;
+import com.hrpd.onboarding.rag.Domains;
+import com.hrpd.onboarding.rag.retrieval.ReciprocalRankFusion.Ranking;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Finds the passages of a question with vector similarity search and, in HYBRID mode,
+ * Postgres full-text search. Both searches run concurrently and their rankings are merged
+ * with reciprocal-rank fusion: similarity search finds paraphrases, full-text search finds
+ * exact terms (product names, acronyms, error codes) that embeddings tend to blur.
+ */
+@Slf4j
+public class HybridRetriever {
+
+    private static final FilterExpressionBuilder FILTER = new FilterExpressionBuilder();
+
+    private final VectorStore vectorStore;
+    private final FullTextSearch fullTextSearch;
+    private final RetrievalProperties props;
+
+    /**
+     * @param fullTextSearch null to always search by similarity only (e.g. a store other than pgvector)
+     */
+    public HybridRetriever(VectorStore vectorStore, FullTextSearch fullTextSearch, RetrievalProperties props) {
+        this.vectorStore = vectorStore;
+        this.fullTextSearch = fullTextSearch;
+        this.props = props;
+    }
+
+    /** Whether retrieval depends on the intent: domain partitioning or per-intent settings. */
+    public boolean usesIntent() {
+        return props.partitionByDomain() || !props.intents().isEmpty();
+    }
+
+    /**
+     * Best passages for the question, using the settings of the intent (null for the defaults).
+     * With domain partitioning only the intent's domain and the general chunks are searched.
+     * Both searches block on JDBC (and the embedding model), so they run on boundedElastic.
+     */
+    public Mono<List<Document>> retrieve(String query, String intent) {
+        Settings settings = props.settingsFor(intent);
+        String domain = props.partitionByDomain() ? Domains.forIntent(intent) : null;
+        return search(query, domain, settings);
+    }
+
+    private Mono<List<Document>> search(String query, String domain, Settings settings) {
+        int candidates = Math.max(settings.candidates(), settings.topK());
+
+        if (props.mode() == Mode.VECTOR || fullTextSearch == null) {
+            return Mono.fromCallable(() -> vectorSearch(query, domain, settings, settings.topK()))
+                    .subscribeOn(Schedulers.boundedElastic());
+        }
+
+        Mono<List<Document>> vector = Mono.fromCallable(() -> vectorSearch(query, domain, settings, candidates))
+                .subscribeOn(Schedulers.boundedElastic());
+        Mono<List<Document>> lexical = Mono.fromCallable(() -> fullTextSearch.search(query, domain, candidates))
+                .subscribeOn(Schedulers.boundedElastic());
+
+        return Mono.zip(vector, lexical, (vectorDocs, lexicalDocs) -> {
+            List<Document> fused = ReciprocalRankFusion.fuse(List.of(
+                            new Ranking(vectorDocs, settings.vectorWeight()),
+                            new Ranking(lexicalDocs, settings.lexicalWeight())),
+                    settings.rrfK(), settings.topK());
+            log.debug("🔍 RETRIEVE: {} vector and {} full-text candidates fused into {} passages",
+                    vectorDocs.size(), lexicalDocs.size(), fused.size());
+            return fused;
+        });
+    }
+
+    private List<Document> vectorSearch(String query, String domain, Settings settings, int topK) {
+        var request = SearchRequest.builder()
+                .query(query)
+                .topK(topK)
+                .similarityThreshold(settings.similarityThreshold());
+        if (domain != null) {
+            // PgVectorStore renders this as the predicate of the domain's partial HNSW index (V10)
+            request.filterExpression(FILTER.in(Domains.KEY, domain, Domains.GENERAL).build());
+        }
+        return vectorStore.similaritySearch(request.build());
+    }
+}
@@ -0,0 +1,81 @@
+package com.hrpd.onboarding.rag.retrieval;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.filter.FilterExpressionConverter;
+import org.springframework.ai.vectorstore.filter.converter.SimpleVectorStoreFilterExpressionConverter;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * VectorStore answering similarity searches from a {@link VectorMirror}, with writes going to
+ * the pgvector store the mirror replicates (which then notifies the mirror).
+ *
+ * Filter expressions are evaluated in-process the way SimpleVectorStore does it, as SpEL over
+ * the metadata map. Until the mirror has loaded, searches go to pgvector.
+ */
+public class MirroredVectorStore implements VectorStore {
+
+    private final VectorMirror mirror;
+    private final EmbeddingModel embeddingModel;
+    private final VectorStore delegate;
+
+    private final FilterExpressionConverter filterConverter = new SimpleVectorStoreFilterExpressionConverter();
+    private final ExpressionParser parser = new SpelExpressionParser();
+    private final Map<String, Expression> filters = new ConcurrentHashMap<>();
+
+    public MirroredVectorStore(VectorMirror mirror, EmbeddingModel embeddingModel, VectorStore delegate) {
+        this.mirror = mirror;
+        this.embeddingModel = embeddingModel;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void add(List<Document> documents) {
+        delegate.add(documents);
+    }
+
+    @Override
+    public void delete(List<String> idList) {
+        delegate.delete(idList);
+    }
+
+    @Override
+    public void delete(Filter.Expression filterExpression) {
+        delegate.delete(filterExpression);
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+        if (!mirror.isReady()) {
+            return delegate.similaritySearch(request);
+        }
+        float[] embedding = embeddingModel.embed(request.getQuery());
+        Predicate<Map<String, Object>> filter = request.hasFilterExpression()
+                ? predicate(request.getFilterExpression())
+                : null;
+        return mirror.search(embedding, request.getTopK(), request.getSimilarityThreshold(), filter);
+    }
+
+    private Predicate<Map<String, Object>> predicate(Filter.Expression filterExpression) {
+        // a handful of distinct filters (one per domain): parse each once
+        Expression expression = filters.computeIfAbsent(filterConverter.convertExpression(filterExpression),
+                parser::parseExpression);
+        // one context per query (not per visited node): only the #metadata variable changes
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        return metadata -> {
+            context.setVariable("metadata", metadata);
+            return Boolean.TRUE.equals(expression.getValue(context, Boolean.class));
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.hrpd.onboarding.rag.retrieval;
+
+import org.springframework.ai.document.Document;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reciprocal-rank fusion: a document scores {@code weight / (k + rank)} in every ranking it
+ * appears in (rank starting at 1) and the scores are summed. Only ranks are used, so the
+ * cosine similarities of the vector search and the ts_rank values of the full-text search
+ * never have to be put on the same scale.
+ */
+final class ReciprocalRankFusion {
+
+    private ReciprocalRankFusion() {
+    }
+
+    /** A ranking (best first) and its weight in the fusion. */
+    record Ranking(List<Document> documents, double weight) {
+    }
+
+    /**
+     * Fuses the rankings into the {@code limit} best documents. Documents are matched by id;
+     * the instance of the first ranking that contains a document is kept.
+     */
+    static List<Document> fuse(List<Ranking> rankings, int k, int limit) {
+        Map<String, Document> documents = new LinkedHashMap<>();
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (Ranking ranking : rankings) {
+            List<Document> ranked = ranking.documents();
+            for (int i = 0; i < ranked.size(); i++) {
+                Document document = ranked.get(i);
+                documents.putIfAbsent(document.getId(), document);
+                scores.merge(document.getId(), ranking.weight() / (k + i + 1), Double::sum);
+            }
+        }
+        // stable sort: ties keep the order of the first ranking
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .map(entry -> documents.get(entry.getKey()))
+                .toList();
+    }
+}
@@ -0,0 +1,292 @@
+package com.hrpd.onboarding.rag.retrieval;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hrpd.onboarding.config.RetrievalProperties.Mirror;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * In-process read replica of the pgvector table: every chunk with its embedding in an
+ * {@link HnswIndex}, so similarity searches cost no database round-trip.
+ *
+ * On start it LISTENs on {@value #CHANNEL} over a dedicated R2DBC connection (the V7 trigger
+ * notifies the id of every inserted, updated or deleted row), then loads the whole table.
+ * Notified ids are re-read in batches and upserted or removed, so the replica follows
+ * ingestion on any instance. When the connection drops, it reconnects and reloads, since
+ * notifications sent meanwhile are lost. Deleted vectors stay in the graph as tombstones
+ * until they exceed {@code rebuildDeletedRatio}, then the graph is rebuilt from the table.
+ *
+ * Until the first load has finished {@link #isReady()} is false and searches go to pgvector.
+ *
+ * Metrics:
+ *  - onboarding.retrieve.mirror.size (live vectors)
+ *  - onboarding.retrieve.mirror.reloads
+ */
+@Slf4j
+public class VectorMirror implements SmartLifecycle {
+
+    static final String CHANNEL = "vector_store_changes";
+
+    private static final String RELOAD = "";
+    private static final int PAGE_SIZE = 1000;
+    private static final String FIRST_ID = "00000000-0000-0000-0000-000000000000";
+
+    /** The index and the documents of its nodes; replaced as a whole on reload. */
+    private record Replica(HnswIndex index, List<Document> documents, Map<String, Integer> nodes) {
+
+        Replica(Mirror props) {
+            this(new HnswIndex(props.m(), props.efConstruction()), new ArrayList<>(), new HashMap<>());
+        }
+
+        void upsert(Document document, float[] embedding) {
+            remove(document.getId());
+            int node = index.add(embedding);
+            documents.add(document);
+            nodes.put(document.getId(), node);
+        }
+
+        void remove(String id) {
+            Integer node = nodes.remove(id);
+            if (node != null) {
+                index.remove(node);
+                documents.set(node, null);
+            }
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ConnectionFactory connectionFactory;
+    private final Mirror props;
+    private final String pageSql;
+    private final String byIdSql;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Scheduler writer = Schedulers.newSingle("vector-mirror");
+    private final Counter reloads;
+
+    private volatile Replica replica;
+    private volatile Disposable listener;
+
+    public VectorMirror(JdbcTemplate jdbcTemplate,
+                        ObjectMapper objectMapper,
+                        ConnectionFactory connectionFactory,
+                        String schemaName,
+                        String tableName,
+                        Mirror props,
+                        MeterRegistry registry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.connectionFactory = connectionFactory;
+        this.props = props;
+        String table = schemaName + "." + tableName;
+        this.pageSql = "SELECT id, content, metadata::text, embedding::text FROM " + table
+                + " WHERE id > ?::uuid ORDER BY id LIMIT ?";
+        this.byIdSql = "SELECT id, content, metadata::text, embedding::text FROM " + table + " WHERE id = ANY(?)";
+        this.reloads = Counter.builder("onboarding.retrieve.mirror.reloads").register(registry);
+        Gauge.builder("onboarding.retrieve.mirror.size", this, VectorMirror::size).register(registry);
+    }
+
+    public boolean isReady() {
+        return replica != null;
+    }
+
+    /**
+     * Nearest documents to an embedding, closest first, with their score (cosine similarity)
+     * and, like PgVectorStore, their cosine distance in the "distance" metadata entry.
+     *
+     * @param filter test on the document metadata, or null to accept all documents
+     */
+    public List<Document> search(float[] embedding, int topK, double similarityThreshold,
+                                 Predicate<Map<String, Object>> filter) {
+        lock.readLock().lock();
+        try {
+            Replica current = replica;
+            if (current == null) {
+                return List.of();
+            }
+            List<HnswIndex.Scored> nearest = current.index().search(embedding, topK, props.efSearch(),
+                    filter == null ? null : node -> filter.test(current.documents().get(node).getMetadata()));
+            List<Document> results = new ArrayList<>(nearest.size());
+            for (HnswIndex.Scored scored : nearest) {
+                double similarity = 1 - scored.distance();
+                if (similarity < similarityThreshold) {
+                    break;
+                }
+                Document document = current.documents().get(scored.node());
+                Map<String, Object> metadata = new HashMap<>(document.getMetadata());
+                metadata.put("distance", scored.distance());
+                results.add(document.mutate().metadata(metadata).score(similarity).build());
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        listener = Flux.usingWhen(connectionFactory.create(), this::listen, Connection::close)
+                .onBackpressureBuffer()
+                .bufferTimeout(512, Duration.ofMillis(100))
+                .concatMap(ids -> Mono.fromRunnable(() -> apply(ids)).subscribeOn(writer))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("🧭 VECTOR MIRROR: Listener failed, reconnecting: {}",
+                                signal.failure().getMessage())))
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = listener;
+        if (current != null) {
+            current.dispose();
+        }
+        writer.dispose();
+        listener = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return listener != null;
+    }
+
+    /**
+     * Changed ids as they are notified; {@link #RELOAD} once LISTEN is in place. Subscribing to
+     * the notifications before issuing LISTEN makes sure none sent after the reload is missed.
+     */
+    private Flux<String> listen(Connection connection) {
+        if (!(connection instanceof PostgresqlConnection postgres)) {
+            return Flux.error(new IllegalStateException("The vector mirror needs an r2dbc-postgresql connection"));
+        }
+        Mono<String> subscribed = postgres.createStatement("LISTEN " + CHANNEL).execute()
+                .flatMap(result -> result.getRowsUpdated())
+                .then(Mono.just(RELOAD));
+        return Flux.merge(postgres.getNotifications().map(Notification::getParameter), subscribed);
+    }
+
+    /** Runs on the single writer thread: applies one batch of changes, or reloads everything. */
+    void apply(List<String> ids) {
+        if (ids.contains(RELOAD)) {
+            reload();
+            return;
+        }
+        Set<String> changed = new HashSet<>(ids);
+        Map<String, Row> rows = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(byIdSql);
+            ps.setArray(1, con.createArrayOf("uuid", changed.stream().map(UUID::fromString).toArray()));
+            return ps;
+        }, rs -> {
+            Row row = row(rs);
+            rows.put(row.document().getId(), row);
+        });
+
+        Replica current = replica;
+        if (current == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (String id : changed) {
+                Row row = rows.get(id);
+                if (row == null) {
+                    current.remove(id);
+                } else {
+                    current.upsert(row.document(), row.embedding());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("🧭 VECTOR MIRROR: Applied {} changes ({} upserted)", changed.size(), rows.size());
+
+        HnswIndex index = current.index();
+        if (index.deletedCount() > props.rebuildDeletedRatio() * index.size()) {
+            reload();
+        }
+    }
+
+    /** Builds a new replica from the whole table (keyset-paginated) and swaps it in. */
+    private void reload() {
+        long start = System.nanoTime();
+        Replica fresh = new Replica(props);
+        String after = FIRST_ID;
+        while (true) {
+            List<Row> page = jdbcTemplate.query(pageSql, (rs, rowNum) -> row(rs), after, PAGE_SIZE);
+            for (Row row : page) {
+                fresh.upsert(row.document(), row.embedding());
+            }
+            if (page.size() < PAGE_SIZE) {
+                break;
+            }
+            after = page.get(page.size() - 1).document().getId();
+        }
+        lock.writeLock().lock();
+        try {
+            replica = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        reloads.increment();
+        log.info("🧭 VECTOR MIRROR: Loaded {} vectors in {} ms", fresh.nodes().size(),
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    private record Row(Document document, float[] embedding) {
+    }
+
+    private Row row(ResultSet rs) throws SQLException {
+        Document document = Document.builder()
+                .id(rs.getString(1))
+                .text(rs.getString(2) == null ? "" : rs.getString(2))
+                .metadata(ChunkMetadata.fromJson(objectMapper, rs.getString(3)))
+                .build();
+        return new Row(document, parseVector(rs.getString(4)));
+    }
+
+    /** pgvector's text form: "[0.1,0.2,...]". */
+    private static float[] parseVector(String text) {
+        String[] values = text.substring(1, text.length() - 1).split(",");
+        float[] vector = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            vector[i] = Float.parseFloat(values[i]);
+        }
+        return vector;
+    }
+
+    private double size() {
+        Replica current = replica;
+        return current == null ? 0 : current.nodes().size();
+    }
+}
@@ -0,0 +1,28 @@
+-- Domain-partitioned retrieval also searches the untagged ("general") chunks, so the partial HNSW
+-- indexes of V6 are rebuilt on the predicate PgVectorStore generates for the filter
+-- domain IN ('<x>', 'general'); it must match exactly for the planner to use them.
+DROP INDEX IF EXISTS idx_vector_store_embedding_it;
+DROP INDEX IF EXISTS idx_vector_store_embedding_hr;
+DROP INDEX IF EXISTS idx_vector_store_embedding_benefits;
+DROP INDEX IF EXISTS idx_vector_store_embedding_vacations;
+DROP INDEX IF EXISTS idx_vector_store_embedding_policies;
+
+CREATE INDEX IF NOT EXISTS idx_vector_store_embedding_it
+  ON vector_store USING hnsw (embedding vector_cosine_ops)
+  WHERE metadata::jsonb @@ '($.domain == "it" || $.domain == "general")'::jsonpath;
+
+CREATE INDEX IF NOT EXISTS idx_vector_store_embedding_hr
+  ON vector_store USING hnsw (embedding vector_cosine_ops)
+  WHERE metadata::jsonb @@ '($.domain == "hr" || $.domain == "general")'::jsonpath;
+
+CREATE INDEX IF NOT EXISTS idx_vector_store_embedding_benefits
+  ON vector_store USING hnsw (embedding vector_cosine_ops)
+  WHERE metadata::jsonb @@ '($.domain == "benefits" || $.domain == "general")'::jsonpath;
+
+CREATE INDEX IF NOT EXISTS idx_vector_store_embedding_vacations
+  ON vector_store USING hnsw (embedding vector_cosine_ops)
+  WHERE metadata::jsonb @@ '($.domain == "vacations" || $.domain == "general")'::jsonpath;
+
+CREATE INDEX IF NOT EXISTS idx_vector_store_embedding_policies
+  ON vector_store USING hnsw (embedding vector_cosine_ops)
+  WHERE metadata::jsonb @@ '($.domain == "policies" || $.domain == "general")'::jsonpath;
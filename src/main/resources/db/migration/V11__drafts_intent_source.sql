@@ -0,0 +1,3 @@
+-- Which classifier produced drafts.intent: 'llm' or 'local' (CentroidIntentClassifier).
+-- The local classifier trains on LLM labels only; earlier rows have no source and are not used.
+ALTER TABLE drafts ADD COLUMN IF NOT EXISTS intent_source TEXT;
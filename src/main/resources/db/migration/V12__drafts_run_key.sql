@@ -0,0 +1,6 @@
+-- Idempotency key of the run that produced a draft (chain_checkpoints.run_key), null for
+-- runs without one. A resumed run persists its draft again with the same key and start time
+-- (created_at), and the insert skips it. The index has to include the partition key.
+ALTER TABLE drafts ADD COLUMN IF NOT EXISTS run_key TEXT;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_drafts_run_key ON drafts (run_key, created_at);
@@ -0,0 +1,11 @@
+-- Text of the passages cited by drafts, once per distinct text (passage_refs[].hash is its
+-- SHA-256). The vector store deletes and re-ids chunks on re-ingestion, so drafts can no longer
+-- rely on it for their passages. last_used_at is refreshed (at most daily) whenever a draft cites
+-- the text again; DraftPartitions deletes texts not used within the drafts retention.
+CREATE TABLE IF NOT EXISTS draft_passages (
+  content_hash TEXT PRIMARY KEY,
+  content      TEXT NOT NULL,
+  last_used_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_draft_passages_last_used_at ON draft_passages (last_used_at);
@@ -0,0 +1,15 @@
+-- Content-addressed ingestion: chunks are looked up by document key and collection.
+-- The table is the one managed by Spring AI's PgVectorStore (default name vector_store);
+-- it is created here with the same layout so the indexes can be added before first use.
+CREATE TABLE IF NOT EXISTS vector_store (
+  id        UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+  content   TEXT,
+  metadata  JSON,
+  embedding VECTOR(1536)
+);
+
+CREATE INDEX IF NOT EXISTS idx_vector_store_doc_id
+  ON vector_store ((metadata->>'doc_id'));
+
+CREATE INDEX IF NOT EXISTS idx_vector_store_collection
+  ON vector_store ((metadata->>'collection'));
@@ -0,0 +1,9 @@
+-- Lexical side of hybrid retrieval: a full-text vector of every chunk, kept up to date by Postgres
+-- and indexed with GIN so keyword queries (error codes, product names, acronyms) do not scan the table.
+-- The text search configuration must match the one used by FullTextSearch ('english').
+ALTER TABLE vector_store
+  ADD COLUMN IF NOT EXISTS content_tsv TSVECTOR
+  GENERATED ALWAYS AS (to_tsvector('english', coalesce(content, ''))) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_vector_store_content_tsv
+  ON vector_store USING GIN (content_tsv);
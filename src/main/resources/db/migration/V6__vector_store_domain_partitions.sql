@@ -0,0 +1,36 @@
+-- Intent-partitioned retrieval: chunks carry a normalized metadata.domain (see Domains.normalize)
+-- and questions with a known intent only search their domain.
+
+-- Backfill chunks ingested before the domain was normalized (same rules as Domains.normalize).
+UPDATE vector_store
+SET metadata = (coalesce(metadata::jsonb, '{}'::jsonb) || jsonb_build_object('domain',
+        coalesce(nullif(regexp_replace(regexp_replace(regexp_replace(
+            lower(metadata->>'domain'), '[^a-z0-9]+', '-', 'g'), '^-+|-+$', '', 'g'), '^onboarding-', ''), ''),
+            'general')))::json;
+
+-- One partial HNSW index per domain, so an ANN query only walks the vectors of its domain.
+-- The predicate must be exactly the one PgVectorStore generates for the filter domain == '<x>',
+-- otherwise the planner cannot prove the index applies and falls back to the whole-table index.
+CREATE INDEX IF NOT EXISTS idx_vector_store_embedding_it
+  ON vector_store USING hnsw (embedding vector_cosine_ops)
+  WHERE metadata::jsonb @@ '$.domain == "it"'::jsonpath;
+
+CREATE INDEX IF NOT EXISTS idx_vector_store_embedding_hr
+  ON vector_store USING hnsw (embedding vector_cosine_ops)
+  WHERE metadata::jsonb @@ '$.domain == "hr"'::jsonpath;
+
+CREATE INDEX IF NOT EXISTS idx_vector_store_embedding_benefits
+  ON vector_store USING hnsw (embedding vector_cosine_ops)
+  WHERE metadata::jsonb @@ '$.domain == "benefits"'::jsonpath;
+
+CREATE INDEX IF NOT EXISTS idx_vector_store_embedding_vacations
+  ON vector_store USING hnsw (embedding vector_cosine_ops)
+  WHERE metadata::jsonb @@ '$.domain == "vacations"'::jsonpath;
+
+CREATE INDEX IF NOT EXISTS idx_vector_store_embedding_policies
+  ON vector_store USING hnsw (embedding vector_cosine_ops)
+  WHERE metadata::jsonb @@ '$.domain == "policies"'::jsonpath;
+
+-- Domain filter of the full-text search.
+CREATE INDEX IF NOT EXISTS idx_vector_store_domain
+  ON vector_store ((metadata->>'domain'));
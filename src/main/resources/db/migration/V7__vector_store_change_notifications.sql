@@ -0,0 +1,18 @@
+-- Change feed of the in-process vector mirror (VectorMirror): the id of every inserted, updated
+-- or deleted chunk is sent on the vector_store_changes channel; the mirror re-reads the row.
+CREATE OR REPLACE FUNCTION vector_store_notify_change() RETURNS trigger AS $$
+BEGIN
+  IF TG_OP = 'DELETE' THEN
+    PERFORM pg_notify('vector_store_changes', OLD.id::text);
+  ELSE
+    PERFORM pg_notify('vector_store_changes', NEW.id::text);
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS vector_store_change_notify ON vector_store;
+
+CREATE TRIGGER vector_store_change_notify
+  AFTER INSERT OR UPDATE OR DELETE ON vector_store
+  FOR EACH ROW EXECUTE FUNCTION vector_store_notify_change();
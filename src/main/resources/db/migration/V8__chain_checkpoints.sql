@@ -0,0 +1,16 @@
+-- Checkpoints of chain runs started with an idempotency key (ChainCheckpointStore).
+-- One row per run, overwritten after every stage with the context reached so far, so a
+-- retried, failed or crashed run resumes after its last completed stage.
+CREATE TABLE IF NOT EXISTS chain_checkpoints (
+  run_key    TEXT PRIMARY KEY,
+  user_text  TEXT NOT NULL,
+  plan       TEXT NOT NULL,             -- stages the run was planned with
+  stage      INT NOT NULL,              -- completed stages
+  status     TEXT NOT NULL,             -- RUNNING, FAILED or DONE
+  attempt    INT NOT NULL DEFAULT 1,    -- incremented by every resume; fences writes of older attempts
+  ctx        JSONB NOT NULL,
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_chain_checkpoints_updated_at ON chain_checkpoints (updated_at);
+CREATE INDEX IF NOT EXISTS idx_chain_checkpoints_running ON chain_checkpoints (updated_at) WHERE status = 'RUNNING';
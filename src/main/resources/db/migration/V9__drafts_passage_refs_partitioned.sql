@@ -0,0 +1,52 @@
+-- Drafts keep the vector store ids and scores of their passages (passage_refs) instead of the
+-- passage texts, which are joined back from vector_store only when a draft is read
+-- (TicketRepository.findDraft). The table is range-partitioned by UTC day on created_at, so
+-- expired days are dropped, or detached for archiving, as whole partitions (DraftPartitions)
+-- instead of being deleted row by row.
+--
+-- A table cannot be partitioned in place: the old one is kept as drafts_v1 with the passage
+-- texts until it is no longer needed, and its rows are copied without them into one partition
+-- holding everything before today, which expires as a whole once today is past retention.
+
+ALTER TABLE drafts RENAME TO drafts_v1;
+ALTER TABLE drafts_v1 RENAME CONSTRAINT drafts_pkey TO drafts_v1_pkey;
+ALTER INDEX IF EXISTS idx_drafts_created_at RENAME TO idx_drafts_v1_created_at;
+-- the new table takes over the id sequence, so ids stay unique across both
+ALTER TABLE drafts_v1 ALTER COLUMN id DROP DEFAULT;
+
+CREATE TABLE drafts (
+  id           BIGINT NOT NULL DEFAULT nextval('drafts_id_seq'),
+  user_text    TEXT NOT NULL,
+  intent       TEXT NOT NULL,
+  draft_answer TEXT NOT NULL,
+  passage_refs JSONB NOT NULL,          -- [{"id": "<vector_store id>", "score": 0.83}, ...], in citation order
+  created_at   TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE drafts_id_seq OWNED BY drafts.id;
+
+CREATE INDEX idx_drafts_created_at ON drafts (created_at);
+
+-- Rows for which no daily partition exists yet (maintenance not run for longer than
+-- onboarding.persistence.drafts.partitions-ahead); DraftPartitions deletes them past retention.
+CREATE TABLE drafts_default PARTITION OF drafts DEFAULT;
+
+-- History up to today, then today and the following week; DraftPartitions keeps creating days ahead.
+DO $$
+DECLARE
+  today DATE := (now() AT TIME ZONE 'UTC')::date;
+BEGIN
+  EXECUTE format('CREATE TABLE %I PARTITION OF drafts FOR VALUES FROM (MINVALUE) TO (%L)',
+                 'drafts_before_' || to_char(today, 'YYYYMMDD'), today::timestamp AT TIME ZONE 'UTC');
+  FOR d IN 0..7 LOOP
+    EXECUTE format('CREATE TABLE %I PARTITION OF drafts FOR VALUES FROM (%L) TO (%L)',
+                   'drafts_' || to_char(today + d, 'YYYYMMDD'),
+                   (today + d)::timestamp AT TIME ZONE 'UTC',
+                   (today + d + 1)::timestamp AT TIME ZONE 'UTC');
+  END LOOP;
+END $$;
+
+INSERT INTO drafts (id, user_text, intent, draft_answer, passage_refs, created_at)
+SELECT id, user_text, intent, draft_answer, '[]'::jsonb, created_at
+FROM drafts_v1;
@@ -0,0 +1,130 @@
+package com.hrpd.onboarding.chain.llm;
+
+import com.hrpd.onboarding.config.LlmClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LlmClientTest {
+
+    @BeforeAll
+    static void installBlockHound() {
+        BlockHound.install();
+    }
+
+    private static ChatModel answering(String text, CountDownLatch release) {
+        return prompt -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+        };
+    }
+
+    @Test
+    void blockingOnParallelThreadIsDetected() {
+        StepVerifier.create(Mono.fromCallable(() -> {
+                            Thread.sleep(10);
+                            return 1;
+                        })
+                        .subscribeOn(Schedulers.parallel()))
+                .expectError(BlockingOperationError.class)
+                .verify();
+    }
+
+    @Test
+    void stubModelBlocksUntilReleased() {
+        var release = new CountDownLatch(1);
+        var model = answering("ONBOARDING_IT", release);
+
+        StepVerifier.create(Mono.fromCallable(() -> model.call(new Prompt("classify me")))
+                        .subscribeOn(Schedulers.parallel()))
+                .expectError(BlockingOperationError.class)
+                .verify();
+    }
+
+    @Test
+    void callDoesNotBlockNonBlockingThreads() {
+        var release = new CountDownLatch(1);
+        var client = new LlmClient(answering("ONBOARDING_IT", release),
+                new LlmClientProperties(2, 10), new SimpleMeterRegistry());
+        Mono.delay(Duration.ofMillis(100)).subscribe(tick -> release.countDown());
+
+        Signal<String> outcome = Mono.defer(() -> client.call("classify me"))
+                .subscribeOn(Schedulers.parallel())
+                .materialize()
+                .block(Duration.ofSeconds(5));
+
+        assertThat(outcome.getThrowable()).as("no BlockingOperationError (or any other error)").isNull();
+        assertThat(outcome.get()).isEqualTo("ONBOARDING_IT");
+        assertThat(release.getCount()).isZero();
+    }
+
+    @Test
+    void rejectsCallsBeyondTheQueue() {
+        var release = new CountDownLatch(1);
+        var client = new LlmClient(answering("OTHER", release),
+                new LlmClientProperties(1, 0), new SimpleMeterRegistry());
+
+        var first = client.call("first").subscribe();
+        StepVerifier.create(client.call("second"))
+                .expectError(LlmSaturatedException.class)
+                .verify();
+
+        release.countDown();
+        first.dispose();
+    }
+
+    @Test
+    void cancelledCallGivesItsSlotBackEvenIfTheModelIgnoresInterrupts() {
+        var release = new CountDownLatch(1);
+        ChatModel model = prompt -> {
+            if (prompt.getContents().equals("slow")) {
+                while (release.getCount() > 0) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ignored) {
+                        // like a provider call stuck in a socket read
+                    }
+                }
+            }
+            return new ChatResponse(List.of(new Generation(new AssistantMessage(prompt.getContents()))));
+        };
+        var registry = new SimpleMeterRegistry();
+        var client = new LlmClient(model, new LlmClientProperties(1, 10), registry);
+
+        var slow = client.call("slow").subscribe();
+        Mono.delay(Duration.ofMillis(20)).repeat()
+                .takeUntil(tick -> registry.get("onboarding.llm.in.flight").gauge().value() == 1)
+                .blockLast(Duration.ofSeconds(5));
+        slow.dispose();
+
+        StepVerifier.create(client.call("fast"))
+                .expectNext("fast")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        assertThat(release.getCount()).as("the cancelled call is still running").isOne();
+
+        release.countDown();
+        client.destroy();
+    }
+}
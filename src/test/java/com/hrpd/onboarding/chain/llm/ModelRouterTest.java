@@ -0,0 +1,109 @@
+package com.hrpd.onboarding.chain.llm;
+
+import com.hrpd.onboarding.config.ModelRoutingProperties.Health;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ModelRouterTest {
+
+    /** No exploration, so routing is deterministic. */
+    private static final Health HEALTH = new Health(0.5, 0.9, 2, Duration.ofMinutes(1), 0);
+
+    /** Stub backend answering its own name after {@code delayMillis}, counting its calls. */
+    private static ChatModel backend(String name, long delayMillis, AtomicInteger calls) {
+        return prompt -> {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new ChatResponse(List.of(new Generation(new AssistantMessage(name))));
+        };
+    }
+
+    private static ChatModel failing(RuntimeException error, AtomicInteger calls) {
+        return prompt -> {
+            calls.incrementAndGet();
+            throw error;
+        };
+    }
+
+    private static ModelRouter router(Map<String, ChatModel> backends) {
+        return new ModelRouter(backends, Map.of("fast", List.copyOf(backends.keySet())), HEALTH,
+                new SimpleMeterRegistry());
+    }
+
+    private static String ask(ChatModel tier) {
+        return LlmClient.textOf(tier.call(new Prompt("classify me")));
+    }
+
+    @Test
+    void sendsTrafficToTheFastestBackend() {
+        var slowCalls = new AtomicInteger();
+        var fastCalls = new AtomicInteger();
+        Map<String, ChatModel> backends = new LinkedHashMap<>();
+        backends.put("slow", backend("slow", 40, slowCalls));
+        backends.put("fast", backend("fast", 1, fastCalls));
+        ChatModel tier = router(backends).tier("fast");
+
+        // each backend is tried once while it has no latency yet
+        ask(tier);
+        ask(tier);
+        for (int i = 0; i < 10; i++) {
+            assertThat(ask(tier)).isEqualTo("fast");
+        }
+        assertThat(slowCalls).hasValue(1);
+        assertThat(fastCalls).hasValue(11);
+    }
+
+    @Test
+    void failsOverAndEjectsAFailingBackend() {
+        var brokenCalls = new AtomicInteger();
+        var healthyCalls = new AtomicInteger();
+        Map<String, ChatModel> backends = new LinkedHashMap<>();
+        backends.put("broken", failing(new TransientAiException("503 Service Unavailable"), brokenCalls));
+        backends.put("healthy", backend("healthy", 20, healthyCalls));
+        ModelRouter router = router(backends);
+        ChatModel tier = router.tier("fast");
+
+        assertThat(ask(tier)).isEqualTo("healthy");
+        assertThat(ask(tier)).isEqualTo("healthy");
+        assertThat(router.isHealthy("broken")).isFalse();
+
+        // ejected: no more calls reach it, although it has no latency on record
+        assertThat(ask(tier)).isEqualTo("healthy");
+        assertThat(brokenCalls).hasValue(2);
+        assertThat(healthyCalls).hasValue(3);
+    }
+
+    @Test
+    void doesNotFailOverOnNonTransientErrors() {
+        var rejectingCalls = new AtomicInteger();
+        var otherCalls = new AtomicInteger();
+        Map<String, ChatModel> backends = new LinkedHashMap<>();
+        backends.put("rejecting", failing(new NonTransientAiException("400 Bad Request"), rejectingCalls));
+        backends.put("other", backend("other", 1, otherCalls));
+        ModelRouter router = router(backends);
+
+        assertThatThrownBy(() -> ask(router.tier("fast"))).isInstanceOf(NonTransientAiException.class);
+        assertThat(otherCalls).hasValue(0);
+        assertThat(router.isHealthy("rejecting")).isTrue();
+    }
+}
@@ -0,0 +1,225 @@
+package com.hrpd.onboarding.chain.orchestrator;
+
+import com.hrpd.onboarding.chain.Ctx;
+import com.hrpd.onboarding.chain.CtxField;
+import com.hrpd.onboarding.chain.Step;
+import com.hrpd.onboarding.chain.context.ContextAssembler;
+import com.hrpd.onboarding.chain.metrics.ChainMetrics;
+import com.hrpd.onboarding.chain.resilience.StepPolicies;
+import com.hrpd.onboarding.chain.steps.ContextAssemblyStep;
+import com.hrpd.onboarding.chain.steps.DraftAnswerStep;
+import com.hrpd.onboarding.chain.steps.IntentStep;
+import com.hrpd.onboarding.chain.steps.PersistStep;
+import com.hrpd.onboarding.chain.steps.RetrieveStep;
+import com.hrpd.onboarding.chain.steps.ValidateStep;
+import com.hrpd.onboarding.chain.validation.AnswerValidator;
+import com.hrpd.onboarding.config.ContextAssemblyProperties;
+import com.hrpd.onboarding.config.ResilienceProperties;
+import com.hrpd.onboarding.config.ResilienceProperties.Retry;
+import com.hrpd.onboarding.config.ResilienceProperties.StepLimits;
+import com.hrpd.onboarding.config.RetrievalProperties;
+import com.hrpd.onboarding.config.RetrievalProperties.Mode;
+import com.hrpd.onboarding.config.RetrievalProperties.Settings;
+import com.hrpd.onboarding.config.ValidationProperties;
+import com.hrpd.onboarding.rag.retrieval.HybridRetriever;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OnboardingChainOrchestratorServiceTest {
+
+    /** A step with the given declarations, recording when it starts and finishes. */
+    private static final class Stub implements Step {
+
+        private final String name;
+        private final Set<CtxField> reads;
+        private final Set<CtxField> writes;
+        private final Function<Ctx, Mono<Ctx>> body;
+        private final List<String> log;
+
+        Stub(String name, Set<CtxField> reads, Set<CtxField> writes, Function<Ctx, Mono<Ctx>> body, List<String> log) {
+            this.name = name;
+            this.reads = reads;
+            this.writes = writes;
+            this.body = body;
+            this.log = log;
+        }
+
+        @Override
+        public Mono<Ctx> apply(Ctx ctx) {
+            return Mono.defer(() -> {
+                log.add("start " + name);
+                return body.apply(ctx).doOnSuccess(result -> log.add("end " + name));
+            });
+        }
+
+        @Override
+        public Set<CtxField> reads() {
+            return reads;
+        }
+
+        @Override
+        public Set<CtxField> writes() {
+            return writes;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private final List<String> log = new CopyOnWriteArrayList<>();
+
+    private static StepPolicies stepPolicies() {
+        var retry = new Retry(2, Duration.ofMillis(10), Duration.ofMillis(50), 0.5, 0.1, 10);
+        var limits = new StepLimits(Duration.ofSeconds(5), true, 16, 2, 64, 128, Duration.ofSeconds(2), 2.0, 0.9);
+        return new StepPolicies(new ResilienceProperties(retry, limits, null), new SimpleMeterRegistry());
+    }
+
+    private static OnboardingChainOrchestratorService orchestrator(List<Step> steps) {
+        return new OnboardingChainOrchestratorService(steps, stepPolicies(), new ChainMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static RetrieveStep retrieveStep(boolean partitionByDomain) {
+        var settings = new Settings(6, 0.0, 20, 1.0, 1.0, 60);
+        return new RetrieveStep(new HybridRetriever(null, null,
+                new RetrievalProperties(Mode.VECTOR, partitionByDomain, settings, null, null)));
+    }
+
+    /** The steps of the production chain, in ChainWorkflowConfig order; never applied here. */
+    private static List<Step> chain(RetrieveStep retrieve) {
+        return List.of(
+                new IntentStep(text -> Mono.just("OTHER")),
+                retrieve,
+                new ContextAssemblyStep(new ContextAssembler(new ContextAssemblyProperties(true, 1200, 4, 0.7, 0.9),
+                        new JTokkitTokenCountEstimator())),
+                new DraftAnswerStep(null, null),
+                new ValidateStep(new AnswerValidator(new ValidationProperties(7, "references", null))),
+                new PersistStep(draft -> Mono.empty()));
+    }
+
+    private static List<List<String>> names(List<List<Step>> stages) {
+        return stages.stream()
+                .map(stage -> stage.stream().map(step -> step.getClass().getSimpleName()).toList())
+                .toList();
+    }
+
+    private Stub stub(String name, Set<CtxField> reads, Set<CtxField> writes, Function<Ctx, Mono<Ctx>> body) {
+        return new Stub(name, reads, writes, body, log);
+    }
+
+    @Test
+    void intentAndRetrievalShareTheFirstStage() {
+        var stages = OnboardingChainOrchestratorService.plan(chain(retrieveStep(false)));
+
+        assertThat(names(stages)).containsExactly(
+                List.of("IntentStep", "RetrieveStep"),
+                List.of("ContextAssemblyStep"),
+                List.of("DraftAnswerStep"),
+                List.of("ValidateStep"),
+                List.of("PersistStep"));
+    }
+
+    @Test
+    void retrievalWaitsForTheIntentWhenItDependsOnIt() {
+        var stages = OnboardingChainOrchestratorService.plan(chain(retrieveStep(true)));
+
+        assertThat(names(stages).subList(0, 2)).containsExactly(List.of("IntentStep"), List.of("RetrieveStep"));
+    }
+
+    @Test
+    void validationRunsBeforePersistenceThroughMeta() {
+        var validate = stub("validate", EnumSet.of(CtxField.DRAFT_ANSWER), EnumSet.of(CtxField.META), Mono::just);
+        var persist = stub("persist", EnumSet.of(CtxField.DRAFT_ANSWER, CtxField.META),
+                EnumSet.noneOf(CtxField.class), Mono::just);
+        // without META between them the two would be independent
+        var audit = stub("audit", EnumSet.of(CtxField.DRAFT_ANSWER), EnumSet.noneOf(CtxField.class), Mono::just);
+
+        var stages = OnboardingChainOrchestratorService.plan(List.of(validate, persist, audit));
+
+        assertThat(stages).containsExactly(List.of(validate, audit), List.of(persist));
+
+        StepVerifier.create(orchestrator(List.of(validate, persist)).run("question"))
+                .expectNextCount(1)
+                .verifyComplete();
+        assertThat(log).containsExactly("start validate", "end validate", "start persist", "end persist");
+    }
+
+    @Test
+    void writersOfTheSameFieldAreOrderedAsDeclared() {
+        var first = stub("first", EnumSet.of(CtxField.USER_TEXT), EnumSet.of(CtxField.INTENT), Mono::just);
+        var second = stub("second", EnumSet.of(CtxField.USER_TEXT), EnumSet.of(CtxField.INTENT), Mono::just);
+
+        assertThat(OnboardingChainOrchestratorService.plan(List.of(first, second)))
+                .containsExactly(List.of(first), List.of(second));
+    }
+
+    @Test
+    void stepsOfAStageRunConcurrentlyAndTheirWritesAreMerged() {
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+        Function<Ctx, Mono<Ctx>> overlapping = ctx -> Mono.delay(Duration.ofMillis(100))
+                .doOnSubscribe(s -> maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max))
+                .doFinally(s -> running.decrementAndGet())
+                .thenReturn(ctx);
+        var intent = stub("intent", EnumSet.of(CtxField.USER_TEXT), EnumSet.of(CtxField.INTENT),
+                ctx -> overlapping.apply(ctx).map(c -> c.withIntent("ONBOARDING_IT")));
+        var retrieve = stub("retrieve", EnumSet.of(CtxField.USER_TEXT), EnumSet.of(CtxField.PASSAGES),
+                ctx -> overlapping.apply(ctx).map(c -> c.withPassages(List.of("passage"), List.of())));
+        var draft = stub("draft", EnumSet.of(CtxField.INTENT, CtxField.PASSAGES), EnumSet.of(CtxField.DRAFT_ANSWER),
+                ctx -> Mono.just(ctx.withDraft(ctx.intent() + " from " + ctx.passages())));
+
+        StepVerifier.create(orchestrator(List.of(intent, retrieve, draft)).run("question"))
+                .assertNext(ctx -> {
+                    assertThat(ctx.intent()).isEqualTo("ONBOARDING_IT");
+                    assertThat(ctx.passages()).containsExactly("passage");
+                    assertThat(ctx.draftAnswer()).isEqualTo("ONBOARDING_IT from [passage]");
+                })
+                .verifyComplete();
+        assertThat(maxRunning).hasValue(2);
+        assertThat(log.indexOf("start draft")).isGreaterThan(log.indexOf("end intent")).isGreaterThan(log.indexOf("end retrieve"));
+    }
+
+    @Test
+    void aFailingStepOfAConcurrentStageFailsTheRun() {
+        var intent = stub("intent", EnumSet.of(CtxField.USER_TEXT), EnumSet.of(CtxField.INTENT),
+                ctx -> Mono.delay(Duration.ofMillis(50)).thenReturn(ctx.withIntent("OTHER")));
+        var retrieve = stub("retrieve", EnumSet.of(CtxField.USER_TEXT), EnumSet.of(CtxField.PASSAGES),
+                ctx -> Mono.error(new IllegalStateException("index unavailable")));
+        var draft = stub("draft", EnumSet.of(CtxField.INTENT, CtxField.PASSAGES), EnumSet.of(CtxField.DRAFT_ANSWER),
+                ctx -> Mono.just(ctx.withDraft("never")));
+
+        StepVerifier.create(orchestrator(List.of(intent, retrieve, draft)).run("question"))
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .hasMessageContaining("index unavailable")
+                        .hasRootCauseInstanceOf(IllegalStateException.class))
+                .verify(Duration.ofSeconds(5));
+        assertThat(log).doesNotContain("start draft");
+    }
+
+    @Test
+    void streamsEventsInStageOrderWhenRetrievalFinishesFirst() {
+        var intent = stub("intent", EnumSet.of(CtxField.USER_TEXT), EnumSet.of(CtxField.INTENT),
+                ctx -> Mono.delay(Duration.ofMillis(100)).thenReturn(ctx.withIntent("ONBOARDING_IT")));
+        var retrieve = stub("retrieve", EnumSet.of(CtxField.USER_TEXT), EnumSet.of(CtxField.PASSAGES),
+                ctx -> Mono.just(ctx.withPassages(List.of("passage"), List.of())));
+
+        StepVerifier.create(orchestrator(List.of(intent, retrieve)).stream("question").map(ChainEvent::type))
+                .expectNext("intent", "passages", "done")
+                .verifyComplete();
+        assertThat(log.indexOf("end retrieve")).isLessThan(log.indexOf("end intent"));
+    }
+}
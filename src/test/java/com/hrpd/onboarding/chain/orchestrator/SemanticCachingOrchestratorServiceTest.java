@@ -0,0 +1,78 @@
+package com.hrpd.onboarding.chain.orchestrator;
+
+import com.hrpd.onboarding.chain.Ctx;
+import com.hrpd.onboarding.chain.cache.SemanticAnswerCache;
+import com.hrpd.onboarding.chain.metrics.ChainMetrics;
+import com.hrpd.onboarding.config.SemanticCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.embedding.EmbeddingModel;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SemanticCachingOrchestratorServiceTest {
+
+    /** Chain stub answering every question with the meta a real run leaves behind. */
+    private static ChainWorkflowOrchestratorService chain(AtomicInteger runs) {
+        return new ChainWorkflowOrchestratorService() {
+            @Override
+            public Mono<Ctx> run(String userText) {
+                return run(userText, null);
+            }
+
+            @Override
+            public Mono<Ctx> run(String userText, String runKey) {
+                runs.incrementAndGet();
+                var meta = new ConcurrentHashMap<String, Object>(Map.of(
+                        OnboardingChainOrchestratorService.RUN_KEY, runKey,
+                        OnboardingChainOrchestratorService.RUN_STARTED_AT, "2026-01-01T00:00:00Z",
+                        ChainMetrics.TIMINGS, Map.of("draft-answer", 1200L),
+                        ChainMetrics.COST_USD, 0.002,
+                        ChainMetrics.PROMPT_TEMPLATE, "onboarding-v2",
+                        "validated", true));
+                return Mono.just(new Ctx(userText, "ONBOARDING_IT", List.of(), List.of(),
+                        "- Ask IT [#1]", meta));
+            }
+
+            @Override
+            public Flux<ChainEvent> stream(String userText) {
+                return Flux.empty();
+            }
+        };
+    }
+
+    @Test
+    void hitKeepsAnswerMetaAndDropsTheCachedRun() {
+        EmbeddingModel embeddings = mock(EmbeddingModel.class);
+        when(embeddings.embed(anyString())).thenReturn(new float[]{1f, 0f});
+        AtomicInteger runs = new AtomicInteger();
+        var cache = new SemanticAnswerCache(new SemanticCacheProperties(true, 10, Duration.ofHours(1), 0.08),
+                new SimpleMeterRegistry());
+        var service = new SemanticCachingOrchestratorService(chain(runs), cache, embeddings);
+
+        service.run("How do I set up my laptop?", "key-1").block();
+        Ctx hit = service.run("How to set up my laptop", "key-2").block();
+
+        assertThat(runs).hasValue(1);
+        assertThat(hit.userText()).isEqualTo("How to set up my laptop");
+        assertThat(hit.draftAnswer()).isEqualTo("- Ask IT [#1]");
+        assertThat(hit.meta())
+                .containsEntry("validated", true)
+                .containsEntry(ChainMetrics.PROMPT_TEMPLATE, "onboarding-v2")
+                .containsEntry("cache", "HIT")
+                .containsKey("cacheDistance")
+                .doesNotContainKeys(OnboardingChainOrchestratorService.RUN_KEY,
+                        OnboardingChainOrchestratorService.RUN_STARTED_AT, ChainMetrics.TIMINGS, ChainMetrics.COST_USD);
+    }
+}
@@ -0,0 +1,244 @@
+package com.hrpd.onboarding.chain.validation;
+
+import com.hrpd.onboarding.config.ValidationProperties;
+import com.hrpd.onboarding.config.ValidationProperties.KeywordGroup;
+import com.hrpd.onboarding.config.ValidationProperties.Scope;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * Checks the single-pass validator against the regex rules it replaced. Where the behaviour
+ * deliberately differs, the case says so and pins both results.
+ */
+class AnswerValidatorTest {
+
+    /** The bullet and marker patterns of the former regex-based ValidateStep. */
+    private static final Pattern OLD_BULLET = Pattern.compile("^\\s*-\\s+(.+)$", Pattern.MULTILINE);
+    private static final Pattern OLD_MARKER = Pattern.compile("\\[#\\d+\\]");
+
+    private static final AnswerValidator DEFAULTS = new AnswerValidator(new ValidationProperties(7, "references", null));
+
+    private static long oldBullets(String answer) {
+        return OLD_BULLET.matcher(answer.trim()).results().count();
+    }
+
+    private static long oldMarkers(String answer) {
+        return OLD_MARKER.matcher(answer).results().count();
+    }
+
+    // ---- bullets ----
+
+    static Stream<Arguments> bulletsLikeRegex() {
+        return Stream.of(
+                arguments("plain", "- one\n- two\n- three", 3),
+                arguments("indented", "  - one\n\t- two", 2),
+                arguments("several blanks after dash", "-   one", 1),
+                arguments("tab after dash", "-\tone", 1),
+                arguments("form feed and vertical tab are blanks", "\f-\u000Bone", 1),
+                arguments("CRLF line endings", "- one\r\n- two\r\n", 2),
+                arguments("blank lines between bullets", "- one\n\n\n- two", 2),
+                arguments("no blank after dash", "-one\n--two", 0),
+                arguments("dash inside a sentence", "Call IT - they help", 0),
+                arguments("asterisk is not a bullet", "* one\n• two", 0),
+                arguments("nested dash counts once", "- - one", 1),
+                arguments("text before the first bullet", "Intro:\n- one\nReferences: [#1]", 1),
+                arguments("no bullets at all", "Just prose.", 0));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("bulletsLikeRegex")
+    void countsBulletsLikeTheRegex(String name, String answer, int expected) {
+        assertThat(oldBullets(answer)).as("regex").isEqualTo(expected);
+        assertThat(DEFAULTS.validate(answer, 1).bulletCount()).isEqualTo(expected);
+    }
+
+    /** The regex let {@code \s+} after the dash run into the next line; bullets are now line-local. */
+    static Stream<Arguments> bulletsUnlikeRegex() {
+        return Stream.of(
+                arguments("dash alone on its line", "-\nnext line", 1, 0),
+                arguments("dash and trailing blanks", "-  \nnext line", 1, 0),
+                arguments("dash then CRLF", "-\r\nnext line", 1, 0));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("bulletsUnlikeRegex")
+    void keepsBulletsOnOneLine(String name, String answer, int regex, int expected) {
+        assertThat(oldBullets(answer)).as("regex").isEqualTo(regex);
+        assertThat(DEFAULTS.validate(answer, 1).bulletCount()).isEqualTo(expected);
+    }
+
+    @Test
+    void tooManyBulletsFail() {
+        String answer = "- a\n".repeat(8) + "References [#1]";
+
+        ValidationReport report = DEFAULTS.validate(answer, 1);
+
+        assertThat(report.valid()).isFalse();
+        assertThat(report.failures()).containsExactly("Expected 1 to 7 bullet points, found 8");
+    }
+
+    // ---- [#n] markers ----
+
+    /**
+     * The regex only counted markers and accepted any count up to the number of passages; markers
+     * are now range-checked one by one, so {@code oldValid} and {@code valid} can disagree.
+     */
+    static Stream<Arguments> markers() {
+        return Stream.of(
+                arguments("in range", "[#1] and [#2]", 2, 2, 0, true, true),
+                arguments("last passage", "[#3]", 3, 1, 0, true, true),
+                arguments("multi-digit", "[#12]", 12, 1, 0, true, true),
+                arguments("same passage cited often", "[#1][#1][#1]", 2, 3, 0, false, true),
+                arguments("beyond the passages", "[#9]", 2, 1, 1, true, false),
+                arguments("zero", "[#0]", 2, 1, 1, true, false),
+                arguments("no passages retrieved", "[#1]", 0, 1, 1, false, false),
+                arguments("huge number does not overflow", "[#99999999999]", 5, 1, 1, true, false),
+                arguments("nested brackets", "[[#2]]", 2, 1, 0, true, true),
+                arguments("restarts on a new bracket", "[#1[#2]", 2, 1, 0, true, true),
+                arguments("not markers", "[#] [# 1] [1] #1 [#1a] [#-1]", 2, 0, 0, true, true));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("markers")
+    void checksMarkers(String name, String text, int passages, int markers, int invalid,
+                       boolean oldValid, boolean valid) {
+        assertThat(oldMarkers(text)).as("regex count").isEqualTo(markers);
+        assertThat(oldMarkers(text) <= passages).as("regex verdict").isEqualTo(oldValid);
+
+        ValidationReport report = DEFAULTS.validate("- one\nReferences " + text, passages);
+
+        assertThat(report.referenceMarkers()).isEqualTo(markers);
+        assertThat(report.invalidReferenceMarkers()).isEqualTo(invalid);
+        assertThat(report.valid()).isEqualTo(valid && markers > 0);
+    }
+
+    @Test
+    void missingMarkersAndReferencesFail() {
+        ValidationReport report = DEFAULTS.validate("- one", 3);
+
+        assertThat(report.failures()).containsExactly("References section missing", "No [#n] reference markers");
+    }
+
+    // ---- keywords ----
+
+    private static AnswerValidator withGroups(String heading, Map<String, KeywordGroup> groups) {
+        return new AnswerValidator(new ValidationProperties(7, heading, groups));
+    }
+
+    private static KeywordGroup answerGroup(String... keywords) {
+        return new KeywordGroup(List.of(keywords), Scope.ANSWER, false);
+    }
+
+    @Test
+    void overlappingKeywordsAllMatch() {
+        Map<String, KeywordGroup> groups = new LinkedHashMap<>();
+        groups.put("he", answerGroup("he"));
+        groups.put("she", answerGroup("she"));
+        groups.put("hers", answerGroup("hers"));
+        groups.put("his", answerGroup("his"));
+
+        ValidationReport report = withGroups("references", groups).validate("ushers", 0);
+
+        assertThat(report.keywordGroups()).containsExactly(
+                Map.entry("he", true), Map.entry("she", true), Map.entry("hers", true), Map.entry("his", false));
+    }
+
+    @Test
+    void headingOverlappingAKeywordMatchesBoth() {
+        Map<String, KeywordGroup> groups = Map.of("refer", answerGroup("refer"));
+        AnswerValidator validator = withGroups("references", groups);
+
+        ValidationReport both = validator.validate("See REFERENCES", 0);
+        ValidationReport keywordOnly = validator.validate("refer to HR", 0);
+
+        assertThat(both.referencesSection()).isTrue();
+        assertThat(both.keywordGroups()).containsEntry("refer", true);
+        assertThat(keywordOnly.referencesSection()).isFalse();
+        assertThat(keywordOnly.keywordGroups()).containsEntry("refer", true);
+    }
+
+    /** The default groups share "contact" but look in different scopes. */
+    static Stream<Arguments> defaultGroups() {
+        return Stream.of(
+                arguments("shared keyword in prose", "Please contact us.", true, false),
+                arguments("shared keyword in a bullet", "- contact us", true, true),
+                arguments("bullet-only keyword in prose", "Email the team.", false, false),
+                arguments("upper case in a bullet", "- EMAIL the team", false, true),
+                arguments("keyword split by a line break", "- em\nail", false, false),
+                arguments("keyword after a non-bullet line", "- one\nthen email", false, false),
+                arguments("substring match like contains()", "- completed", false, true),
+                arguments("short keyword inside a word", "Visit the kitchen", true, false));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("defaultGroups")
+    void scopesKeywordGroupsLikeTheRegex(String name, String answer, boolean missingInfo, boolean actionable) {
+        String lower = answer.toLowerCase();
+        assertThat(Stream.of("missing", "information", "contact", "it", "hr", "legal").anyMatch(lower::contains))
+                .as("old missing-info").isEqualTo(missingInfo);
+        assertThat(OLD_BULLET.matcher(answer.trim()).results()
+                .map(m -> m.group(1).trim().toLowerCase())
+                .anyMatch(b -> Stream.of("step", "action", "contact", "email", "call", "visit", "submit", "complete")
+                        .anyMatch(b::contains)))
+                .as("old actionable").isEqualTo(actionable);
+
+        ValidationReport report = DEFAULTS.validate(answer, 0);
+
+        assertThat(report.keywordGroups())
+                .containsEntry("missing-info", missingInfo)
+                .containsEntry("actionable", actionable);
+    }
+
+    @Test
+    void requiredGroupFailsOnlyWhenMissing() {
+        Map<String, KeywordGroup> groups = Map.of("policy", new KeywordGroup(List.of("policy"), Scope.BULLETS, true));
+        AnswerValidator validator = withGroups("references", groups);
+
+        ValidationReport missing = validator.validate("- see the handbook\nReferences [#1]", 1);
+        ValidationReport found = validator.validate("- see the Policy\nReferences [#1]", 1);
+
+        assertThat(missing.failures()).containsExactly("Keyword group 'policy' not found");
+        assertThat(found.valid()).isTrue();
+    }
+
+    // ---- group limit ----
+
+    private static Map<String, KeywordGroup> groups(int n) {
+        Map<String, KeywordGroup> groups = new LinkedHashMap<>();
+        IntStream.range(0, n).forEach(i -> groups.put("g" + i, answerGroup("kw" + i + "x")));
+        return groups;
+    }
+
+    @Test
+    void acceptsSixtyThreeGroupsAndUsesEveryBit() {
+        AnswerValidator validator = withGroups("references", groups(63));
+
+        ValidationReport report = validator.validate("kw0x kw62x references", 0);
+
+        assertThat(report.referencesSection()).isTrue();
+        assertThat(report.keywordGroups()).hasSize(63)
+                .containsEntry("g0", true)
+                .containsEntry("g1", false)
+                .containsEntry("g62", true);
+    }
+
+    @Test
+    void rejectsSixtyFourGroups() {
+        assertThatThrownBy(() -> withGroups("references", groups(64)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("At most 63 keyword groups are supported");
+    }
+}
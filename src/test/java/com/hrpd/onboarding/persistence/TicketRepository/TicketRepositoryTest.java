@@ -0,0 +1,131 @@
+package com.hrpd.onboarding.persistence.TicketRepository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hrpd.onboarding.chain.PassageRef;
+import com.hrpd.onboarding.rag.ingest.ContentHash;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.r2dbc.core.FetchSpec;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TicketRepositoryTest {
+
+    private static final String CHUNK_1 = "Request remote access through the IT Service Portal. Your manager approves it.";
+    private static final String CHUNK_2 = "The VPN client is installed from the Software Center. It requires Okta Verify.";
+
+    /**
+     * Stand-in for Postgres: records the statements and keeps the primary keys of draft_passages,
+     * so an insert of a hash already stored adds no row, as ON CONFLICT does.
+     */
+    private static final class Database {
+
+        private final Map<String, String> vectorStore = new HashMap<>();
+        private final Set<String> draftPassages = new HashSet<>();
+        private final List<Map<Integer, Object>> draftInserts = new ArrayList<>();
+        private final DatabaseClient client = mock(DatabaseClient.class);
+
+        Database() {
+            when(client.sql(anyString())).thenAnswer(invocation -> statement(invocation.getArgument(0)));
+        }
+
+        private GenericExecuteSpec statement(String sql) {
+            Map<Integer, Object> binds = new HashMap<>();
+            @SuppressWarnings("unchecked")
+            FetchSpec<Map<String, Object>> fetch = mock(FetchSpec.class);
+            when(fetch.rowsUpdated()).thenAnswer(invocation -> Mono.fromSupplier(() -> execute(sql, binds)));
+            return mock(GenericExecuteSpec.class, invocation -> {
+                String method = invocation.getMethod().getName();
+                if (method.equals("bind") || method.equals("bindNull")) {
+                    binds.put(invocation.getArgument(0), method.equals("bind") ? invocation.getArgument(1) : null);
+                    return invocation.getMock();
+                }
+                if (method.equals("fetch")) {
+                    return fetch;
+                }
+                return RETURNS_DEFAULTS.answer(invocation);
+            });
+        }
+
+        private long execute(String sql, Map<Integer, Object> binds) {
+            if (sql.contains("INSERT INTO draft_passages")) {
+                String[] ids = (String[]) binds.get(0);
+                String[] hashes = (String[]) binds.get(1);
+                long inserted = 0;
+                for (int i = 0; i < ids.length; i++) {
+                    if (vectorStore.containsKey(ids[i]) && draftPassages.add(hashes[i])) {
+                        inserted++;
+                    }
+                }
+                return inserted;
+            }
+            draftInserts.add(binds);
+            return 1;
+        }
+    }
+
+    private final Database database = new Database();
+    private final TicketRepository repository = new TicketRepository(database.client, new ObjectMapper(), "public.vector_store");
+
+    private PassageRef chunk(String id, String text, double score) {
+        database.vectorStore.put(id, text);
+        return new PassageRef(id, score, ContentHash.of(text));
+    }
+
+    private static DraftRecord draft(String question, List<PassageRef> sources) {
+        return new DraftRecord(question, "ONBOARDING_IT", "llm", "See [#1] and [#2].", sources, null, null);
+    }
+
+    @Test
+    void questionsCitingTheSameChunksStoreTheirTextOnce() {
+        var first = List.of(chunk("00000000-0000-0000-0000-000000000001", CHUNK_1, 0.91),
+                chunk("00000000-0000-0000-0000-000000000002", CHUNK_2, 0.84));
+        // another question: other scores and order, the same chunks
+        var second = List.of(
+                new PassageRef(first.get(1).id(), 0.88, first.get(1).hash()),
+                new PassageRef(first.get(0).id(), 0.79, first.get(0).hash()));
+
+        repository.write(draft("How do I get VPN access?", first)).block();
+        int storedAfterFirst = database.draftPassages.size();
+        repository.write(draft("Which app do I need for the VPN?", second)).block();
+
+        assertThat(storedAfterFirst).isEqualTo(2);
+        assertThat(database.draftPassages).hasSize(2);
+        assertThat(database.draftInserts).hasSize(2);
+    }
+
+    @Test
+    void draftRowsCarryReferencesButNoPassageText() throws Exception {
+        var sources = List.of(chunk("00000000-0000-0000-0000-000000000001", CHUNK_1, 0.91));
+
+        repository.saveDrafts(List.of(draft("How do I get VPN access?", sources))).block();
+
+        String refs = (String) database.draftInserts.get(0).get(4);
+        assertThat(new ObjectMapper().readTree(refs).get(0).fieldNames())
+                .toIterable().containsExactly("id", "score", "hash");
+        assertThat(refs).doesNotContain("Service Portal").contains(ContentHash.of(CHUNK_1));
+    }
+
+    @Test
+    void draftsWithoutHashesCopyNoText() {
+        var legacy = List.of(new PassageRef("00000000-0000-0000-0000-000000000001", 0.9, null));
+
+        repository.saveDrafts(List.of(draft("How do I get VPN access?", legacy), draft("VPN?", null))).block();
+
+        assertThat(database.draftPassages).isEmpty();
+        assertThat(database.draftInserts).hasSize(1);
+    }
+}
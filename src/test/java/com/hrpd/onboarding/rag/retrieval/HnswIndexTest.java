@@ -0,0 +1,144 @@
+package com.hrpd.onboarding.rag.retrieval;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+class HnswIndexTest {
+
+    private static final int DIMENSIONS = 64;
+    private static final int K = 10;
+    /** The onboarding.retrieval.mirror defaults. */
+    private static final int M = 16;
+    private static final int EF_CONSTRUCTION = 64;
+    private static final int EF_SEARCH = 100;
+
+    private static float[][] randomVectors(Random random, int count) {
+        float[][] vectors = new float[count][DIMENSIONS];
+        for (float[] vector : vectors) {
+            for (int i = 0; i < DIMENSIONS; i++) {
+                vector[i] = (float) random.nextGaussian();
+            }
+        }
+        return vectors;
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0, na = 0, nb = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            na += a[i] * a[i];
+            nb += b[i] * b[i];
+        }
+        return dot / Math.sqrt(na * nb);
+    }
+
+    /** Brute-force top k, the ground truth the graph search is measured against. */
+    private static Set<Integer> exact(float[][] vectors, float[] query, int k, Set<Integer> excluded) {
+        return IntStream.range(0, vectors.length)
+                .filter(node -> !excluded.contains(node))
+                .boxed()
+                .sorted(Comparator.comparingDouble((Integer node) -> cosine(vectors[node], query)).reversed())
+                .limit(k)
+                .collect(HashSet::new, Set::add, Set::addAll);
+    }
+
+    private static Set<Integer> nodes(List<HnswIndex.Scored> results) {
+        Set<Integer> nodes = new HashSet<>();
+        results.forEach(scored -> nodes.add(scored.node()));
+        return nodes;
+    }
+
+    /** Share of the exact top k found by the graph search. */
+    private static double recall(HnswIndex index, float[][] vectors, float[][] queries, int ef, Set<Integer> excluded) {
+        int found = 0;
+        for (float[] query : queries) {
+            Set<Integer> truth = exact(vectors, query, K, excluded);
+            for (int node : nodes(index.search(query, K, ef, null))) {
+                if (truth.contains(node)) {
+                    found++;
+                }
+            }
+        }
+        return (double) found / (queries.length * K);
+    }
+
+    @Test
+    void findsNineInTenOfTheExactNearestNeighboursWithTheDefaults() {
+        Random random = new Random(42);
+        float[][] vectors = randomVectors(random, 5000);
+        float[][] queries = randomVectors(random, 100);
+        HnswIndex index = new HnswIndex(M, EF_CONSTRUCTION);
+        for (float[] vector : vectors) {
+            index.add(vector);
+        }
+
+        double recall = recall(index, vectors, queries, EF_SEARCH, Set.of());
+
+        assertThat(recall).isGreaterThanOrEqualTo(0.9);
+    }
+
+    @Test
+    void neverReturnsRemovedNodesButStillRoutesThroughThem() {
+        Random random = new Random(7);
+        float[][] vectors = randomVectors(random, 2000);
+        float[][] queries = randomVectors(random, 50);
+        HnswIndex index = new HnswIndex(M, EF_CONSTRUCTION);
+        for (float[] vector : vectors) {
+            index.add(vector);
+        }
+        Set<Integer> removed = new HashSet<>();
+        for (int node = 0; node < vectors.length; node += 4) {
+            index.remove(node);
+            removed.add(node);
+        }
+        index.remove(0);
+
+        assertThat(index.size()).isEqualTo(vectors.length);
+        assertThat(index.deletedCount()).isEqualTo(removed.size());
+        for (float[] query : queries) {
+            assertThat(nodes(index.search(query, K, EF_SEARCH, null))).doesNotContainAnyElementsOf(removed);
+        }
+        assertThat(recall(index, vectors, queries, EF_SEARCH, removed)).isGreaterThanOrEqualTo(0.9);
+    }
+
+    @Test
+    void returnsAnExactMatchFirstAndAppliesTheFilter() {
+        Random random = new Random(3);
+        float[][] vectors = randomVectors(random, 1000);
+        HnswIndex index = new HnswIndex(M, EF_CONSTRUCTION);
+        for (float[] vector : vectors) {
+            index.add(vector);
+        }
+
+        List<HnswIndex.Scored> nearest = index.search(vectors[123], K, EF_SEARCH, null);
+        List<HnswIndex.Scored> even = index.search(vectors[123], K, EF_SEARCH, node -> node % 2 == 0);
+
+        assertThat(nearest.get(0).node()).isEqualTo(123);
+        assertThat(nearest.get(0).distance()).isCloseTo(0f, offset(1e-5f));
+        assertThat(even).hasSize(K).allMatch(scored -> scored.node() % 2 == 0);
+        List<Float> distances = new ArrayList<>();
+        nearest.forEach(scored -> distances.add(scored.distance()));
+        assertThat(distances).isSorted();
+    }
+
+    @Test
+    void rejectsVectorsOfAnotherDimension() {
+        HnswIndex index = new HnswIndex(M, EF_CONSTRUCTION);
+        index.add(new float[DIMENSIONS]);
+
+        assertThatThrownBy(() -> index.add(new float[DIMENSIONS + 1]))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(index.search(new float[DIMENSIONS + 1], K, EF_SEARCH, null)).isEmpty();
+    }
+}
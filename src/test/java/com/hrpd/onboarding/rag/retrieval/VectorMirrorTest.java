@@ -0,0 +1,245 @@
+package com.hrpd.onboarding.rag.retrieval;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hrpd.onboarding.config.RetrievalProperties.Mirror;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VectorMirrorTest {
+
+    private static final Mirror PROPS = new Mirror(true, 16, 64, 100, 0.25);
+    private static final List<String> RELOAD = List.of("");
+
+    /** The vector_store table, read through the two queries the mirror issues. */
+    private static final class Table extends JdbcTemplate {
+
+        private final TreeMap<String, String[]> rows = new TreeMap<>();
+        private int pageQueries;
+
+        void put(String id, String domain, float... embedding) {
+            String vector = "[" + Arrays.stream(box(embedding)).map(String::valueOf).collect(Collectors.joining(",")) + "]";
+            rows.put(id, new String[]{id, "chunk " + id, "{\"domain\":\"" + domain + "\"}", vector});
+        }
+
+        void delete(String id) {
+            rows.remove(id);
+        }
+
+        /** The keyset-paginated page query of a reload. */
+        @Override
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            pageQueries++;
+            List<T> page = new ArrayList<>();
+            for (String[] row : rows.tailMap((String) args[0], false).values()) {
+                if (page.size() == (int) args[1]) {
+                    break;
+                }
+                page.add(map(row, rowMapper));
+            }
+            return page;
+        }
+
+        /** The by-id query of a change batch. */
+        @Override
+        public void query(PreparedStatementCreator creator, RowCallbackHandler handler) {
+            List<String> ids = new ArrayList<>();
+            try {
+                Connection connection = mock(Connection.class);
+                when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+                when(connection.createArrayOf(eq("uuid"), any())).thenAnswer(invocation -> {
+                    for (Object id : (Object[]) invocation.getArgument(1)) {
+                        ids.add(id.toString());
+                    }
+                    return mock(Array.class);
+                });
+                creator.createPreparedStatement(connection);
+                for (String id : ids) {
+                    String[] row = rows.get(id);
+                    if (row != null) {
+                        handler.processRow(resultSet(row));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static <T> T map(String[] row, RowMapper<T> rowMapper) {
+            try {
+                return rowMapper.mapRow(resultSet(row), 0);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static ResultSet resultSet(String[] row) throws SQLException {
+            ResultSet rs = mock(ResultSet.class);
+            for (int i = 0; i < row.length; i++) {
+                when(rs.getString(i + 1)).thenReturn(row[i]);
+            }
+            return rs;
+        }
+
+        private static Float[] box(float[] values) {
+            Float[] boxed = new Float[values.length];
+            for (int i = 0; i < values.length; i++) {
+                boxed[i] = values[i];
+            }
+            return boxed;
+        }
+    }
+
+    private final Table table = new Table();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final VectorMirror mirror = new VectorMirror(table, new ObjectMapper(), mock(ConnectionFactory.class),
+            "public", "vector_store", PROPS, registry);
+
+    private static String id(int n) {
+        return new UUID(1, n).toString();
+    }
+
+    /** The i-th unit vector of {@code dimensions}. */
+    private static float[] axis(int i, int dimensions) {
+        float[] vector = new float[dimensions];
+        vector[i] = 1;
+        return vector;
+    }
+
+    private List<String> search(float[] embedding, int topK) {
+        return mirror.search(embedding, topK, 0.0, null).stream().map(Document::getId).toList();
+    }
+
+    private double reloads() {
+        return registry.get("onboarding.retrieve.mirror.reloads").counter().count();
+    }
+
+    private double size() {
+        return registry.get("onboarding.retrieve.mirror.size").gauge().value();
+    }
+
+    @Test
+    void answersNothingUntilLoaded() {
+        table.put(id(1), "IT", axis(0, 4));
+
+        assertThat(mirror.isReady()).isFalse();
+        assertThat(search(axis(0, 4), 3)).isEmpty();
+    }
+
+    @Test
+    void reloadReadsTheWholeTablePageByPage() {
+        Random random = new Random(11);
+        float[][] embeddings = new float[2500][16];
+        for (int n = 0; n < embeddings.length; n++) {
+            for (int i = 0; i < 16; i++) {
+                embeddings[n][i] = (float) random.nextGaussian();
+            }
+            table.put(id(n), n % 2 == 0 ? "IT" : "HR", embeddings[n]);
+        }
+
+        mirror.apply(RELOAD);
+
+        assertThat(mirror.isReady()).isTrue();
+        assertThat(table.pageQueries).isEqualTo(3);
+        assertThat(size()).isEqualTo(2500);
+        assertThat(reloads()).isEqualTo(1);
+        List<Document> nearest = mirror.search(embeddings[42], 5, 0.0, null);
+        assertThat(nearest.get(0).getId()).isEqualTo(id(42));
+        assertThat(nearest.get(0).getScore()).isCloseTo(1.0, offset(1e-5));
+        assertThat(nearest.get(0).getMetadata()).containsEntry("domain", "IT").containsKey("distance");
+        assertThat(mirror.search(embeddings[42], 5, 0.0, metadata -> "HR".equals(metadata.get("domain"))))
+                .hasSize(5)
+                .allMatch(document -> "HR".equals(document.getMetadata().get("domain")));
+    }
+
+    @Test
+    void appliesNotifiedUpsertsAndDeletes() {
+        for (int n = 0; n < 8; n++) {
+            table.put(id(n), "IT", axis(n, 8));
+        }
+        mirror.apply(RELOAD);
+
+        table.delete(id(1));
+        table.put(id(2), "IT", axis(5, 8));
+        table.put(id(9), "HR", axis(1, 8));
+        mirror.apply(List.of(id(1), id(2), id(9)));
+
+        assertThat(search(axis(1, 8), 1)).containsExactly(id(9));
+        assertThat(search(axis(2, 8), 8)).doesNotContain(id(1)).contains(id(9));
+        assertThat(search(axis(5, 8), 2)).containsExactlyInAnyOrder(id(2), id(5));
+        assertThat(size()).isEqualTo(8);
+        assertThat(reloads()).isEqualTo(1);
+    }
+
+    @Test
+    void rebuildsFromTheTableOnceTombstonesPassTheRatio() {
+        for (int n = 0; n < 8; n++) {
+            table.put(id(n), "IT", axis(n, 8));
+        }
+        mirror.apply(RELOAD);
+
+        // 2 tombstones out of 8 nodes: at the 0.25 ratio, not past it
+        table.delete(id(0));
+        table.delete(id(1));
+        mirror.apply(List.of(id(0), id(1)));
+        assertThat(reloads()).isEqualTo(1);
+
+        table.delete(id(2));
+        mirror.apply(List.of(id(2)));
+
+        assertThat(reloads()).isEqualTo(2);
+        assertThat(size()).isEqualTo(5);
+        assertThat(search(axis(3, 8), 8)).hasSize(5).doesNotContain(id(0), id(1), id(2));
+    }
+
+    @Test
+    void reloadReplacesTheReplica() {
+        table.put(id(1), "IT", axis(0, 4));
+        table.put(id(2), "IT", axis(1, 4));
+        mirror.apply(RELOAD);
+
+        // changes whose notifications were lost while the listener reconnected
+        table.delete(id(1));
+        table.put(id(3), "HR", axis(2, 4));
+        mirror.apply(RELOAD);
+
+        assertThat(search(axis(0, 4), 4)).containsExactlyInAnyOrder(id(2), id(3));
+        assertThat(reloads()).isEqualTo(2);
+    }
+
+    @Test
+    void ignoresChangesBeforeTheFirstLoad() {
+        table.put(id(1), "IT", axis(0, 4));
+
+        mirror.apply(List.of(id(1)));
+
+        assertThat(mirror.isReady()).isFalse();
+        assertThat(search(axis(0, 4), 1)).isEmpty();
+    }
+}